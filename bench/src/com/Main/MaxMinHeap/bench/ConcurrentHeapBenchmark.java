@@ -0,0 +1,161 @@
+package com.Main.MaxMinHeap.bench;
+
+import com.Main.MaxMinHeap.AsyncMaxMinHeap;
+import com.Main.MaxMinHeap.ConcurrentMaxMinHeap;
+import com.Main.MaxMinHeap.EmptyHeapException;
+import com.Main.MaxMinHeap.MaxMinHeap;
+import com.Main.MaxMinHeap.RelaxedMaxMinHeap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi threaded throughput of ConcurrentMaxMinHeap (flat combining), RelaxedMaxMinHeap (sharded two-choice
+ * MultiQueue) and AsyncMaxMinHeap (owner thread, every caller joins its future) against a MaxMinHeap behind a global
+ * synchronized block, on a steady workload of 1/2 inserts, 1/4 extract max and 1/4 extract min.
+ *
+ * JMH runs a benchmark with a single thread count, run main() to get the scaling from 1 to 32 threads.
+ *
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcurrentHeapBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+
+    @State(Scope.Benchmark)
+    public static class SharedHeaps {
+
+        @Param({"1000", "1000000"})
+        int initialSize;
+
+        ConcurrentMaxMinHeap combiningHeap;
+        RelaxedMaxMinHeap relaxedHeap;
+        AsyncMaxMinHeap asyncHeap;
+        MaxMinHeap lockedHeap;
+
+        @Setup(Level.Trial)
+        public void fill() {
+            combiningHeap = new ConcurrentMaxMinHeap(Math.max(64, 2 * Runtime.getRuntime().availableProcessors()));
+            int[] values = ValueDistribution.RANDOM.generate(initialSize, 42);
+            relaxedHeap = new RelaxedMaxMinHeap();
+            asyncHeap = new AsyncMaxMinHeap();
+            lockedHeap = new MaxMinHeap(values);
+            lockedHeap.buildHeap();
+            for (int value : values) {
+                combiningHeap.heapInsert(value);
+                relaxedHeap.heapInsert(value);
+                asyncHeap.heapInsert(value);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stopOwner() {
+            asyncHeap.close();
+        }
+    }
+
+    @Benchmark
+    public int flatCombining(SharedHeaps heaps) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int operation = random.nextInt(4);
+        ConcurrentMaxMinHeap heap = heaps.combiningHeap;
+        try {
+            if (operation < 2) {
+                heap.heapInsert(random.nextInt());
+                return 0;
+            }
+            return operation == 2 ? heap.heapExtractMax() : heap.heapExtractMin();
+        } catch (EmptyHeapException e) {
+            return -1;
+        }
+    }
+
+    @Benchmark
+    public int relaxedMultiQueue(SharedHeaps heaps) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int operation = random.nextInt(4);
+        RelaxedMaxMinHeap heap = heaps.relaxedHeap;
+        try {
+            if (operation < 2) {
+                heap.heapInsert(random.nextInt());
+                return 0;
+            }
+            return operation == 2 ? heap.heapExtractMax() : heap.heapExtractMin();
+        } catch (EmptyHeapException e) {
+            return -1;
+        }
+    }
+
+    @Benchmark
+    public int asyncOwnerThread(SharedHeaps heaps) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int operation = random.nextInt(4);
+        AsyncMaxMinHeap heap = heaps.asyncHeap;
+        try {
+            if (operation < 2) {
+                heap.heapInsert(random.nextInt()).join();
+                return 0;
+            }
+            return (operation == 2 ? heap.heapExtractMax() : heap.heapExtractMin()).join();
+        } catch (CompletionException e) {
+            return -1;
+        }
+    }
+
+    @Benchmark
+    public int globalLock(SharedHeaps heaps) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int operation = random.nextInt(4);
+        MaxMinHeap heap = heaps.lockedHeap;
+        synchronized (heap) {
+            if (operation < 2) {
+                heap.heapInsert(random.nextInt());
+                return 0;
+            }
+            if (heap.isEmpty()) {
+                return -1;
+            }
+            return operation == 2 ? heap.heapExtractMax() : heap.heapExtractMin();
+        }
+    }
+
+    @Benchmark
+    public int lockFreePeek(SharedHeaps heaps) {
+        ConcurrentMaxMinHeap heap = heaps.combiningHeap;
+        return heap.isEmpty() ? 0 : heap.peekMax() - heap.peekMin();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        /*
+        Runs the benchmarks of this class once for every thread count, from 1 to 32 threads
+         */
+        for (int threads : THREAD_COUNTS) {
+            new Runner(new OptionsBuilder()
+                    .include(ConcurrentHeapBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.Main.MaxMinHeap.bench;
+
+import com.Main.MaxMinHeap.MaxMinHeap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the iterative MaxMinHeap engine (bit arithmetic levels, hole based sifts, unchecked grandchild scans)
+ * with the original recursive engine frozen in LegacyMaxMinHeap, operation by operation on the same inputs.
+ *
+ * Each invocation processes all the <size> values, the heaps the invocation works on are prepared outside of the
+ * measured time. The legacy and iterative results of an operation are meant to be read side by side.
+ *
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EngineComparisonBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Input {
+
+        @Param({"1000", "100000", "10000000"})
+        int size;
+
+        @Param
+        ValueDistribution distribution;
+
+        int[] values;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            values = distribution.generate(size, 42);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class UnbuiltHeaps {
+
+        MaxMinHeap heap;
+        LegacyMaxMinHeap legacyHeap;
+
+        @Setup(Level.Invocation)
+        public void copyInput(Input input) {
+            heap = new MaxMinHeap(input.values);
+            legacyHeap = new LegacyMaxMinHeap(input.values);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BuiltHeaps {
+
+        MaxMinHeap heap;
+        LegacyMaxMinHeap legacyHeap;
+
+        @Setup(Level.Invocation)
+        public void buildFromInput(Input input) {
+            heap = new MaxMinHeap(input.values);
+            heap.buildHeap();
+            legacyHeap = new LegacyMaxMinHeap(input.values);
+            legacyHeap.buildHeap();
+        }
+    }
+
+    @Benchmark
+    public MaxMinHeap buildHeap(UnbuiltHeaps state) {
+        state.heap.buildHeap();
+        return state.heap;
+    }
+
+    @Benchmark
+    public LegacyMaxMinHeap buildHeapLegacy(UnbuiltHeaps state) {
+        state.legacyHeap.buildHeap();
+        return state.legacyHeap;
+    }
+
+    @Benchmark
+    public MaxMinHeap heapInsert(Input input) {
+        MaxMinHeap heap = new MaxMinHeap();
+        for (int value : input.values) {
+            heap.heapInsert(value);
+        }
+        return heap;
+    }
+
+    @Benchmark
+    public LegacyMaxMinHeap heapInsertLegacy(Input input) {
+        LegacyMaxMinHeap heap = new LegacyMaxMinHeap(new int[0]);
+        for (int value : input.values) {
+            heap.heapInsert(value);
+        }
+        return heap;
+    }
+
+    @Benchmark
+    public void heapExtractMax(BuiltHeaps state, Blackhole blackhole) {
+        MaxMinHeap heap = state.heap;
+        while (!heap.isEmpty()) {
+            blackhole.consume(heap.heapExtractMax());
+        }
+    }
+
+    @Benchmark
+    public void heapExtractMaxLegacy(BuiltHeaps state, Blackhole blackhole) {
+        LegacyMaxMinHeap heap = state.legacyHeap;
+        while (heap.size() > 0) {
+            blackhole.consume(heap.heapExtractMax());
+        }
+    }
+
+    @Benchmark
+    public void heapExtractMin(BuiltHeaps state, Blackhole blackhole) {
+        MaxMinHeap heap = state.heap;
+        while (!heap.isEmpty()) {
+            blackhole.consume(heap.heapExtractMin());
+        }
+    }
+
+    @Benchmark
+    public void heapExtractMinLegacy(BuiltHeaps state, Blackhole blackhole) {
+        LegacyMaxMinHeap heap = state.legacyHeap;
+        while (heap.size() > 0) {
+            blackhole.consume(heap.heapExtractMin());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.Main.MaxMinHeap.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks - runs JMH with the GC profiler attached so every result also reports
+ * the allocation rate (gc.alloc.rate.norm is the amount of bytes allocated per operation).
+ *
+ * All the regular JMH command line options are accepted, for example:
+ * - HeapOperationsBenchmark -p size=1000,100000 (run a single benchmark class on some of the sizes)
+ * - -jvmArgsAppend -Xmx24g (needed for the 1e8 size of the boxed baselines)
+ *
+ */
+
+public class HeapBenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
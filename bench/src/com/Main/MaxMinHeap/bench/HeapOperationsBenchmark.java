@@ -0,0 +1,128 @@
+package com.Main.MaxMinHeap.bench;
+
+import com.Main.MaxMinHeap.MaxMinHeap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks every public MaxMinHeap operation on whole inputs of the given size and value distribution.
+ *
+ * Each invocation processes all the <size> values (build / insert all / extract all / delete half),
+ * the heaps the invocation works on are prepared outside of the measured time.
+ *
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HeapOperationsBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Input {
+
+        @Param({"1000", "100000", "10000000", "100000000"})
+        int size;
+
+        @Param
+        ValueDistribution distribution;
+
+        int[] values;
+        int[] deleteIndices;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            values = distribution.generate(size, 42);
+            // Random positions for the delete benchmark, taken modulo the heap size at the time of the delete
+            SplittableRandom random = new SplittableRandom(7);
+            deleteIndices = new int[size / 2];
+            for (int i = 0; i < deleteIndices.length; i++) {
+                deleteIndices[i] = random.nextInt(Integer.MAX_VALUE);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class UnbuiltHeap {
+
+        MaxMinHeap heap;
+
+        @Setup(Level.Invocation)
+        public void copyInput(Input input) {
+            heap = new MaxMinHeap(input.values);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BuiltHeap {
+
+        MaxMinHeap heap;
+
+        @Setup(Level.Invocation)
+        public void buildFromInput(Input input) {
+            heap = new MaxMinHeap(input.values);
+            heap.buildHeap();
+        }
+    }
+
+    @Benchmark
+    public MaxMinHeap buildHeap(UnbuiltHeap state) {
+        state.heap.buildHeap();
+        return state.heap;
+    }
+
+    @Benchmark
+    public MaxMinHeap buildHeapParallel(UnbuiltHeap state) {
+        state.heap.buildHeapParallel();
+        return state.heap;
+    }
+
+    @Benchmark
+    public MaxMinHeap heapInsert(Input input) {
+        MaxMinHeap heap = new MaxMinHeap();
+        for (int value : input.values) {
+            heap.heapInsert(value);
+        }
+        return heap;
+    }
+
+    @Benchmark
+    public void heapExtractMax(BuiltHeap state, Blackhole blackhole) {
+        MaxMinHeap heap = state.heap;
+        while (!heap.isEmpty()) {
+            blackhole.consume(heap.heapExtractMax());
+        }
+    }
+
+    @Benchmark
+    public void heapExtractMin(BuiltHeap state, Blackhole blackhole) {
+        MaxMinHeap heap = state.heap;
+        while (!heap.isEmpty()) {
+            blackhole.consume(heap.heapExtractMin());
+        }
+    }
+
+    @Benchmark
+    public MaxMinHeap heapDelete(BuiltHeap state, Input input) {
+        MaxMinHeap heap = state.heap;
+        for (int index : input.deleteIndices) {
+            heap.heapDelete(index % heap.size());
+        }
+        return heap;
+    }
+}
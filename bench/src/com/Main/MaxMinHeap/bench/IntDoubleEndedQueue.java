@@ -0,0 +1,19 @@
+package com.Main.MaxMinHeap.bench;
+
+/**
+ * The minimal double ended priority queue used to compare MaxMinHeap with the JDK based alternatives.
+ *
+ * Every JMH fork only uses a single implementation, so the calls through this interface stay monomorphic.
+ *
+ */
+
+public interface IntDoubleEndedQueue {
+
+    void insert(int value);
+
+    int extractMax();
+
+    int extractMin();
+
+    int size();
+}
@@ -0,0 +1,74 @@
+package com.Main.MaxMinHeap.bench;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Baseline double ended priority queue - a min PriorityQueue and a max PriorityQueue holding the same values.
+ *
+ * A value extracted from one queue is only recorded as pending deletion for the other queue,
+ * and is dropped from it lazily once it surfaces at its head.
+ *
+ */
+
+public class LazyPriorityQueuesQueue implements IntDoubleEndedQueue {
+
+    private final PriorityQueue<Integer> minQueue;
+    private final PriorityQueue<Integer> maxQueue;
+    private final HashMap<Integer, Integer> pendingMinDeletes = new HashMap<>();
+    private final HashMap<Integer, Integer> pendingMaxDeletes = new HashMap<>();
+    private int size;
+
+    public LazyPriorityQueuesQueue(int[] initialValues) {
+        this.minQueue = new PriorityQueue<>(Math.max(1, initialValues.length));
+        this.maxQueue = new PriorityQueue<>(Math.max(1, initialValues.length), Collections.reverseOrder());
+        for (int value : initialValues) {
+            insert(value);
+        }
+    }
+
+    @Override
+    public void insert(int value) {
+        minQueue.add(value);
+        maxQueue.add(value);
+        size++;
+    }
+
+    @Override
+    public int extractMax() {
+        int max = poll(maxQueue, pendingMaxDeletes);
+        pendingMinDeletes.merge(max, 1, Integer::sum);
+        size--;
+        return max;
+    }
+
+    @Override
+    public int extractMin() {
+        int min = poll(minQueue, pendingMinDeletes);
+        pendingMaxDeletes.merge(min, 1, Integer::sum);
+        size--;
+        return min;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private static int poll(PriorityQueue<Integer> queue, HashMap<Integer, Integer> pendingDeletes) {
+        // Polls the queue, skipping the values that were already extracted from the other queue
+        while (true) {
+            Integer head = queue.poll();
+            Integer pending = pendingDeletes.get(head);
+            if (pending == null) {
+                return head;
+            }
+            if (pending == 1) {
+                pendingDeletes.remove(head);
+            } else {
+                pendingDeletes.put(head, pending - 1);
+            }
+        }
+    }
+}
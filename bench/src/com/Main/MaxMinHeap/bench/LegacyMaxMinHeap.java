@@ -0,0 +1,414 @@
+package com.Main.MaxMinHeap.bench;
+
+import java.util.Arrays;
+
+/**
+ * A frozen copy of the original MaxMinHeap engine - recursive heapify / bubbleUp, depth computed with Math.log,
+ * parent index with Math.ceil, swaps with switchPlace and a bounds check on every child / grandchild candidate.
+ * Kept only as the baseline of EngineComparisonBenchmark, do not use it outside of the benchmarks.
+ *
+ */
+
+public class LegacyMaxMinHeap {
+
+    private int[] heapArray;
+    private int heapSize;
+
+    public LegacyMaxMinHeap(int[] arr) {
+        this.heapArray = Arrays.copyOf(arr, Math.max(16, arr.length));
+        this.heapSize = arr.length;
+    }
+
+    public int size() {
+        return heapSize;
+    }
+
+    public void buildHeap() {
+        for (int index = heapSize / 2 - 1; index >= 0; index--) {
+            heapify(index);
+        }
+    }
+
+    public int heapExtractMax() {
+        return removeAt(0);
+    }
+
+    public int heapExtractMin() {
+        return removeAt(getHeapMinIndex());
+    }
+
+    public void heapInsert(int newValue) {
+        if (heapSize == heapArray.length) {
+            heapArray = Arrays.copyOf(heapArray, heapSize + (heapSize >> 1));
+        }
+        heapArray[heapSize++] = newValue;
+        bubbleUp(heapSize - 1);
+    }
+
+    private void heapify(int indexToHeapify) {
+        if (getHeapDepthOfIndex(indexToHeapify) % 2 == 1) {
+            heapifyMinLevel(indexToHeapify);
+        } else {
+            heapifyMaxLevel(indexToHeapify);
+        }
+    }
+
+    private int removeAt(int index) {
+        int removedValue = heapArray[index];
+        switchPlace(index, heapSize - 1);
+        heapSize--;
+        if (index < heapSize) {
+            bubbleUp(index);
+            heapify(index);
+        }
+        return removedValue;
+    }
+
+    private void heapifyMinLevel(int index) {
+        // Check that has kids
+        if (getLeftChildIndex(index) == -1)
+            return;
+
+        // Find index of smallest child / grandchild
+        int minChildIndex = getSmallestIndexUpToGrandChild(index);
+
+        // min child is a grandchild of i
+        if (isGrandChildOf(index, minChildIndex)) {
+            if (heapArray[index] > heapArray[minChildIndex]) {
+                switchPlace(index, minChildIndex);
+                // Check if after the switch the new child is bigger than parent otherwise switch with it
+                if (heapArray[minChildIndex] > heapArray[getParentIndex(minChildIndex)]) {
+                    switchPlace(minChildIndex, getParentIndex(minChildIndex));
+                }
+                heapifyMinLevel(minChildIndex);
+            }
+        }
+        // min child is a child of i
+        else {
+            if (heapArray[minChildIndex] < heapArray[index])
+                switchPlace(minChildIndex, index);
+        }
+
+    }
+
+    private void heapifyMaxLevel(int index) {
+        // Check that has kids
+        if (getLeftChildIndex(index) == -1)
+            return;
+
+        // Find index of smallest child / grandchild
+        int maxChildIndex = getLargestIndexUpToGrandChild(index);
+
+        // max child is a grandchild of i
+        if (isGrandChildOf(index, maxChildIndex)) {
+            if (heapArray[index] < heapArray[maxChildIndex]) {
+                switchPlace(index, maxChildIndex);
+                // Check if after the switch the new child is smaller than parent otherwise switch with it
+                if (heapArray[maxChildIndex] < heapArray[getParentIndex(maxChildIndex)]) {
+                    switchPlace(maxChildIndex, getParentIndex(maxChildIndex));
+                }
+
+                heapifyMaxLevel(maxChildIndex);
+            }
+        }
+        // max child is a child of i
+        else {
+            if (heapArray[maxChildIndex] > heapArray[index])
+                switchPlace(maxChildIndex, index);
+        }
+    }
+
+    private static double log2(int x) {
+        /*
+        This method is used to get the mathematic result of log with base 2 as a double
+
+        @param x - value to evaluate it's log of base 2
+         */
+        return (Math.log(x) / Math.log(2));
+    }
+
+    private static int getHeapDepthOfIndex(int index) {
+        /*
+        This method returns the depth of a certain index in the heap tree representation
+        Notice that indices in Java start from 0 so the given index value is increased by 1
+
+        @param index - Index to check depth of
+         */
+        return (int) log2(index + 1);
+    }
+
+    private void switchPlace(int firstIndex, int secondIndex) {
+        /*
+        A simple method to switch the location of two values in the array by their indices
+         */
+        int firstValue = heapArray[firstIndex];
+        heapArray[firstIndex] = heapArray[secondIndex];
+        heapArray[secondIndex] = firstValue;
+    }
+
+    private static boolean isGrandChildOf(int parentIndex, int indexToCheck) {
+        /*
+        Check if an index is a grandChild of a given parent
+        returns True if <indexToCheck> is actually a grand child of <parentIndex>
+         */
+        int leftestGrandChildren = (((parentIndex + 1) * 2 - 1) + 1) * 2 - 1;
+        int rightestGrandChild = (((parentIndex + 1) * 2) + 1) * 2;
+        return leftestGrandChildren <= indexToCheck & indexToCheck <= rightestGrandChild;
+    }
+
+    private int getSmallestIndexUpToGrandChild(int parentIndex) {
+        /*
+        This method returns the index of the descendant with the minimal value up to a grand child for a given parent node (2 depths)
+        It does it with simple comparisons of all the existing children / grandchildren of a given node.
+
+        includeParent parameter sets whether or not should the parent index value checked as a minimum as well.
+         */
+
+        int leftChildIndex = getLeftChildIndex(parentIndex);
+        int leftGrandChildLeftIndex = getLeftChildIndex(leftChildIndex);
+        int leftGrandChildRightIndex = getRightChildIndex(leftChildIndex);
+        int rightChildIndex = getRightChildIndex(parentIndex);
+        int rightGrandChildLeftIndex = getLeftChildIndex(rightChildIndex);
+        int rightGrandChildRightIndex = getRightChildIndex(rightChildIndex);
+        int smallestIndex = leftChildIndex;
+        int smallestValue = heapArray[leftChildIndex];
+
+        // Left child always exists here (callers check that the node has kids), so it is the starting candidate
+        // Check left grand-children
+        if (indexExistInHeap(leftGrandChildLeftIndex)) {
+            if (heapArray[leftGrandChildLeftIndex] < smallestValue) {
+                smallestIndex = leftGrandChildLeftIndex;
+                smallestValue = heapArray[leftGrandChildLeftIndex];
+            }
+        }
+        if (indexExistInHeap(leftGrandChildRightIndex)) {
+            if (heapArray[leftGrandChildRightIndex] < smallestValue) {
+                smallestIndex = leftGrandChildRightIndex;
+                smallestValue = heapArray[leftGrandChildRightIndex];
+            }
+        }
+
+        // Check right child
+        if (indexExistInHeap(rightChildIndex)) {
+            if (heapArray[rightChildIndex] < smallestValue) {
+                smallestIndex = rightChildIndex;
+                smallestValue = heapArray[rightChildIndex];
+            }
+        }
+        // Check right grand-children
+        if (indexExistInHeap(rightGrandChildLeftIndex)) {
+            if (heapArray[rightGrandChildLeftIndex] < smallestValue) {
+                smallestIndex = rightGrandChildLeftIndex;
+                smallestValue = heapArray[rightGrandChildLeftIndex];
+            }
+        }
+        if (indexExistInHeap(rightGrandChildRightIndex)) {
+            if (heapArray[rightGrandChildRightIndex] < smallestValue) {
+                smallestIndex = rightGrandChildRightIndex;
+            }
+        }
+        return smallestIndex;
+    }
+
+    private int getLargestIndexUpToGrandChild(int parentIndex) {
+        /*
+        This method returns the index of the descendant with the maximal value up to a grand child for a given parent node (2 depths)
+        It does it with simple comparisons of all the existing children / grandchildren of a given node.
+
+        includeParent parameter sets whether or not should the parent index value checked as a maximum as well.
+         */
+
+        int leftChildIndex = getLeftChildIndex(parentIndex);
+        int leftGrandChildLeftIndex = getLeftChildIndex(leftChildIndex);
+        int leftGrandChildRightIndex = getRightChildIndex(leftChildIndex);
+        int rightChildIndex = getRightChildIndex(parentIndex);
+        int rightGrandChildLeftIndex = getLeftChildIndex(rightChildIndex);
+        int rightGrandChildRightIndex = getRightChildIndex(rightChildIndex);
+        int largestIndex = leftChildIndex;
+        int largestValue = heapArray[leftChildIndex];
+
+        // Left child always exists here (callers check that the node has kids), so it is the starting candidate
+        // Check left grand-children
+        if (indexExistInHeap(leftGrandChildLeftIndex)) {
+            if (heapArray[leftGrandChildLeftIndex] > largestValue) {
+                largestIndex = leftGrandChildLeftIndex;
+                largestValue = heapArray[leftGrandChildLeftIndex];
+            }
+        }
+        if (indexExistInHeap(leftGrandChildRightIndex)) {
+            if (heapArray[leftGrandChildRightIndex] > largestValue) {
+                largestIndex = leftGrandChildRightIndex;
+                largestValue = heapArray[leftGrandChildRightIndex];
+            }
+        }
+
+        // Check right child
+        if (indexExistInHeap(rightChildIndex)) {
+            if (heapArray[rightChildIndex] > largestValue) {
+                largestIndex = rightChildIndex;
+                largestValue = heapArray[rightChildIndex];
+            }
+        }
+        // Check right grand-children
+        if (indexExistInHeap(rightGrandChildLeftIndex)) {
+            if (heapArray[rightGrandChildLeftIndex] > largestValue) {
+                largestIndex = rightGrandChildLeftIndex;
+                largestValue = heapArray[rightGrandChildLeftIndex];
+            }
+        }
+        if (indexExistInHeap(rightGrandChildRightIndex)) {
+            if (heapArray[rightGrandChildRightIndex] > largestValue) {
+                largestIndex = rightGrandChildRightIndex;
+            }
+        }
+        return largestIndex;
+    }
+
+    private boolean indexExistInHeap(int index) {
+        /*
+         returns true if index exists in the array representing the heap (value between 0 and heap array size)
+         */
+        return index >= 0 & index < heapSize;
+    }
+
+    private int getParentIndex(int childIndex) {
+        /*
+        returns the parent index of a node if it exists in the array that represents the heap (returns -1 if not)
+         */
+        int parentIndex = (int) Math.ceil((double) childIndex / 2) - 1;
+
+        if (indexExistInHeap(parentIndex)) {
+            return parentIndex;
+        }
+        return -1;
+    }
+
+    private int getLeftChildIndex(int parentIndex) {
+        /*
+        returns the left child index of a node if it exists in the array that represents the heap (returns -1 if not)
+         */
+        if (!indexExistInHeap(parentIndex)) {
+            return -1;
+        }
+
+        int leftChildIndex = (parentIndex + 1) * 2 - 1;
+
+        if (indexExistInHeap(leftChildIndex)) {
+            return leftChildIndex;
+        }
+        return -1;
+    }
+
+    private int getRightChildIndex(int parentIndex) {
+        /*
+        returns the right child index of a node if it exists in the array that represents the heap (returns -1 if not)
+         */
+
+        if (!indexExistInHeap(parentIndex)) {
+            return -1;
+        }
+
+        int rightChildIndex = (parentIndex + 1) * 2;
+
+        if (indexExistInHeap(rightChildIndex)) {
+            return rightChildIndex;
+        }
+        return -1;
+    }
+
+    private int getHeapMinIndex() {
+        /*
+        returns the index of the node with Minimum value in the heap (1st / 2nd depth layer only needs to be checked)
+        If the heap is empty -1 is returned
+         */
+
+        int min = Integer.MIN_VALUE;
+        int minIndex = -1;
+
+        // We check the first, second, third indices in case the heap is very small
+        if (indexExistInHeap(0)) {
+            min = heapArray[0];
+            minIndex = 0;
+
+            // Check left Child
+            if (indexExistInHeap(1)) {
+                if (heapArray[1] < min) {
+                    min = heapArray[1];
+                    minIndex = 1;
+                }
+            }
+
+            // Check right Child
+            if (indexExistInHeap(2)) {
+                if (heapArray[2] < min) {
+                    minIndex = 2;
+                }
+            }
+        }
+        return minIndex;
+    }
+
+    private void bubbleUp(int index) {
+        /*
+        This method is responsible for moving a certain value up if it is not positioned correctly to match the
+        MaxMinHeap criteria.
+        It uses two sub methods for bubbleUp depending on the input index level (Min / Max level)
+
+        @param index - Index to bubble up
+         */
+        int parentIndex = getParentIndex(index);
+
+        if (indexExistInHeap(parentIndex)) {
+            // Check heap level - if min / max
+            if (getHeapDepthOfIndex(index) % 2 == 1) {
+                // Here we know we are at min level, need to check if parent in max level is smaller
+                if (heapArray[index] > heapArray[parentIndex]) {
+                    switchPlace(index, parentIndex);
+                    bubbleUpMax(parentIndex);
+                } else {
+                    bubbleUpMin(index);
+                }
+            } else {
+                // Here we know we are at max level, need to check if parent in min level is bigger
+                if (heapArray[index] < heapArray[parentIndex]) {
+                    switchPlace(index, parentIndex);
+                    bubbleUpMin(parentIndex);
+                } else {
+                    bubbleUpMax(index);
+                }
+            }
+        }
+    }
+
+    private void bubbleUpMin(int index) {
+        /*
+        Sub method of bubbleUp that bubbles up an index of a Minimum depth level
+
+        @param index - index to bubble up
+         */
+        int grandParentIndex = getParentIndex(getParentIndex(index));
+
+        if (indexExistInHeap(grandParentIndex)) {
+            if (heapArray[index] < heapArray[grandParentIndex]) {
+                switchPlace(index, grandParentIndex);
+                bubbleUpMin(grandParentIndex);
+            }
+        }
+    }
+
+    private void bubbleUpMax(int index) {
+        /*
+        Sub method of bubbleUp that bubbles up an index of a Maximum depth level
+
+        @param index - index to bubble up
+         */
+        int grandParentIndex = getParentIndex(getParentIndex(index));
+
+        if (indexExistInHeap(grandParentIndex)) {
+            if (heapArray[index] > heapArray[grandParentIndex]) {
+                switchPlace(index, grandParentIndex);
+                bubbleUpMax(grandParentIndex);
+            }
+        }
+    }
+}
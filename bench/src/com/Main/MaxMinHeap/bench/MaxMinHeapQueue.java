@@ -0,0 +1,38 @@
+package com.Main.MaxMinHeap.bench;
+
+import com.Main.MaxMinHeap.MaxMinHeap;
+
+/**
+ * IntDoubleEndedQueue adapter of MaxMinHeap.
+ *
+ */
+
+public class MaxMinHeapQueue implements IntDoubleEndedQueue {
+
+    private final MaxMinHeap heap;
+
+    public MaxMinHeapQueue(int[] initialValues) {
+        this.heap = new MaxMinHeap(initialValues);
+        this.heap.buildHeap();
+    }
+
+    @Override
+    public void insert(int value) {
+        heap.heapInsert(value);
+    }
+
+    @Override
+    public int extractMax() {
+        return heap.heapExtractMax();
+    }
+
+    @Override
+    public int extractMin() {
+        return heap.heapExtractMin();
+    }
+
+    @Override
+    public int size() {
+        return heap.size();
+    }
+}
@@ -0,0 +1,147 @@
+package com.Main.MaxMinHeap.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares MaxMinHeap with the JDK based double ended priority queues we would otherwise use:
+ * a TreeMap multiset and a pair of PriorityQueues with lazy deletion.
+ *
+ * - build: create the queue from all the input values
+ * - drainMax / drainMin: extract all the values from one end
+ * - mixed: a single operation of a steady state workload (1/2 insert, 1/4 extract max, 1/4 extract min)
+ *
+ * Run with the GC profiler (-prof gc, the default of HeapBenchmarkRunner) to compare the allocation rates.
+ * The boxed baselines need a large -Xmx for the 1e8 size.
+ *
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QueueComparisonBenchmark {
+
+    public enum Implementation {
+        MAX_MIN_HEAP,
+        TREE_MAP,
+        PRIORITY_QUEUES;
+
+        IntDoubleEndedQueue create(int[] initialValues) {
+            switch (this) {
+                case TREE_MAP:
+                    return new TreeMapMultisetQueue(initialValues);
+                case PRIORITY_QUEUES:
+                    return new LazyPriorityQueuesQueue(initialValues);
+                default:
+                    return new MaxMinHeapQueue(initialValues);
+            }
+        }
+    }
+
+    // Length of the pre generated operation sequence of the mixed workload (power of 2)
+    private static final int MIXED_OPERATIONS = 1 << 20;
+
+    @State(Scope.Benchmark)
+    public static class Input {
+
+        @Param
+        Implementation implementation;
+
+        @Param({"1000", "100000", "10000000", "100000000"})
+        int size;
+
+        @Param
+        ValueDistribution distribution;
+
+        int[] values;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            values = distribution.generate(size, 42);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BuiltQueue {
+
+        IntDoubleEndedQueue queue;
+
+        @Setup(Level.Invocation)
+        public void build(Input input) {
+            queue = input.implementation.create(input.values);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MixedWorkload {
+
+        IntDoubleEndedQueue queue;
+        int[] operations;
+        int[] insertValues;
+        int next;
+
+        @Setup(Level.Trial)
+        public void prepare(Input input) {
+            queue = input.implementation.create(input.values);
+            SplittableRandom random = new SplittableRandom(11);
+            operations = new int[MIXED_OPERATIONS];
+            insertValues = input.distribution.generate(MIXED_OPERATIONS, 13);
+            for (int i = 0; i < MIXED_OPERATIONS; i++) {
+                operations[i] = random.nextInt(4);
+            }
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public IntDoubleEndedQueue build(Input input) {
+        return input.implementation.create(input.values);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void drainMax(BuiltQueue state, Blackhole blackhole) {
+        IntDoubleEndedQueue queue = state.queue;
+        while (queue.size() > 0) {
+            blackhole.consume(queue.extractMax());
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void drainMin(BuiltQueue state, Blackhole blackhole) {
+        IntDoubleEndedQueue queue = state.queue;
+        while (queue.size() > 0) {
+            blackhole.consume(queue.extractMin());
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int mixed(MixedWorkload state) {
+        int i = state.next++ & (MIXED_OPERATIONS - 1);
+        IntDoubleEndedQueue queue = state.queue;
+        int operation = state.operations[i];
+        // Inserts when empty so the extracts always have a value
+        if (operation < 2 || queue.size() == 0) {
+            queue.insert(state.insertValues[i]);
+            return 0;
+        }
+        return operation == 2 ? queue.extractMax() : queue.extractMin();
+    }
+}
@@ -0,0 +1,54 @@
+package com.Main.MaxMinHeap.bench;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Baseline double ended priority queue - a TreeMap from value to its amount of occurrences.
+ *
+ */
+
+public class TreeMapMultisetQueue implements IntDoubleEndedQueue {
+
+    private final TreeMap<Integer, Integer> counts = new TreeMap<>();
+    private int size;
+
+    public TreeMapMultisetQueue(int[] initialValues) {
+        for (int value : initialValues) {
+            insert(value);
+        }
+    }
+
+    @Override
+    public void insert(int value) {
+        counts.merge(value, 1, Integer::sum);
+        size++;
+    }
+
+    @Override
+    public int extractMax() {
+        return remove(counts.lastEntry());
+    }
+
+    @Override
+    public int extractMin() {
+        return remove(counts.firstEntry());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int remove(Map.Entry<Integer, Integer> entry) {
+        // Decrease the amount of the given entry and drop it once it reaches 0
+        int value = entry.getKey();
+        if (entry.getValue() == 1) {
+            counts.remove(value);
+        } else {
+            counts.put(value, entry.getValue() - 1);
+        }
+        size--;
+        return value;
+    }
+}
@@ -0,0 +1,57 @@
+package com.Main.MaxMinHeap.bench;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The value distributions the benchmarks feed into the heaps.
+ *
+ */
+
+public enum ValueDistribution {
+    RANDOM,
+    SORTED,
+    REVERSE,
+    DUPLICATES;
+
+    // Amount of distinct values used by the DUPLICATES distribution
+    private static final int DISTINCT_DUPLICATE_VALUES = 16;
+
+    public int[] generate(int size, long seed) {
+        /*
+        Generates <size> values of this distribution, the same seed always generates the same values
+         */
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] values = new int[size];
+        switch (this) {
+            case RANDOM:
+                for (int i = 0; i < size; i++) {
+                    values[i] = random.nextInt();
+                }
+                break;
+            case SORTED:
+                for (int i = 0; i < size; i++) {
+                    values[i] = random.nextInt();
+                }
+                Arrays.sort(values);
+                break;
+            case REVERSE:
+                for (int i = 0; i < size; i++) {
+                    values[i] = random.nextInt();
+                }
+                Arrays.sort(values);
+                for (int i = 0, j = size - 1; i < j; i++, j--) {
+                    int tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                }
+                break;
+            case DUPLICATES:
+                for (int i = 0; i < size; i++) {
+                    values[i] = random.nextInt(DISTINCT_DUPLICATE_VALUES);
+                }
+                break;
+        }
+        return values;
+    }
+}
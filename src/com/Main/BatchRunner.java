@@ -0,0 +1,352 @@
+package com.Main;
+
+import com.Main.MaxMinHeap.EmptyHeapException;
+import com.Main.MaxMinHeap.MaxMinHeap;
+
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+
+/**
+ * The non interactive (batch) mode of Main - replays a recorded command file against a quiet MaxMinHeap.
+ *
+ * Command file format - one command per line, empty lines and lines starting with '#' are skipped:
+ *     build <input file path>     builds a new heap from a heap input file
+ *     insert <value>
+ *     extract-max                 writes the extracted value
+ *     extract-min                 writes the extracted value
+ *     delete <index>
+ *     heapify <index>
+ *     size                        writes the heap size
+ *
+ * The file is read through a single byte buffer and tokenized in place (no Scanner, no String per line), the heap
+ * has no event listener, and every result goes through one buffered writer. Heap errors (empty heap, bad index) are
+ * written as "ERROR <message>" lines and the replay goes on, a malformed command stops it.
+ *
+ * At the end a summary with the amount of commands, ops/sec and the latency percentiles of the heap operations
+ * (the time of the heap call only, without the parsing and the output) is printed to the report stream.
+ *
+ */
+
+public final class BatchRunner {
+
+    private static final int READ_BUFFER_BYTES = 1 << 16;
+    private static final int WRITE_BUFFER_CHARS = 1 << 16;
+
+    private static final byte[] BUILD = bytes("build");
+    private static final byte[] INSERT = bytes("insert");
+    private static final byte[] EXTRACT_MAX = bytes("extract-max");
+    private static final byte[] EXTRACT_MIN = bytes("extract-min");
+    private static final byte[] DELETE = bytes("delete");
+    private static final byte[] HEAPIFY = bytes("heapify");
+    private static final byte[] SIZE = bytes("size");
+
+    private final CommandReader reader;
+    private final Writer writer;
+    private final char[] numberChars = new char[12];
+    private MaxMinHeap heap = new MaxMinHeap();
+    // Latency of every heap operation in nanoseconds, in command order
+    private long[] latencies = new long[1024];
+    private int operationCount;
+
+    private BatchRunner(InputStream commands, Writer writer) {
+        this.reader = new CommandReader(commands);
+        this.writer = writer;
+    }
+
+    public static void run(String commandFilePath, String outputFilePath, PrintStream report) throws IOException {
+        /*
+        Replays a command file and writes its results, then prints the summary to the report stream
+
+        @param commandFilePath - Path of the command file, "-" to read the commands from the standard input
+        @param outputFilePath - Path of the results file (replaced if it exists), null to write to the standard output
+        @param report - Stream that gets the summary (ops/sec and latency percentiles)
+         */
+        InputStream commands = "-".equals(commandFilePath) ? System.in : new FileInputStream(commandFilePath);
+        Writer output = outputFilePath == null
+                ? new OutputStreamWriter(System.out, StandardCharsets.US_ASCII)
+                : Files.newBufferedWriter(Path.of(outputFilePath), StandardCharsets.US_ASCII);
+        try (BufferedWriter writer = new BufferedWriter(output, WRITE_BUFFER_CHARS)) {
+            BatchRunner runner = new BatchRunner(commands, writer);
+            long start = System.nanoTime();
+            runner.replay();
+            long elapsed = System.nanoTime() - start;
+            writer.flush();
+            runner.printSummary(report, elapsed);
+        } finally {
+            if (commands != System.in) {
+                commands.close();
+            }
+        }
+    }
+
+    private void replay() throws IOException {
+        /*
+        Runs all the commands of the file, timing only the heap call of each one
+         */
+        CommandReader in = reader;
+        while (in.nextCommand()) {
+            long start;
+            try {
+                if (in.commandIs(INSERT)) {
+                    int value = in.readInt();
+                    start = System.nanoTime();
+                    heap.heapInsert(value);
+                    record(start);
+                } else if (in.commandIs(EXTRACT_MAX)) {
+                    start = System.nanoTime();
+                    int value = heap.heapExtractMax();
+                    record(start);
+                    writeInt(value);
+                } else if (in.commandIs(EXTRACT_MIN)) {
+                    start = System.nanoTime();
+                    int value = heap.heapExtractMin();
+                    record(start);
+                    writeInt(value);
+                } else if (in.commandIs(DELETE)) {
+                    int index = in.readInt();
+                    start = System.nanoTime();
+                    heap.heapDelete(index);
+                    record(start);
+                } else if (in.commandIs(HEAPIFY)) {
+                    int index = in.readInt();
+                    start = System.nanoTime();
+                    heap.heapify(index);
+                    record(start);
+                } else if (in.commandIs(SIZE)) {
+                    writeInt(heap.size());
+                } else if (in.commandIs(BUILD)) {
+                    String inputFilePath = in.readRestOfLine();
+                    start = System.nanoTime();
+                    heap = new MaxMinHeap(inputFilePath);
+                    heap.buildHeap();
+                    record(start);
+                } else {
+                    throw new IOException("Unknown command '" + in.commandString() + "' at line " + in.lineNumber + ".");
+                }
+            } catch (EmptyHeapException | IndexOutOfBoundsException e) {
+                writer.write("ERROR ");
+                writer.write(String.valueOf(e.getMessage()));
+                writer.write('\n');
+            }
+            in.expectEndOfLine();
+        }
+    }
+
+    private void record(long start) {
+        // Stores the latency of the heap operation that started at <start>
+        long latency = System.nanoTime() - start;
+        if (operationCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, operationCount + (operationCount >> 1));
+        }
+        latencies[operationCount++] = latency;
+    }
+
+    private void writeInt(int value) throws IOException {
+        /*
+        Writes an int and a new line without creating a String
+         */
+        char[] chars = numberChars;
+        int position = chars.length;
+        chars[--position] = '\n';
+        long remaining = Math.abs((long) value);
+        do {
+            chars[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            chars[--position] = '-';
+        }
+        writer.write(chars, position, chars.length - position);
+    }
+
+    private void printSummary(PrintStream report, long elapsedNanos) {
+        /*
+        Prints the amount of heap operations, the throughput of the whole replay and the latency percentiles
+         */
+        long[] sorted = Arrays.copyOf(latencies, operationCount);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+        report.println("Batch summary:");
+        report.printf("Heap operations: %d in %.3f s (%.0f ops/sec, parsing and output included)%n",
+                operationCount, seconds, operationCount / Math.max(seconds, 1e-9));
+        if (operationCount > 0) {
+            report.printf("Latency (ns): p50=%d p90=%d p99=%d p99.9=%d max=%d%n",
+                    percentile(sorted, 0.5), percentile(sorted, 0.9), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), sorted[sorted.length - 1]);
+        }
+    }
+
+    static long percentile(long[] sorted, double quantile) {
+        // Returns the nearest rank percentile of sorted latencies
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static byte[] bytes(String command) {
+        return command.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Tokenizer of the command file - reads the file through one byte buffer and keeps the current command word in
+     * place, numbers are parsed straight from the bytes.
+     */
+    private static final class CommandReader {
+        private final InputStream in;
+        private final byte[] buffer = new byte[READ_BUFFER_BYTES];
+        private int position;
+        private int limit;
+        private byte[] command = new byte[32];
+        private int commandLength;
+        int lineNumber = 1;
+
+        CommandReader(InputStream in) {
+            this.in = in;
+        }
+
+        boolean nextCommand() throws IOException {
+            /*
+            Moves to the next command line and reads its command word, returns false at the end of the file
+             */
+            while (true) {
+                int b = peek();
+                if (b == -1) {
+                    return false;
+                }
+                if (b == '\n') {
+                    position++;
+                    lineNumber++;
+                } else if (b == ' ' || b == '\t' || b == '\r') {
+                    position++;
+                } else if (b == '#') {
+                    skipLine();
+                } else {
+                    break;
+                }
+            }
+            commandLength = 0;
+            int b;
+            while ((b = peek()) != -1 && b > ' ') {
+                if (commandLength == command.length) {
+                    command = Arrays.copyOf(command, commandLength * 2);
+                }
+                command[commandLength++] = (byte) b;
+                position++;
+            }
+            return true;
+        }
+
+        boolean commandIs(byte[] expected) {
+            return Arrays.equals(command, 0, commandLength, expected, 0, expected.length);
+        }
+
+        String commandString() {
+            return new String(command, 0, commandLength, StandardCharsets.US_ASCII);
+        }
+
+        int readInt() throws IOException {
+            /*
+            Reads the int argument of the current command
+            Throws IOException if the argument is missing or is not an int
+             */
+            skipSpaces();
+            int b = peek();
+            boolean negative = b == '-';
+            if (negative) {
+                position++;
+                b = peek();
+            }
+            if (b < '0' || b > '9') {
+                throw new IOException("Expected a number after '" + commandString() + "' at line " + lineNumber + ".");
+            }
+            long value = 0;
+            while (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw new IOException("Number out of int range at line " + lineNumber + ".");
+                }
+                position++;
+                b = peek();
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw new IOException("Number out of int range at line " + lineNumber + ".");
+            }
+            return (int) value;
+        }
+
+        String readRestOfLine() throws IOException {
+            /*
+            Reads the rest of the line as a trimmed string (used for file paths)
+             */
+            skipSpaces();
+            StringBuilder text = new StringBuilder();
+            int b;
+            while ((b = peek()) != -1 && b != '\n' && b != '\r') {
+                text.append((char) b);
+                position++;
+            }
+            String argument = text.toString().trim();
+            if (argument.isEmpty()) {
+                throw new IOException("Expected an argument after '" + commandString() + "' at line " + lineNumber + ".");
+            }
+            return argument;
+        }
+
+        void expectEndOfLine() throws IOException {
+            /*
+            Checks that nothing but spaces is left on the current line, and moves past its end
+             */
+            skipSpaces();
+            int b = peek();
+            if (b == '\r') {
+                position++;
+                b = peek();
+            }
+            if (b == '\n') {
+                position++;
+                lineNumber++;
+            } else if (b != -1) {
+                throw new IOException("Unexpected text after '" + commandString() + "' at line " + lineNumber + ".");
+            }
+        }
+
+        private void skipSpaces() throws IOException {
+            int b;
+            while ((b = peek()) == ' ' || b == '\t') {
+                position++;
+            }
+        }
+
+        private void skipLine() throws IOException {
+            int b;
+            while ((b = peek()) != -1 && b != '\n') {
+                position++;
+            }
+        }
+
+        private int peek() throws IOException {
+            /*
+            Returns the current byte without consuming it (-1 at the end of the file), refilling the buffer when needed
+             */
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position];
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.Main;
+
+import com.Main.MaxMinHeap.EmptyHeapException;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+
+/**
+ * A blocking client of HeapServer, for a single thread.
+ *
+ * The plain methods (heapInsert, heapExtractMax...) send one request and wait for its response. For pipelining, the
+ * send methods only buffer a request, flush sends all the buffered requests in one write, and every readResponse
+ * then returns the response of the next request in the order they were sent. Keep the amount of requests in flight
+ * bounded (a few thousand) - the server stops reading a connection while its responses are not being read.
+ *
+ */
+
+public final class HeapClient implements Closeable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final SocketChannel channel;
+    private final ByteBuffer requests = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final ByteBuffer responses = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    public HeapClient(SocketAddress serverAddress) throws IOException {
+        /*
+        @param serverAddress - Address of the server (see HeapProtocol.parseAddress)
+         */
+        if (serverAddress instanceof UnixDomainSocketAddress) {
+            this.channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            this.channel = SocketChannel.open();
+        }
+        channel.connect(serverAddress);
+        responses.flip();
+    }
+
+    public void heapInsert(int newValue) throws IOException {
+        sendInsert(newValue);
+        flush();
+        readResponse();
+    }
+
+    public int heapExtractMax() throws IOException {
+        // Throws EmptyHeapException if the heap is empty
+        sendRequest(HeapProtocol.EXTRACT_MAX);
+        flush();
+        return readResponse();
+    }
+
+    public int heapExtractMin() throws IOException {
+        // Throws EmptyHeapException if the heap is empty
+        sendRequest(HeapProtocol.EXTRACT_MIN);
+        flush();
+        return readResponse();
+    }
+
+    public int peekMax() throws IOException {
+        // Throws EmptyHeapException if the heap is empty
+        sendRequest(HeapProtocol.PEEK_MAX);
+        flush();
+        return readResponse();
+    }
+
+    public int peekMin() throws IOException {
+        // Throws EmptyHeapException if the heap is empty
+        sendRequest(HeapProtocol.PEEK_MIN);
+        flush();
+        return readResponse();
+    }
+
+    public void heapDelete(int index) throws IOException {
+        // Throws IndexOutOfBoundsException if the index is not in the heap of the server
+        sendDelete(index);
+        flush();
+        readResponse();
+    }
+
+    public int size() throws IOException {
+        sendRequest(HeapProtocol.SIZE);
+        flush();
+        return readResponse();
+    }
+
+    public void insertAll(int[] newValues, int count) throws IOException {
+        /*
+        Inserts the first <count> values of an array, in requests of at most HeapProtocol.MAX_BATCH_VALUES values
+         */
+        int requestCount = 0;
+        for (int offset = 0; offset < count; offset += HeapProtocol.MAX_BATCH_VALUES) {
+            sendInsertBatch(newValues, offset, Math.min(HeapProtocol.MAX_BATCH_VALUES, count - offset));
+            requestCount++;
+        }
+        flush();
+        for (int i = 0; i < requestCount; i++) {
+            readResponse();
+        }
+    }
+
+    public void sendInsert(int newValue) throws IOException {
+        ensureRoom(5);
+        requests.put(HeapProtocol.INSERT);
+        requests.putInt(newValue);
+    }
+
+    public void sendDelete(int index) throws IOException {
+        ensureRoom(5);
+        requests.put(HeapProtocol.DELETE);
+        requests.putInt(index);
+    }
+
+    public void sendRequest(byte opcode) throws IOException {
+        /*
+        Buffers a request without arguments (EXTRACT_MAX, EXTRACT_MIN, PEEK_MAX, PEEK_MIN or SIZE)
+         */
+        ensureRoom(1);
+        requests.put(opcode);
+    }
+
+    public void sendInsertBatch(int[] newValues, int offset, int count) throws IOException {
+        /*
+        Buffers an INSERT_BATCH request of newValues[offset, offset + count)
+        Throws IllegalArgumentException if count is more than HeapProtocol.MAX_BATCH_VALUES
+         */
+        if (count < 0 || count > HeapProtocol.MAX_BATCH_VALUES) {
+            throw new IllegalArgumentException("Batch of " + count + " values, at most " + HeapProtocol.MAX_BATCH_VALUES + " are allowed.");
+        }
+        flush();
+        requests.put(HeapProtocol.INSERT_BATCH);
+        requests.putInt(count);
+        for (int i = 0; i < count; i++) {
+            if (requests.remaining() < Integer.BYTES) {
+                flush();
+            }
+            requests.putInt(newValues[offset + i]);
+        }
+    }
+
+    public void flush() throws IOException {
+        // Sends all the buffered requests
+        requests.flip();
+        while (requests.hasRemaining()) {
+            channel.write(requests);
+        }
+        requests.clear();
+    }
+
+    public int readResponse() throws IOException {
+        /*
+        Waits for the response of the next request and returns its value (0 for requests that return nothing)
+        Throws EmptyHeapException / IndexOutOfBoundsException for the failed requests, and IOException if the server
+        rejected or failed a request or closed the connection
+         */
+        while (responses.remaining() < HeapProtocol.RESPONSE_BYTES) {
+            responses.compact();
+            int read = channel.read(responses);
+            responses.flip();
+            if (read < 0) {
+                throw new EOFException("The heap server closed the connection.");
+            }
+        }
+        byte status = responses.get();
+        int value = responses.getInt();
+        switch (status) {
+            case HeapProtocol.STATUS_OK:
+                return value;
+            case HeapProtocol.STATUS_EMPTY_HEAP:
+                throw new EmptyHeapException();
+            case HeapProtocol.STATUS_BAD_INDEX:
+                throw new IndexOutOfBoundsException("Requested index not in the heap of the server.");
+            case HeapProtocol.STATUS_SERVER_ERROR:
+                throw new IOException("The heap server failed to apply the request.");
+            default:
+                throw new IOException("The heap server rejected the request (status " + status + ").");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void ensureRoom(int bytes) throws IOException {
+        if (requests.remaining() < bytes) {
+            flush();
+        }
+    }
+}
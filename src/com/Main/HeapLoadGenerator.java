@@ -0,0 +1,122 @@
+package com.Main;
+
+import com.Main.MaxMinHeap.EmptyHeapException;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Load generator for HeapServer - measures the throughput and the latency percentiles of a running server.
+ *
+ * Every connection runs on its own thread and sends windows of <pipeline depth> requests (half inserts of random
+ * values, a quarter extract-max and a quarter extract-min) in one write, then reads all their responses. The latency
+ * of a request is the time from the write of its window to the arrival of its response.
+ *
+ * Usage:
+ *     java com.Main.HeapLoadGenerator <port | socket path> [connections] [requests per connection] [pipeline depth]
+ *
+ */
+
+public final class HeapLoadGenerator {
+
+    private static final int DEFAULT_CONNECTIONS = 4;
+    private static final int DEFAULT_REQUESTS = 1_000_000;
+    private static final int DEFAULT_PIPELINE_DEPTH = 64;
+    // Pipeline depth bound, so a window always fits the socket buffers of both sides
+    private static final int MAX_PIPELINE_DEPTH = 4096;
+
+    private HeapLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 4) {
+            System.err.println("Usage: java com.Main.HeapLoadGenerator <port | socket path> [connections] [requests per connection] [pipeline depth]");
+            System.exit(2);
+        }
+        SocketAddress address = HeapProtocol.parseAddress(args[0]);
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CONNECTIONS;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_REQUESTS;
+        int pipelineDepth = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_PIPELINE_DEPTH;
+        if (connections < 1 || requests < 1 || pipelineDepth < 1 || pipelineDepth > MAX_PIPELINE_DEPTH) {
+            throw new IllegalArgumentException("Connections and requests must be positive, pipeline depth in [1, " + MAX_PIPELINE_DEPTH + "].");
+        }
+        run(address, connections, requests, pipelineDepth);
+    }
+
+    static void run(SocketAddress address, int connections, int requests, int pipelineDepth) throws Exception {
+        /*
+        Runs the load on <connections> threads and prints the summary
+
+        @param address - Address of the server
+        @param connections - Amount of connections, each one on its own thread
+        @param requests - Amount of requests every connection sends
+        @param pipelineDepth - Amount of requests sent before waiting for their responses
+         */
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        try {
+            List<Future<long[]>> results = new ArrayList<>(connections);
+            long start = System.nanoTime();
+            for (int i = 0; i < connections; i++) {
+                long seed = i;
+                results.add(executor.submit(() -> runConnection(address, requests, pipelineDepth, seed)));
+            }
+            long[] latencies = new long[connections * requests];
+            for (int i = 0; i < connections; i++) {
+                System.arraycopy(results.get(i).get(), 0, latencies, i * requests, requests);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            double seconds = elapsed / 1e9;
+            System.out.printf("Requests: %d on %d connections, pipeline depth %d, in %.3f s (%.0f requests/sec)%n",
+                    latencies.length, connections, pipelineDepth, seconds, latencies.length / seconds);
+            System.out.printf("Latency (us): p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                    BatchRunner.percentile(latencies, 0.5) / 1e3, BatchRunner.percentile(latencies, 0.9) / 1e3,
+                    BatchRunner.percentile(latencies, 0.99) / 1e3, BatchRunner.percentile(latencies, 0.999) / 1e3,
+                    latencies[latencies.length - 1] / 1e3);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long[] runConnection(SocketAddress address, int requests, int pipelineDepth, long seed) throws IOException {
+        /*
+        Sends all the requests of one connection window by window, returns the latency of every request in nanoseconds
+         */
+        long[] latencies = new long[requests];
+        SplittableRandom random = new SplittableRandom(seed);
+        try (HeapClient client = new HeapClient(address)) {
+            for (int sent = 0; sent < requests; ) {
+                int window = Math.min(pipelineDepth, requests - sent);
+                for (int i = 0; i < window; i++) {
+                    int operation = random.nextInt(4);
+                    if (operation < 2) {
+                        client.sendInsert(random.nextInt());
+                    } else {
+                        client.sendRequest(operation == 2 ? HeapProtocol.EXTRACT_MAX : HeapProtocol.EXTRACT_MIN);
+                    }
+                }
+                long windowStart = System.nanoTime();
+                client.flush();
+                for (int i = 0; i < window; i++) {
+                    try {
+                        client.readResponse();
+                    } catch (EmptyHeapException e) {
+                        // An extract that found the heap empty is still a served request
+                    }
+                    latencies[sent + i] = System.nanoTime() - windowStart;
+                }
+                sent += window;
+            }
+        }
+        return latencies;
+    }
+}
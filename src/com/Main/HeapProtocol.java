@@ -0,0 +1,72 @@
+package com.Main;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Path;
+
+
+/**
+ * The binary protocol of HeapServer - all numbers are big endian.
+ *
+ * Request - an opcode byte followed by its arguments:
+ *     INSERT        int value
+ *     EXTRACT_MAX   -
+ *     EXTRACT_MIN   -
+ *     DELETE        int index
+ *     PEEK_MAX      -
+ *     PEEK_MIN      -
+ *     SIZE          -
+ *     INSERT_BATCH  int count, then <count> int values (at most MAX_BATCH_VALUES)
+ *
+ * Response - always RESPONSE_BYTES long: a status byte followed by an int (the returned value, 0 for the requests
+ * that return nothing). Requests may be pipelined - a client can send many requests without waiting, the responses
+ * come back in the same order.
+ *
+ */
+
+public final class HeapProtocol {
+
+    public static final byte INSERT = 1;
+    public static final byte EXTRACT_MAX = 2;
+    public static final byte EXTRACT_MIN = 3;
+    public static final byte DELETE = 4;
+    public static final byte PEEK_MAX = 5;
+    public static final byte PEEK_MIN = 6;
+    public static final byte SIZE = 7;
+    public static final byte INSERT_BATCH = 8;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_EMPTY_HEAP = 1;
+    public static final byte STATUS_BAD_INDEX = 2;
+    // The request could not be parsed, the server closes the connection after this response
+    public static final byte STATUS_BAD_REQUEST = 3;
+    // The heap failed while applying the request, the connection and the following requests go on
+    public static final byte STATUS_SERVER_ERROR = 4;
+
+    public static final int RESPONSE_BYTES = 5;
+    public static final int MAX_BATCH_VALUES = 1 << 14;
+    // Longest request - an INSERT_BATCH of MAX_BATCH_VALUES values
+    public static final int MAX_REQUEST_BYTES = 1 + 4 + 4 * MAX_BATCH_VALUES;
+
+    private HeapProtocol() {
+    }
+
+    public static SocketAddress parseAddress(String address) {
+        /*
+        Parses a server address - a port number is a TCP port on the loopback interface, anything else is the path of
+        a Unix domain socket
+
+        @param address - Port number or socket file path
+         */
+        if (!address.isEmpty() && address.chars().allMatch(Character::isDigit)) {
+            int port = Integer.parseInt(address);
+            if (port > 65535) {
+                throw new IllegalArgumentException("Port must be at most 65535, got [" + address + "].");
+            }
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        }
+        return UnixDomainSocketAddress.of(Path.of(address));
+    }
+}
@@ -0,0 +1,371 @@
+package com.Main;
+
+import com.Main.MaxMinHeap.MaxMinHeap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Shares one MaxMinHeap between local processes - serves the HeapProtocol over a loopback TCP port or a Unix domain
+ * socket.
+ *
+ * A single thread runs a NIO selector event loop and is the only thread that ever touches the heap, so the heap
+ * needs no locking. Requests are pipelined: every read drains all the complete requests in the connection's buffer
+ * at once, and all their responses leave with a single write. A run of consecutive INSERT requests in one read is
+ * applied as one insertAll batch.
+ *
+ * A connection is not read while it has responses that could not be written yet, so a client that does not read
+ * its responses only slows itself down.
+ *
+ * Failures stay local: a broken connection only closes itself, a request the heap fails on gets a
+ * STATUS_SERVER_ERROR response, and a failed accept (out of file descriptors...) pauses new connections for
+ * ACCEPT_BACKOFF_MILLIS while the open ones are still served.
+ *
+ */
+
+public final class HeapServer implements Closeable {
+
+    // Room for two of the longest requests, so a partial request never blocks the parsing of a complete one
+    private static final int READ_BUFFER_BYTES = 2 * HeapProtocol.MAX_REQUEST_BYTES;
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+    private static final long ACCEPT_BACKOFF_MILLIS = 100;
+
+    private final MaxMinHeap heap;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final SocketAddress address;
+    // Values of the INSERT / INSERT_BATCH requests being applied, reused by all the connections
+    private final int[] batchValues = new int[HeapProtocol.MAX_BATCH_VALUES];
+    private volatile boolean running = true;
+    // Counted down once run has closed all the sockets
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    // Set while accepting is paused after a failed accept
+    private long acceptPausedAt;
+    private boolean acceptPaused;
+
+    public HeapServer(SocketAddress address, MaxMinHeap heap) throws IOException {
+        /*
+        Binds the server socket, the heap is only served once run is called
+
+        @param address - Loopback TCP address or Unix domain socket address (see HeapProtocol.parseAddress)
+        @param heap - The heap to serve, must not be used by other threads while the server runs
+         */
+        this.heap = heap;
+        this.selector = Selector.open();
+        if (address instanceof UnixDomainSocketAddress) {
+            this.serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            this.serverChannel = ServerSocketChannel.open();
+        }
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.address = serverChannel.getLocalAddress();
+    }
+
+    public SocketAddress getAddress() {
+        // Returns the bound address (with the actual port when the server was bound to port 0)
+        return address;
+    }
+
+    public void run() throws IOException {
+        /*
+        Runs the event loop on the calling thread until close is called
+         */
+        try {
+            while (running) {
+                // A timeout only while accepting is paused, to resume it (0 waits without a timeout)
+                selector.select(acceptPaused ? ACCEPT_BACKOFF_MILLIS : 0);
+                if (acceptPaused && System.nanoTime() - acceptPausedAt >= TimeUnit.MILLISECONDS.toNanos(ACCEPT_BACKOFF_MILLIS)) {
+                    serverChannel.keyFor(selector).interestOps(SelectionKey.OP_ACCEPT);
+                    acceptPaused = false;
+                }
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        try {
+                            accept();
+                        } catch (IOException e) {
+                            // Pause accepting instead of spinning on a key that stays ready, the open connections go on
+                            System.err.println("HeapServer: accept failed (" + e.getMessage() + "), not accepting new connections for "
+                                    + ACCEPT_BACKOFF_MILLIS + " ms.");
+                            key.interestOps(0);
+                            acceptPausedAt = System.nanoTime();
+                            acceptPaused = true;
+                        }
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            serve(key, connection);
+                        } catch (IOException | RuntimeException e) {
+                            // A broken connection only ends itself, the heap and the other connections go on
+                            closeConnection(key);
+                        }
+                    }
+                }
+            }
+        } finally {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+                if (address instanceof UnixDomainSocketAddress) {
+                    Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+                }
+            } finally {
+                terminated.countDown();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        /*
+        Stops the event loop, may be called from any thread - the sockets are closed by the event loop thread
+        Returns right away, awaitTermination waits until the sockets are closed
+         */
+        running = false;
+        selector.wakeup();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        /*
+        Waits until run has returned and closed all the sockets (after close was called)
+        Returns false if the timeout passed first
+
+        @param timeout - Maximal time to wait
+        @param unit - Unit of the timeout
+         */
+        return terminated.await(timeout, unit);
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, new Connection());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void serve(SelectionKey key, Connection connection) throws IOException {
+        /*
+        Reads what the connection sent (only when it has no responses waiting), applies all the complete requests that
+        fit in the write buffer and writes their responses
+         */
+        SocketChannel channel = (SocketChannel) key.channel();
+        if (key.isReadable() && channel.read(connection.in) < 0) {
+            closeConnection(key);
+            return;
+        }
+        boolean moreRequests;
+        boolean responsesWaiting;
+        do {
+            moreRequests = applyRequests(connection);
+            connection.out.flip();
+            channel.write(connection.out);
+            connection.out.compact();
+            responsesWaiting = connection.out.position() > 0;
+        } while (moreRequests && !responsesWaiting);
+
+        if (connection.closing && !responsesWaiting) {
+            closeConnection(key);
+            return;
+        }
+        key.interestOps(responsesWaiting ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private boolean applyRequests(Connection connection) {
+        /*
+        Applies the complete requests of the read buffer in order, while the write buffer has room for their responses
+        A partial request stays in the read buffer until the rest of it arrives
+        Returns true if it stopped only because the write buffer is full
+         */
+        ByteBuffer in = connection.in;
+        ByteBuffer out = connection.out;
+        in.flip();
+        while (!connection.closing && in.hasRemaining() && out.remaining() >= HeapProtocol.RESPONSE_BYTES) {
+            int requestBytes = requestLength(in);
+            if (requestBytes < 0) {
+                respond(out, HeapProtocol.STATUS_BAD_REQUEST, 0);
+                connection.closing = true;
+            } else if (requestBytes == 0 || in.remaining() < requestBytes) {
+                break;
+            } else if (in.get(in.position()) == HeapProtocol.INSERT) {
+                applyInserts(in, out);
+            } else {
+                int requestEnd = in.position() + requestBytes;
+                int responseStart = out.position();
+                try {
+                    applyRequest(in, out);
+                } catch (RuntimeException e) {
+                    // The request is skipped as a whole, the ones after it are still applied
+                    in.position(requestEnd);
+                    out.position(responseStart);
+                    respond(out, HeapProtocol.STATUS_SERVER_ERROR, 0);
+                }
+            }
+        }
+        boolean moreRequests = !connection.closing && in.hasRemaining() && out.remaining() < HeapProtocol.RESPONSE_BYTES;
+        in.compact();
+        return moreRequests;
+    }
+
+    private static int requestLength(ByteBuffer in) {
+        /*
+        Returns the length of the request at the position of the buffer, 0 if not enough of it arrived to tell,
+        -1 if it is not a valid request
+         */
+        int start = in.position();
+        switch (in.get(start)) {
+            case HeapProtocol.EXTRACT_MAX:
+            case HeapProtocol.EXTRACT_MIN:
+            case HeapProtocol.PEEK_MAX:
+            case HeapProtocol.PEEK_MIN:
+            case HeapProtocol.SIZE:
+                return 1;
+            case HeapProtocol.INSERT:
+            case HeapProtocol.DELETE:
+                return 5;
+            case HeapProtocol.INSERT_BATCH:
+                if (in.remaining() < 5) {
+                    return 0;
+                }
+                int count = in.getInt(start + 1);
+                if (count < 0 || count > HeapProtocol.MAX_BATCH_VALUES) {
+                    return -1;
+                }
+                return 5 + 4 * count;
+            default:
+                return -1;
+        }
+    }
+
+    private void applyInserts(ByteBuffer in, ByteBuffer out) {
+        /*
+        Applies a run of consecutive complete INSERT requests as a single insertAll batch
+         */
+        int[] values = batchValues;
+        int maxCount = Math.min(values.length, out.remaining() / HeapProtocol.RESPONSE_BYTES);
+        int count = 0;
+        while (count < maxCount && in.remaining() >= 5 && in.get(in.position()) == HeapProtocol.INSERT) {
+            in.get();
+            values[count++] = in.getInt();
+        }
+        byte status = HeapProtocol.STATUS_OK;
+        try {
+            heap.insertAll(values, count);
+        } catch (RuntimeException e) {
+            status = HeapProtocol.STATUS_SERVER_ERROR;
+        }
+        for (int i = 0; i < count; i++) {
+            respond(out, status, 0);
+        }
+    }
+
+    private void applyRequest(ByteBuffer in, ByteBuffer out) {
+        /*
+        Applies one complete request that is not an INSERT and writes its response
+         */
+        byte opcode = in.get();
+        switch (opcode) {
+            case HeapProtocol.EXTRACT_MAX:
+                if (heap.isEmpty()) {
+                    respond(out, HeapProtocol.STATUS_EMPTY_HEAP, 0);
+                } else {
+                    respond(out, HeapProtocol.STATUS_OK, heap.heapExtractMax());
+                }
+                break;
+            case HeapProtocol.EXTRACT_MIN:
+                if (heap.isEmpty()) {
+                    respond(out, HeapProtocol.STATUS_EMPTY_HEAP, 0);
+                } else {
+                    respond(out, HeapProtocol.STATUS_OK, heap.heapExtractMin());
+                }
+                break;
+            case HeapProtocol.PEEK_MAX:
+                if (heap.isEmpty()) {
+                    respond(out, HeapProtocol.STATUS_EMPTY_HEAP, 0);
+                } else {
+                    respond(out, HeapProtocol.STATUS_OK, heap.peekMax());
+                }
+                break;
+            case HeapProtocol.PEEK_MIN:
+                if (heap.isEmpty()) {
+                    respond(out, HeapProtocol.STATUS_EMPTY_HEAP, 0);
+                } else {
+                    respond(out, HeapProtocol.STATUS_OK, heap.peekMin());
+                }
+                break;
+            case HeapProtocol.SIZE:
+                respond(out, HeapProtocol.STATUS_OK, heap.size());
+                break;
+            case HeapProtocol.DELETE:
+                int index = in.getInt();
+                try {
+                    heap.heapDelete(index);
+                    respond(out, HeapProtocol.STATUS_OK, 0);
+                } catch (IndexOutOfBoundsException e) {
+                    respond(out, HeapProtocol.STATUS_BAD_INDEX, 0);
+                }
+                break;
+            case HeapProtocol.INSERT_BATCH:
+                int count = in.getInt();
+                in.asIntBuffer().get(batchValues, 0, count);
+                in.position(in.position() + 4 * count);
+                heap.insertAll(batchValues, count);
+                respond(out, HeapProtocol.STATUS_OK, 0);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected opcode [" + opcode + "].");
+        }
+    }
+
+    private static void respond(ByteBuffer out, byte status, int value) {
+        out.put(status);
+        out.putInt(value);
+    }
+
+    private static void closeConnection(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // The connection is gone either way
+        }
+    }
+
+    /**
+     * The buffers of a client connection, both are kept in write mode between calls.
+     */
+    private static final class Connection {
+        final ByteBuffer in = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+        final ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        // Set after a bad request, the connection is closed once its responses are written
+        boolean closing;
+    }
+}
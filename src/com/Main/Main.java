@@ -1,10 +1,13 @@
 package com.Main;
+import com.Main.MaxMinHeap.ConsoleHeapEventListener;
+import com.Main.MaxMinHeap.EmptyHeapException;
 import com.Main.MaxMinHeap.MaxMinHeap;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -12,10 +15,18 @@ import java.util.Scanner;
  * This class uses the MaxMinHeap implementation under com.Main.MaxMinHeap.MaxMinHeap.
  * This is just a class provided to the tester for easy verification of the logic,
  *
+ * Run without arguments for the interactive menu, or replay a command file without any prompts (see BatchRunner):
+ *     java com.Main.Main --batch <command file | -> [results file]
+ * or share one heap with local processes over a loopback port or a Unix domain socket (see HeapServer / HeapClient):
+ *     java com.Main.Main --server <port | socket path>
+ *
  */
 
 public class Main {
 
+    // Longest time the shutdown hook of --server waits for the server to close its sockets
+    private static final long SERVER_SHUTDOWN_SECONDS = 10;
+
     // Enums that describe the possible menu options
     public enum MenuOption {
         BUILD,
@@ -34,6 +45,29 @@ public class Main {
         /*
         This is the main wrapping method used to run and play with the implemented MaxMinHeap data structure
          */
+        if (args.length > 0) {
+            if (args[0].equals("--batch") && (args.length == 2 || args.length == 3)) {
+                BatchRunner.run(args[1], args.length == 3 ? args[2] : null, System.err);
+            } else if (args[0].equals("--server") && args.length == 2) {
+                HeapServer server = new HeapServer(HeapProtocol.parseAddress(args[1]), new MaxMinHeap());
+                System.out.println("Serving a MaxMinHeap on " + server.getAddress());
+                // run closes the sockets (and deletes a Unix socket file) when it returns, the hook stops it and waits
+                // for that before the JVM exits
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    server.close();
+                    try {
+                        server.awaitTermination(SERVER_SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+                server.run();
+            } else {
+                System.err.println("Usage: java com.Main.Main [--batch <command file | -> [results file]] [--server <port | socket path>]");
+                System.exit(2);
+            }
+            return;
+        }
 
         MenuOption userInput;
         MaxMinHeap mmHeap = new MaxMinHeap();
@@ -43,7 +77,7 @@ public class Main {
 
         // Keep showing the menu as long as the user did not choose the Exit command
         while (!userExit) {
-            userInput = showUserMenuAndGetUserInput(heapWasBuilt);
+            userInput = showUserMenuAndGetUserInput(heapWasBuilt, inputScanner);
 
             System.out.println("User Input - " + userInput);
             System.out.println("\n\n############################# - " + userInput + " - #############################");
@@ -52,6 +86,7 @@ public class Main {
                     System.out.print("Enter the full path to the heap input file: ");
                     String inputFile = inputScanner.nextLine();
                     mmHeap = new MaxMinHeap(inputFile);
+                    mmHeap.setEventListener(new ConsoleHeapEventListener());
                     mmHeap.buildHeap();
                     heapWasBuilt = true;
                     System.out.println("#############################################################################");
@@ -66,23 +101,39 @@ public class Main {
                 case DELETE:
                     System.out.print("Enter the index in the heap array that you want to delete (notice that indices start from 0):");
                     int indexTodelete = Integer.parseInt(inputScanner.nextLine());
-                    mmHeap.heapDelete(indexTodelete);
+                    try {
+                        mmHeap.heapDelete(indexTodelete);
+                    } catch (IndexOutOfBoundsException e) {
+                        System.out.println("ERROR: " + e.getMessage());
+                    }
                     System.out.println("#############################################################################");
                     break;
                 case EXTRACT_MAX:
-                    int removedMax = mmHeap.heapExtractMax();
-                    System.out.println("Removed max value - " + removedMax);
+                    try {
+                        int removedMax = mmHeap.heapExtractMax();
+                        System.out.println("Removed max value - " + removedMax);
+                    } catch (EmptyHeapException e) {
+                        System.out.println(e.getMessage());
+                    }
                     System.out.println("#############################################################################");
                     break;
                 case EXTRACT_MIN:
-                    int removedMin = mmHeap.heapExtractMin();
-                    System.out.println("Removed min value - " + removedMin);
+                    try {
+                        int removedMin = mmHeap.heapExtractMin();
+                        System.out.println("Removed min value - " + removedMin);
+                    } catch (EmptyHeapException e) {
+                        System.out.println(e.getMessage());
+                    }
                     System.out.println("#############################################################################");
                     break;
                 case HEAPIFY:
                     System.out.print("Enter the index of the heap array you want to heapify: ");
                     int valueToHeapify = Integer.parseInt(inputScanner.nextLine());
-                    mmHeap.heapify(valueToHeapify);
+                    try {
+                        mmHeap.heapify(valueToHeapify);
+                    } catch (IndexOutOfBoundsException e) {
+                        System.out.println("ERROR: " + e.getMessage() + " No actions were taken.");
+                    }
                     System.out.println("#############################################################################");
                     break;
                 case PRINT_HEAP:
@@ -100,8 +151,13 @@ public class Main {
         System.out.println("Goodbye!");
     }
 
-    public static MenuOption showUserMenuAndGetUserInput(boolean heapAlreadyBuilt){
-        Scanner inputScanner = new Scanner(System.in);  // Create a Scanner object for user input
+    public static MenuOption showUserMenuAndGetUserInput(boolean heapAlreadyBuilt, Scanner inputScanner){
+        /*
+        Shows the menu and reads the selected option
+
+        @param heapAlreadyBuilt - Whether the options that need a built heap are shown
+        @param inputScanner - The Scanner of main, one Scanner is shared so the input it buffered ahead is never lost
+         */
         String selectedOption;
 
         if (heapAlreadyBuilt) {
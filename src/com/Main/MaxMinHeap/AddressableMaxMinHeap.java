@@ -0,0 +1,644 @@
+package com.Main.MaxMinHeap;
+
+import java.util.Arrays;
+
+/**
+ * An addressable MaxMinHeap of int values - same MaxMinHeap specifications, but heapInsert returns a handle
+ * that stays valid while the value is in the heap, no matter how the value moves inside the heap array.
+ *
+ * The heap keeps the handle of every index and the index of every handle, both are updated whenever a value moves.
+ * That way a value can be found by its handle in O(1), and changeKey / delete by handle run in O(log n)
+ * by bubbling up / heapifying from the stored index, without any search.
+ * The sifts are the iterative, hole based loops of MaxMinHeap - a value and its handle are held aside while the
+ * values on the path move into the hole, so every move is one write of the value, its handle and its position.
+ *
+ * Handles are small non negative ints. Once a value leaves the heap its handle is invalid and may be reused
+ * by a later heapInsert.
+ *
+ */
+
+public class AddressableMaxMinHeap implements DoubleEndedHeap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    int[] heapArray;
+    // Handle of the value in every index of heapArray
+    int[] heapHandles;
+    // Index in heapArray of every handle (-1 for a handle that is not in use)
+    int[] handlePositions;
+    // Stack of released handles that can be reused
+    int[] freeHandles;
+    int freeHandlesCount;
+    int heapSize;
+
+    public AddressableMaxMinHeap() {
+        // Constructor to create the object without any input
+        this(DEFAULT_CAPACITY);
+    }
+
+    public AddressableMaxMinHeap(int initialCapacity) {
+        // Constructor with preallocated room for <initialCapacity> values, so inserts up to that size never allocate
+        int capacity = Math.max(1, initialCapacity);
+        this.heapArray = new int[capacity];
+        this.heapHandles = new int[capacity];
+        this.handlePositions = new int[capacity];
+        this.freeHandles = new int[capacity];
+        this.freeHandlesCount = 0;
+        this.heapSize = 0;
+    }
+
+    public int size() {
+        // Returns the number of values currently in the heap
+        return heapSize;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if the heap holds no values
+        return heapSize == 0;
+    }
+
+    public void buildHeap() {
+        /*
+        This method uses the heapify method and run it on the heapArray attribute
+        That way it fixes it to match the accepted criteria as a MaxMinHeap
+         */
+        int size = heapSize;
+        int LastPossibleWithChildrenIndex = size / 2 - 1; // Parent of the last index (-1 for an empty heap)
+        // Heapify all the nodes that can have children
+        for (int index = LastPossibleWithChildrenIndex; index >= 0; index--) {
+            siftDown(index);
+        }
+    }
+
+    public void heapify(int indexToHeapify) {
+        /*
+        This method is the "routine" method of the MaxMinHeap
+        It is used to correct errors assuming that all lower levels work correctly
+        This method is separated to 2 sub-methods based on the level of the given index (Max/Min level depth)
+
+        @param indexToHeapify - literaly the index to run Heapify on
+         */
+
+        // Check if heapify index exist in the array
+        if (!indexExistInHeap(indexToHeapify)) {
+            throw new IndexOutOfBoundsException("Index for Heapify [" + indexToHeapify + "] not in heap of size " + heapSize + ".");
+        }
+        siftDown(indexToHeapify);
+    }
+
+    private void siftDown(int index) {
+        /*
+        Heapify without the bounds check, for the internal callers that only pass existing indices
+         */
+        if (isMinLevel(index)) {
+            heapifyMinLevel(index);
+        } else {
+            heapifyMaxLevel(index);
+        }
+    }
+
+    void heapifyMinLevel(int index) {
+        /*
+        Sifts the value of a min level index down with a "hole", like MaxMinHeap.heapifyMinLevel - the sifted value
+        and its handle are held aside, every smaller descendant moves up into the hole together with its handle, and
+        the held value is written once at its final index.
+         */
+        int[] heap = heapArray;
+        int[] handles = heapHandles;
+        int[] positions = handlePositions;
+        int size = heapSize;
+        int withChildrenBound = size >>> 1; // Indices below it have at least one child
+        int withAllGrandChildrenBound = (size - 3) >> 2; // Indices below it have all four grandchildren
+        int value = heap[index];
+        int handle = handles[index];
+
+        while (index < withChildrenBound) {
+            int smallestIndex;
+            int smallestValue;
+            if (index < withAllGrandChildrenBound) {
+                int grandChild = 4 * index + 3;
+                smallestIndex = grandChild;
+                smallestValue = heap[grandChild];
+                for (int candidate = grandChild + 1; candidate <= grandChild + 3; candidate++) {
+                    if (heap[candidate] < smallestValue) {
+                        smallestIndex = candidate;
+                        smallestValue = heap[candidate];
+                    }
+                }
+            } else {
+                smallestIndex = getSmallestIndexUpToGrandChild(index);
+                smallestValue = heap[smallestIndex];
+            }
+
+            if (smallestValue >= value) {
+                break;
+            }
+            moveInto(index, smallestIndex);
+            boolean isGrandChild = smallestIndex > 2 * index + 2;
+            index = smallestIndex;
+            if (!isGrandChild) {
+                // min child is a child of i, the value takes its place and is done
+                break;
+            }
+            // The value went down to a min level grandchild, switch it with the max level parent if it is bigger
+            int parentIndex = (index - 1) >> 1;
+            if (value > heap[parentIndex]) {
+                int parentValue = heap[parentIndex];
+                int parentHandle = handles[parentIndex];
+                heap[parentIndex] = value;
+                handles[parentIndex] = handle;
+                positions[handle] = parentIndex;
+                value = parentValue;
+                handle = parentHandle;
+            }
+        }
+        heap[index] = value;
+        handles[index] = handle;
+        positions[handle] = index;
+    }
+
+    void heapifyMaxLevel(int index) {
+        /*
+        Sifts the value of a max level index down, the mirror image of heapifyMinLevel
+         */
+        int[] heap = heapArray;
+        int[] handles = heapHandles;
+        int[] positions = handlePositions;
+        int size = heapSize;
+        int withChildrenBound = size >>> 1; // Indices below it have at least one child
+        int withAllGrandChildrenBound = (size - 3) >> 2; // Indices below it have all four grandchildren
+        int value = heap[index];
+        int handle = handles[index];
+
+        while (index < withChildrenBound) {
+            int largestIndex;
+            int largestValue;
+            if (index < withAllGrandChildrenBound) {
+                int grandChild = 4 * index + 3;
+                largestIndex = grandChild;
+                largestValue = heap[grandChild];
+                for (int candidate = grandChild + 1; candidate <= grandChild + 3; candidate++) {
+                    if (heap[candidate] > largestValue) {
+                        largestIndex = candidate;
+                        largestValue = heap[candidate];
+                    }
+                }
+            } else {
+                largestIndex = getLargestIndexUpToGrandChild(index);
+                largestValue = heap[largestIndex];
+            }
+
+            if (largestValue <= value) {
+                break;
+            }
+            moveInto(index, largestIndex);
+            boolean isGrandChild = largestIndex > 2 * index + 2;
+            index = largestIndex;
+            if (!isGrandChild) {
+                // max child is a child of i, the value takes its place and is done
+                break;
+            }
+            // The value went down to a max level grandchild, switch it with the min level parent if it is smaller
+            int parentIndex = (index - 1) >> 1;
+            if (value < heap[parentIndex]) {
+                int parentValue = heap[parentIndex];
+                int parentHandle = handles[parentIndex];
+                heap[parentIndex] = value;
+                handles[parentIndex] = handle;
+                positions[handle] = parentIndex;
+                value = parentValue;
+                handle = parentHandle;
+            }
+        }
+        heap[index] = value;
+        handles[index] = handle;
+        positions[handle] = index;
+    }
+
+    public int heapExtractMax() {
+        /*
+        This method extracts and returns the maximal value found in the heap (the root of the heap)
+        It is done by exchanging places with the last index of the heap and then running heapify on the heap root
+        Throws EmptyHeapException if the heap is empty
+         */
+        int maxIndex = getHeapMaxIndex();
+        if (maxIndex == -1) {
+            throw new EmptyHeapException();
+        }
+
+        int max = removeAt(maxIndex);
+        return max;
+    }
+
+    public int heapExtractMin() {
+        /*
+        This method extracts and returns the minimal value found in the heap
+        It is done by exchanging places with the last index of the heap and then running heapify on the original index
+        Throws EmptyHeapException if the heap is empty
+         */
+        int minIndex = getHeapMinIndex();
+        if (minIndex == -1) {
+            throw new EmptyHeapException();
+        }
+
+        int min = removeAt(minIndex);
+        return min;
+    }
+
+    public int heapInsert(int newValue) {
+        /*
+        Inserts a new value to the end of the array representing the heap
+        afterwards the method fixes the new value position to match the MaxMinHeap criteria by using bubbleUp method
+        Returns the handle of the new value
+
+        @param newValue - New value to be inserted to the heap
+         */
+
+        int handle = append(newValue);
+        int newValueIndex = getLastHeapIndex();
+        bubbleUp(newValueIndex); // Uses bubbleUp method to fix the position of the new inserted value
+        return handle;
+    }
+
+    public void heapDelete(int index) {
+        /*
+        Deletes a certain value from the heap by exchanging places with the last value of the heap and then it removes that value
+        After that it fixes the heap by running heapify on it
+        Throws IndexOutOfBoundsException if the index is not in the heap
+
+        @param index - Index to delete
+         */
+        if (!indexExistInHeap(index)) {
+            throw new IndexOutOfBoundsException("Requested index [" + index + "] not in heap of size " + heapSize + " (notice that indices start from 0).");
+        }
+
+        removeAt(index);
+    }
+
+    public int getHeapMaxHandle() {
+        /*
+        Returns the handle of the maximal value in the heap without removing it
+        Throws EmptyHeapException if the heap is empty
+         */
+        int maxIndex = getHeapMaxIndex();
+        if (maxIndex == -1) {
+            throw new EmptyHeapException();
+        }
+        return heapHandles[maxIndex];
+    }
+
+    public int getHeapMinHandle() {
+        /*
+        Returns the handle of the minimal value in the heap without removing it
+        Throws EmptyHeapException if the heap is empty
+         */
+        int minIndex = getHeapMinIndex();
+        if (minIndex == -1) {
+            throw new EmptyHeapException();
+        }
+        return heapHandles[minIndex];
+    }
+
+    public boolean contains(int handle) {
+        /*
+        Returns true if the handle belongs to a value that is currently in the heap
+         */
+        // Handles that were ever given out are 0 .. heapSize + freeHandlesCount - 1
+        return handle >= 0 && handle < heapSize + freeHandlesCount && handlePositions[handle] != -1;
+    }
+
+    public int valueOf(int handle) {
+        /*
+        Returns the value of a handle
+        Throws IllegalArgumentException if the handle is not in the heap
+         */
+        return heapArray[getIndexOfHandle(handle)];
+    }
+
+    public void changeKey(int handle, int newValue) {
+        /*
+        Changes the value of a handle, the value is moved up or down from its current index as needed (O(log n))
+        Throws IllegalArgumentException if the handle is not in the heap
+
+        @param handle - Handle of the value to change
+        @param newValue - The new value of the handle
+         */
+        int index = getIndexOfHandle(handle);
+        heapArray[index] = newValue;
+        bubbleUp(index);
+        siftDown(index);
+    }
+
+    public int delete(int handle) {
+        /*
+        Deletes the value of a handle from the heap (O(log n)) and returns it, the handle becomes invalid
+        Throws IllegalArgumentException if the handle is not in the heap
+
+        @param handle - Handle of the value to delete
+         */
+        return removeAt(getIndexOfHandle(handle));
+    }
+
+    private int getIndexOfHandle(int handle) {
+        /*
+        Returns the index in the heap array of a handle, throws IllegalArgumentException if the handle is not in the heap
+         */
+        if (!contains(handle)) {
+            throw new IllegalArgumentException("Handle [" + handle + "] is not in the heap.");
+        }
+        return handlePositions[handle];
+    }
+
+    private int getLastHeapIndex() {
+        /* 
+        Returns the index of the last position in the array with value.
+         */
+        return heapSize - 1;
+    }
+
+    private int removeAt(int index) {
+        /*
+        Removes the value in a certain index by moving the last value of the heap into its place
+        The moved value may belong above or below that place, so it is bubbled up and then heapified down
+
+        @param index - Index to remove, must exist in the heap
+         */
+        int removedValue = heapArray[index];
+        releaseHandle(heapHandles[index]);
+        heapSize--;
+        if (index < heapSize) {
+            moveInto(index, heapSize);
+            bubbleUp(index);
+            siftDown(index);
+        }
+        return removedValue;
+    }
+
+    private int append(int value) {
+        /*
+        Adds a value after the last position of the heap, growing the backing arrays by half when they are full
+        Returns the handle given to the value
+         */
+        if (heapSize == heapArray.length) {
+            int newCapacity = Math.max(DEFAULT_CAPACITY, heapSize + (heapSize >> 1));
+            heapArray = Arrays.copyOf(heapArray, newCapacity);
+            heapHandles = Arrays.copyOf(heapHandles, newCapacity);
+        }
+        int handle = acquireHandle();
+        heapArray[heapSize] = value;
+        heapHandles[heapSize] = handle;
+        handlePositions[handle] = heapSize;
+        heapSize++;
+        return handle;
+    }
+
+    private int acquireHandle() {
+        /*
+        Returns a released handle if there is one, otherwise a new handle (the next unused one)
+        The heap never holds more values than handles in use, so new handles are heapSize + freeHandlesCount
+         */
+        if (freeHandlesCount > 0) {
+            return freeHandles[--freeHandlesCount];
+        }
+        int handle = heapSize;
+        if (handle == handlePositions.length) {
+            handlePositions = Arrays.copyOf(handlePositions, Math.max(DEFAULT_CAPACITY, handle + (handle >> 1)));
+        }
+        return handle;
+    }
+
+    private void releaseHandle(int handle) {
+        /*
+        Marks a handle as not in use and keeps it for reuse
+         */
+        handlePositions[handle] = -1;
+        if (freeHandlesCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeHandlesCount + (freeHandlesCount >> 1) + 1);
+        }
+        freeHandles[freeHandlesCount++] = handle;
+    }
+
+    private static int getHeapDepthOfIndex(int index) {
+        /*
+        This method returns the depth of a certain index in the heap tree representation
+        Notice that indices in Java start from 0 so the given index value is increased by 1
+        The depth is floor(log2(index + 1)), the position of the highest set bit of index + 1
+
+        @param index - Index to check depth of
+         */
+        return 31 - Integer.numberOfLeadingZeros(index + 1);
+    }
+
+    private static boolean isMinLevel(int index) {
+        /*
+        Returns true if the index is on a min level (odd depth) - the depth is odd exactly when index + 1 has an even
+        amount of leading zero bits
+         */
+        return (Integer.numberOfLeadingZeros(index + 1) & 1) == 0;
+    }
+
+    private void moveInto(int targetIndex, int sourceIndex) {
+        /*
+        Copies the value of an index into another one together with its handle, and points the handle to its new index
+        The value that was in targetIndex is overwritten, callers hold it aside (or have released it)
+         */
+        int handle = heapHandles[sourceIndex];
+        heapArray[targetIndex] = heapArray[sourceIndex];
+        heapHandles[targetIndex] = handle;
+        handlePositions[handle] = targetIndex;
+    }
+
+    private int getSmallestIndexUpToGrandChild(int parentIndex) {
+        /*
+        This method returns the index of the descendant with the minimal value up to a grand child for a given parent node (2 depths)
+        Used for the nodes near the bottom of the heap, where not all the children / grandchildren exist - the children
+        and the grandchildren are each a contiguous range of indices, so each range is cut at the heap size once.
+        The parent must have at least one child.
+         */
+        int[] heap = heapArray;
+        int size = heapSize;
+        int leftChildIndex = 2 * parentIndex + 1;
+        int smallestIndex = leftChildIndex;
+        int smallestValue = heap[leftChildIndex];
+
+        int rightChildIndex = leftChildIndex + 1;
+        if (rightChildIndex < size && heap[rightChildIndex] < smallestValue) {
+            smallestIndex = rightChildIndex;
+            smallestValue = heap[rightChildIndex];
+        }
+        // The grandchildren exist only if the left child has children
+        if (leftChildIndex < (size >>> 1)) {
+            int grandChildrenEnd = Math.min(size, 2 * leftChildIndex + 5);
+            for (int grandChild = 2 * leftChildIndex + 1; grandChild < grandChildrenEnd; grandChild++) {
+                if (heap[grandChild] < smallestValue) {
+                    smallestIndex = grandChild;
+                    smallestValue = heap[grandChild];
+                }
+            }
+        }
+        return smallestIndex;
+    }
+
+    private int getLargestIndexUpToGrandChild(int parentIndex) {
+        /*
+        This method returns the index of the descendant with the maximal value up to a grand child for a given parent node (2 depths)
+        Used for the nodes near the bottom of the heap, where not all the children / grandchildren exist - the children
+        and the grandchildren are each a contiguous range of indices, so each range is cut at the heap size once.
+        The parent must have at least one child.
+         */
+        int[] heap = heapArray;
+        int size = heapSize;
+        int leftChildIndex = 2 * parentIndex + 1;
+        int largestIndex = leftChildIndex;
+        int largestValue = heap[leftChildIndex];
+
+        int rightChildIndex = leftChildIndex + 1;
+        if (rightChildIndex < size && heap[rightChildIndex] > largestValue) {
+            largestIndex = rightChildIndex;
+            largestValue = heap[rightChildIndex];
+        }
+        // The grandchildren exist only if the left child has children
+        if (leftChildIndex < (size >>> 1)) {
+            int grandChildrenEnd = Math.min(size, 2 * leftChildIndex + 5);
+            for (int grandChild = 2 * leftChildIndex + 1; grandChild < grandChildrenEnd; grandChild++) {
+                if (heap[grandChild] > largestValue) {
+                    largestIndex = grandChild;
+                    largestValue = heap[grandChild];
+                }
+            }
+        }
+        return largestIndex;
+    }
+
+    private boolean indexExistInHeap(int index) {
+        /*
+         returns true if index exists in the array representing the heap (value between 0 and heap array size)
+         */
+        return index >= 0 & index < heapSize;
+    }
+
+    private int getHeapMaxIndex() {
+        /*
+        returns the index of the node with Maximum value in the heap (root of course in the MaxMinHeap)
+        If the heap is empty -1 is returned
+         */
+        if (heapSize > 0) {
+            return 0;
+        }
+        return -1;
+    }
+
+    private int getHeapMinIndex() {
+        /*
+        returns the index of the node with Minimum value in the heap (1st / 2nd depth layer only needs to be checked)
+        If the heap is empty -1 is returned
+         */
+
+        int min = Integer.MIN_VALUE;
+        int minIndex = -1;
+
+        // We check the first, second, third indices in case the heap is very small
+        if (indexExistInHeap(0)) {
+            min = heapArray[0];
+            minIndex = 0;
+
+            // Check left Child
+            if (indexExistInHeap(1)) {
+                if (heapArray[1] < min) {
+                    min = heapArray[1];
+                    minIndex = 1;
+                }
+            }
+
+            // Check right Child
+            if (indexExistInHeap(2)) {
+                if (heapArray[2] < min) {
+                    minIndex = 2;
+                }
+            }
+        }
+        return minIndex;
+    }
+
+    private void bubbleUp(int index) {
+        /*
+        This method is responsible for moving a certain value up if it is not positioned correctly to match the
+        MaxMinHeap criteria.
+        If the value belongs on the other kind of level it first moves to its parent, then it climbs grandparent by
+        grandparent along its own kind of levels. The passed values move down into a "hole" with their handles, and
+        the bubbled value is written once, at its final place.
+
+        @param index - Index to bubble up
+         */
+        if (index == 0) {
+            return;
+        }
+        int[] heap = heapArray;
+        int value = heap[index];
+        int handle = heapHandles[index];
+        boolean minLevel = isMinLevel(index);
+
+        // A min level value bigger than its max level parent (or the opposite) switches with the parent first
+        int parentIndex = (index - 1) >> 1;
+        if (minLevel ? value > heap[parentIndex] : value < heap[parentIndex]) {
+            moveInto(index, parentIndex);
+            index = parentIndex;
+            minLevel = !minLevel;
+        }
+
+        // Then it climbs the levels of its kind, the grandparent of index is (index - 3) / 4
+        if (minLevel) {
+            while (index > 2) {
+                int grandParentIndex = (index - 3) >> 2;
+                if (value >= heap[grandParentIndex]) {
+                    break;
+                }
+                moveInto(index, grandParentIndex);
+                index = grandParentIndex;
+            }
+        } else {
+            while (index > 2) {
+                int grandParentIndex = (index - 3) >> 2;
+                if (value <= heap[grandParentIndex]) {
+                    break;
+                }
+                moveInto(index, grandParentIndex);
+                index = grandParentIndex;
+            }
+        }
+        heap[index] = value;
+        heapHandles[index] = handle;
+        handlePositions[handle] = index;
+    }
+
+    public void printHeap() {
+        /*
+        Prints the heap to the user, one time as the raw array, second time as a tree showing each layer
+         */
+        int arraySize = heapSize;
+        int deepestLevel = getHeapDepthOfIndex(arraySize - 1);
+        System.out.println("\nArray representation:");
+        System.out.println(Arrays.toString(Arrays.copyOf(heapArray, heapSize)));
+
+        System.out.print("\nTree layers representation:");
+
+        for (int i = 0; i < arraySize; i++) {
+
+            // A new layer starts at every index whose index + 1 is a power of 2
+            if ((i & (i + 1)) == 0) {
+                if (getHeapDepthOfIndex(i) % 2 == 0) {
+                    System.out.print("\nMax: ");
+                } else {
+                    System.out.print("\nMin: ");
+                }
+
+                for (int j = 0; j < (deepestLevel - getHeapDepthOfIndex(i)); j++) {
+                    System.out.print("  ");
+                }
+
+            }
+            System.out.print(heapArray[i] + "  ");
+        }
+        System.out.println();
+    }
+}
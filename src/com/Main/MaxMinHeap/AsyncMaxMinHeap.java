@@ -0,0 +1,294 @@
+package com.Main.MaxMinHeap;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An asynchronous MaxMinHeap of int values - heapInsert / heapExtractMax / heapExtractMin return CompletableFutures
+ * instead of blocking on a shared monitor.
+ *
+ * One owner thread is the only thread that ever touches the inner MaxMinHeap. Callers push their requests onto a
+ * lock free stack (the request object is its own stack node, so a request costs one allocation - its future) and
+ * wake the owner only when the stack was empty. The owner takes the whole stack with a single atomic swap, restores
+ * the arrival order and applies it as one batch:
+ * - every run of consecutive inserts goes into the heap with one insertAll, which appends and rebuilds the heap
+ *   when the run is big enough to make that cheaper than bubbling each value up
+ * - the futures are completed in the order of the requests, after the heap work of their run
+ * The more callers there are, the bigger the batches get and the less each request costs, instead of the callers
+ * queueing on a lock.
+ *
+ * Waiting on the futures never holds a monitor, so virtual threads that join them unmount instead of pinning their
+ * carrier. The futures are completed on the owner thread - dependent stages that are not async run there too, and
+ * should be short (or use the *Async variants).
+ *
+ * A request whose future is already done when the owner gets to it (the caller cancelled or completed it) is
+ * skipped, and an extracted value whose future the caller completed in the meantime is put back into the heap, so
+ * no value is ever lost. A request the heap fails on fails only its own future (the futures of its run for
+ * inserts), and if the owner thread ever stops, every request it did not apply fails with IllegalStateException
+ * instead of waiting forever.
+ *
+ * close() stops the owner once the requests already submitted are applied, later requests fail with
+ * IllegalStateException.
+ *
+ */
+
+public class AsyncMaxMinHeap implements AutoCloseable {
+
+    // Operation codes of a request
+    private static final int INSERT = 0;
+    private static final int EXTRACT_MAX = 1;
+    private static final int EXTRACT_MIN = 2;
+
+    private static final int INITIAL_BATCH_CAPACITY = 64;
+    // Marks the pending stack of a heap whose owner thread has stopped
+    private static final Request<Void> TERMINATED = new Request<>(INSERT, 0);
+
+    // Head of the stack of submitted requests, TERMINATED once the owner thread has stopped
+    private final AtomicReference<Request<?>> pending = new AtomicReference<>();
+    final MaxMinHeap heap = new MaxMinHeap();
+    private final Thread owner;
+    private volatile boolean closed;
+
+    // Owner thread state - the requests of the current drain (newest first) and the values of a run of inserts
+    private Request<?>[] batch = new Request<?>[INITIAL_BATCH_CAPACITY];
+    private int[] insertValues = new int[INITIAL_BATCH_CAPACITY];
+
+    public AsyncMaxMinHeap() {
+        // Constructor with a daemon owner thread
+        this(runnable -> {
+            Thread thread = new Thread(runnable, "async-max-min-heap-owner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public AsyncMaxMinHeap(ThreadFactory ownerThreadFactory) {
+        /*
+        @param ownerThreadFactory - Factory of the owner thread (a platform thread is best, it runs for the lifetime of the heap)
+         */
+        this.owner = ownerThreadFactory.newThread(this::runOwner);
+        owner.start();
+    }
+
+    public CompletableFuture<Void> heapInsert(int newValue) {
+        /*
+        Inserts a new value, the future completes once the value is in the heap
+
+        @param newValue - New value to be inserted to the heap
+         */
+        return submit(new Request<Void>(INSERT, newValue));
+    }
+
+    public CompletableFuture<Integer> heapExtractMax() {
+        /*
+        Extracts the maximal value of the heap, the future completes with the value
+        or exceptionally with EmptyHeapException if the heap is empty when the request is applied
+         */
+        return submit(new Request<Integer>(EXTRACT_MAX, 0));
+    }
+
+    public CompletableFuture<Integer> heapExtractMin() {
+        /*
+        Extracts the minimal value of the heap, the future completes with the value
+        or exceptionally with EmptyHeapException if the heap is empty when the request is applied
+         */
+        return submit(new Request<Integer>(EXTRACT_MIN, 0));
+    }
+
+    @Override
+    public void close() {
+        /*
+        Stops the owner thread once it applied all the requests submitted before, and waits for it
+         */
+        closed = true;
+        LockSupport.unpark(owner);
+        boolean interrupted = false;
+        while (owner.isAlive() && Thread.currentThread() != owner) {
+            try {
+                owner.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Request<T> request) {
+        /*
+        Pushes a request onto the pending stack, and wakes the owner if the stack was empty (otherwise the owner has
+        not taken the previous requests yet and will take this one with them)
+         */
+        if (closed) {
+            request.completeExceptionally(new IllegalStateException("The heap is closed."));
+            return request;
+        }
+        while (true) {
+            Request<?> head = pending.get();
+            if (head == TERMINATED) {
+                request.completeExceptionally(new IllegalStateException("The heap is closed."));
+                return request;
+            }
+            request.next = head;
+            if (pending.compareAndSet(head, request)) {
+                if (head == null) {
+                    LockSupport.unpark(owner);
+                }
+                return request;
+            }
+        }
+    }
+
+    private void runOwner() {
+        /*
+        The owner loop - takes all the pending requests at once and applies them, parks while there are none
+        Once closed, a last swap to TERMINATED takes the requests that raced with close
+        If the loop ever ends without that swap (an Error thrown by the heap), the finally block does it and fails
+        every request that was not applied, so no caller waits forever
+         */
+        try {
+            while (true) {
+                Request<?> stack = pending.getAndSet(null);
+                if (stack != null) {
+                    applyBatch(stack);
+                } else if (closed) {
+                    stack = pending.getAndSet(TERMINATED);
+                    if (stack != null) {
+                        applyBatch(stack);
+                    }
+                    return;
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+        } finally {
+            if (pending.get() != TERMINATED) {
+                closed = true;
+                IllegalStateException stopped = new IllegalStateException("The heap owner thread stopped.");
+                for (Request<?> request : batch) {
+                    if (request != null) {
+                        request.completeExceptionally(stopped);
+                    }
+                }
+                for (Request<?> request = pending.getAndSet(TERMINATED); request != null; request = request.next) {
+                    request.completeExceptionally(stopped);
+                }
+            }
+        }
+    }
+
+    private void applyBatch(Request<?> stack) {
+        /*
+        Applies the requests of a drained stack in their arrival order (the stack holds them newest first)
+         */
+        int count = 0;
+        for (Request<?> request = stack; request != null; request = request.next) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, count * 2);
+            }
+            batch[count++] = request;
+        }
+
+        int index = count - 1;
+        while (index >= 0) {
+            Request<?> request = batch[index];
+            if (request.isDone()) {
+                // Cancelled or completed by the caller before it was applied
+                request.next = null;
+                index--;
+            } else if (request.operation == INSERT) {
+                index = applyInserts(index);
+            } else {
+                applyExtract(request);
+                index--;
+            }
+        }
+        Arrays.fill(batch, 0, count, null);
+    }
+
+    private int applyInserts(int firstIndex) {
+        /*
+        Applies the run of consecutive inserts that starts at a batch index (the batch is in reverse arrival order)
+        with one insertAll, then completes their futures
+        Returns the batch index after the run
+         */
+        int end = firstIndex;
+        int valueCount = 0;
+        while (end >= 0 && batch[end].operation == INSERT) {
+            // Inserts the caller already cancelled are left out of the run (their futures are done as they are)
+            if (!batch[end].isDone()) {
+                if (valueCount == insertValues.length) {
+                    insertValues = Arrays.copyOf(insertValues, valueCount * 2);
+                }
+                insertValues[valueCount++] = batch[end].value;
+            }
+            end--;
+        }
+        try {
+            heap.insertAll(insertValues, valueCount);
+        } catch (RuntimeException e) {
+            // The run went in with a single insertAll call, so all of its futures fail together
+            for (int index = firstIndex; index > end; index--) {
+                batch[index].next = null;
+                batch[index].completeExceptionally(e);
+            }
+            return end;
+        }
+        for (int index = firstIndex; index > end; index--) {
+            complete(batch[index], null);
+        }
+        return end;
+    }
+
+    private void applyExtract(Request<?> request) {
+        /*
+        Extracts the value of a request and completes its future - if the caller completed the future in between,
+        the value goes back into the heap
+         */
+        request.next = null;
+        if (heap.isEmpty()) {
+            request.completeExceptionally(new EmptyHeapException());
+            return;
+        }
+        int value;
+        try {
+            value = request.operation == EXTRACT_MAX ? heap.heapExtractMax() : heap.heapExtractMin();
+        } catch (RuntimeException e) {
+            request.completeExceptionally(e);
+            return;
+        }
+        if (!complete(request, value)) {
+            heap.heapInsert(value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean complete(Request<?> request, Integer result) {
+        /*
+        Insert requests complete with null, extract requests with the extracted value
+        Returns false if the future was already done (the caller cancelled or completed it)
+         */
+        request.next = null;
+        return ((Request<Object>) request).complete(result);
+    }
+
+    /**
+     * A submitted request - the future returned to the caller and a node of the pending stack at the same time.
+     * The caller only sees it as a CompletableFuture, the owner checks isDone / the result of complete before it
+     * trusts that the caller did not cancel or complete it.
+     */
+    private static final class Request<T> extends CompletableFuture<T> {
+        final int operation;
+        final int value;
+        Request<?> next;
+
+        Request(int operation, int value) {
+            this.operation = operation;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.Main.MaxMinHeap;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread safe MaxMinHeap of int values, based on flat combining.
+ *
+ * Every writer thread owns a publication slot in a combining array. To run an operation the thread writes it
+ * to its slot and then either:
+ * - takes the combiner lock, applies the pending operations of ALL the slots to the inner MaxMinHeap as one batch,
+ *   and releases the lock, or
+ * - if another thread is already combining, spins on its own slot until the combiner has applied its operation.
+ * So the heap is only touched by one thread at a time, and under contention one lock handover serves a whole batch
+ * of operations instead of one.
+ *
+ * After every batch the combiner publishes the current size, max and min in volatile fields, so peekMax / peekMin /
+ * size never take the lock. A peek returns a value that was the max / min of the heap at some moment, the heap may
+ * have changed since.
+ *
+ * Threads are given slots on their first operation and keep them while they are alive. A slot remembers its owner
+ * through a WeakReference, and the slot of a thread that has died (or was collected) is handed to the next thread
+ * that asks for one, so pools that replace their threads keep combining. While all the slots are owned by live
+ * threads, additional threads take the lock for each of their operations and ask for a slot again on the next one.
+ *
+ * An operation that fails while a combiner applies it (an OutOfMemoryError while the heap grows, a listener of the
+ * inner heap that throws) fails only in its own thread - the combiner stores the failure in the slot, clears the
+ * operation, and the waiting thread rethrows it. The operation is never applied a second time by a later combiner.
+ *
+ * The slots are stored in a single int array, SLOT_STRIDE ints apart - array elements are laid out contiguously, so
+ * unlike padding fields (which the JVM may reorder) the stride keeps the slots of different threads on different
+ * cache lines.
+ *
+ */
+
+public class ConcurrentMaxMinHeap {
+
+    // Operation codes of a publication slot
+    private static final int NONE = 0;
+    private static final int INSERT = 1;
+    private static final int EXTRACT_MAX = 2;
+    private static final int EXTRACT_MIN = 3;
+
+    // Result status of an applied operation
+    private static final int OK = 0;
+    private static final int EMPTY = 1;
+    private static final int FAILED = 2;
+
+    // Amount of scans the combiner does over the slots before it lets the lock go
+    private static final int COMBINING_PASSES = 3;
+    // Amount of spins a waiting thread does before it tries to become the combiner again
+    private static final int SPINS_BEFORE_RETRY = 256;
+
+    // Layout of a slot in the slot cells - 32 ints (128 bytes) per slot, two cache lines so the adjacent line
+    // prefetcher does not pair the slots of two threads either. Cells before the first slot pad it from the array header.
+    static final int SLOT_STRIDE = 32;
+    private static final int OPERATION = 0;
+    private static final int ARGUMENT = 1;
+    private static final int RESULT = 2;
+    private static final int STATUS = 3;
+
+    final MaxMinHeap heap;
+    private final ReentrantLock combinerLock;
+    private final int slotCount;
+    // The slots - the operation cell is written / read as volatile, the others are ordered by it
+    final AtomicIntegerArray slotCells;
+    // Failure of the last operation of every slot, set with the FAILED status and cleared by the waiting thread
+    private final AtomicReferenceArray<Throwable> slotFailures;
+    // Owner thread of every slot (null for a slot never given out)
+    private final AtomicReferenceArray<WeakReference<Thread>> slotOwners;
+    // Slots at or after this index were never given out, the combiner does not scan them
+    private final AtomicInteger usedSlotsBound;
+    // Slot index of the current thread, not set while the thread has no slot
+    final ThreadLocal<Integer> threadSlot;
+
+    // Published by the combiner after every batch, read without the lock
+    private volatile int publishedSize;
+    private volatile long publishedBounds; // max in the high 32 bits, min in the low 32 bits
+
+    public ConcurrentMaxMinHeap() {
+        // Constructor with a slot for every available processor (twice as many, for over subscribed pools)
+        this(2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentMaxMinHeap(int maxCombiningThreads) {
+        // Constructor with a given amount of publication slots
+        this.heap = new MaxMinHeap();
+        this.combinerLock = new ReentrantLock();
+        this.slotCount = maxCombiningThreads;
+        this.slotCells = new AtomicIntegerArray((maxCombiningThreads + 1) * SLOT_STRIDE);
+        this.slotFailures = new AtomicReferenceArray<>(maxCombiningThreads);
+        this.slotOwners = new AtomicReferenceArray<>(maxCombiningThreads);
+        this.usedSlotsBound = new AtomicInteger();
+        this.threadSlot = new ThreadLocal<>();
+    }
+
+    public void heapInsert(int newValue) {
+        /*
+        Inserts a new value to the heap
+
+        @param newValue - New value to be inserted to the heap
+         */
+        execute(INSERT, newValue);
+    }
+
+    public int heapExtractMax() {
+        /*
+        Extracts and returns the maximal value of the heap
+        Throws EmptyHeapException if the heap is empty
+         */
+        return execute(EXTRACT_MAX, 0);
+    }
+
+    public int heapExtractMin() {
+        /*
+        Extracts and returns the minimal value of the heap
+        Throws EmptyHeapException if the heap is empty
+         */
+        return execute(EXTRACT_MIN, 0);
+    }
+
+    public int peekMax() {
+        /*
+        Returns the maximal value of the heap as published by the last batch, without taking the lock
+        Throws EmptyHeapException if the heap is empty
+         */
+        if (publishedSize == 0) {
+            throw new EmptyHeapException();
+        }
+        return (int) (publishedBounds >> 32);
+    }
+
+    public int peekMin() {
+        /*
+        Returns the minimal value of the heap as published by the last batch, without taking the lock
+        Throws EmptyHeapException if the heap is empty
+         */
+        if (publishedSize == 0) {
+            throw new EmptyHeapException();
+        }
+        return (int) publishedBounds;
+    }
+
+    public int size() {
+        // Returns the size of the heap as published by the last batch, without taking the lock
+        return publishedSize;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if the heap was empty after the last batch
+        return publishedSize == 0;
+    }
+
+    private int execute(int operation, int argument) {
+        /*
+        Publishes an operation in the slot of the current thread and waits until it was applied
+        by this thread (as the combiner) or by another combiner
+         */
+        Integer slotIndex = threadSlot.get();
+        if (slotIndex == null) {
+            slotIndex = claimSlot();
+        }
+        if (slotIndex == null) {
+            // No slot free for this thread, apply the operation directly under the lock
+            combinerLock.lock();
+            try {
+                return apply(operation, argument, -1);
+            } finally {
+                publish();
+                combinerLock.unlock();
+            }
+        }
+
+        AtomicIntegerArray cells = slotCells;
+        int slot = slotBase(slotIndex);
+        cells.setPlain(slot + ARGUMENT, argument);
+        cells.set(slot + OPERATION, operation); // Volatile write, publishes the argument as well
+
+        int spins = 0;
+        while (cells.get(slot + OPERATION) != NONE) {
+            if (spins == 0 && combinerLock.tryLock()) {
+                try {
+                    combine();
+                } finally {
+                    combinerLock.unlock();
+                }
+            } else if (++spins < SPINS_BEFORE_RETRY) {
+                Thread.onSpinWait();
+            } else {
+                // Give the combiner a chance to run (it may be waiting for a core) before retrying the lock
+                Thread.yield();
+                spins = 0;
+            }
+        }
+
+        int status = cells.getPlain(slot + STATUS);
+        if (status == EMPTY) {
+            throw new EmptyHeapException();
+        }
+        if (status == FAILED) {
+            Throwable failure = slotFailures.getPlain(slotIndex);
+            slotFailures.setPlain(slotIndex, null);
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw (RuntimeException) failure;
+        }
+        return cells.getPlain(slot + RESULT);
+    }
+
+    private void combine() {
+        /*
+        Applies the pending operations of all the slots, called only while holding the combiner lock
+        An operation that throws is failed in its own slot, the combiner goes on with the others
+         */
+        AtomicIntegerArray cells = slotCells;
+        for (int pass = 0; pass < COMBINING_PASSES; pass++) {
+            boolean appliedAny = false;
+            int used = usedSlotsBound.get();
+            for (int i = 0; i < used; i++) {
+                int slot = slotBase(i);
+                int operation = cells.get(slot + OPERATION);
+                if (operation != NONE) {
+                    int result = 0;
+                    try {
+                        result = apply(operation, cells.getPlain(slot + ARGUMENT), slot);
+                    } catch (RuntimeException | Error e) {
+                        slotFailures.setPlain(i, e);
+                        cells.setPlain(slot + STATUS, FAILED);
+                    }
+                    cells.setPlain(slot + RESULT, result);
+                    cells.set(slot + OPERATION, NONE); // Volatile write, releases the waiting thread with its result
+                    appliedAny = true;
+                }
+            }
+            if (!appliedAny) {
+                break;
+            }
+        }
+        publish();
+    }
+
+    private int apply(int operation, int argument, int slot) {
+        /*
+        Applies a single operation to the inner heap, the status of a slot operation is written to the slot
+        (slot is the first cell of the slot, -1 for an operation applied directly under the lock)
+         */
+        int status = OK;
+        int result = 0;
+        switch (operation) {
+            case INSERT:
+                heap.heapInsert(argument);
+                break;
+            case EXTRACT_MAX:
+                if (heap.isEmpty()) {
+                    status = EMPTY;
+                } else {
+                    result = heap.heapExtractMax();
+                }
+                break;
+            case EXTRACT_MIN:
+                if (heap.isEmpty()) {
+                    status = EMPTY;
+                } else {
+                    result = heap.heapExtractMin();
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown operation [" + operation + "].");
+        }
+
+        if (slot >= 0) {
+            slotCells.setPlain(slot + STATUS, status);
+        } else if (status == EMPTY) {
+            throw new EmptyHeapException();
+        }
+        return result;
+    }
+
+    private void publish() {
+        /*
+        Publishes the size, max and min of the inner heap for the lock free readers
+        An empty heap keeps the last bounds, readers check the size first
+         */
+        int size = heap.size();
+        if (size > 0) {
+            int max = heap.heapArray[0];
+            int min = max;
+            if (size > 1) {
+                min = heap.heapArray[1];
+            }
+            if (size > 2 && heap.heapArray[2] < min) {
+                min = heap.heapArray[2];
+            }
+            publishedBounds = ((long) max << 32) | (min & 0xFFFFFFFFL);
+        }
+        publishedSize = size;
+    }
+
+    private Integer claimSlot() {
+        /*
+        Gives the current thread a slot that was never given out or whose owner has died, and remembers it in
+        threadSlot. Returns null (and remembers nothing, so the next operation asks again) when all the slots are
+        owned by live threads.
+        The dead owner of a slot was not inside execute when it died, so its slot holds no pending operation.
+         */
+        Thread current = Thread.currentThread();
+        for (int i = 0; i < slotCount; i++) {
+            WeakReference<Thread> owner = slotOwners.get(i);
+            if (isFree(owner) && slotOwners.compareAndSet(i, owner, new WeakReference<>(current))) {
+                usedSlotsBound.accumulateAndGet(i + 1, Math::max);
+                Integer slotIndex = i;
+                threadSlot.set(slotIndex);
+                return slotIndex;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isFree(WeakReference<Thread> owner) {
+        // Returns true for a slot that was never given out, or whose owner thread has terminated or was collected
+        if (owner == null) {
+            return true;
+        }
+        Thread thread = owner.get();
+        return thread == null || !thread.isAlive();
+    }
+
+    private static int slotBase(int slotIndex) {
+        // Returns the first cell of a slot, the first SLOT_STRIDE cells are padding
+        return (slotIndex + 1) * SLOT_STRIDE;
+    }
+}
@@ -0,0 +1,36 @@
+package com.Main.MaxMinHeap;
+
+/**
+ * A HeapEventListener that prints every operation and the resulting heap to the console.
+ * This is the verbose output the heap used to print by itself, it is meant for interactive use only.
+ *
+ */
+
+public class ConsoleHeapEventListener implements HeapEventListener {
+
+    @Override
+    public void onBuild(MaxMinHeap heap) {
+        heap.printHeap();
+    }
+
+    @Override
+    public void onInsert(MaxMinHeap heap, int insertedValue) {
+        System.out.println("Inserted [" + insertedValue + "] to heap.");
+        System.out.println("\nNew heap -");
+        heap.printHeap();
+    }
+
+    @Override
+    public void onInsertAll(MaxMinHeap heap, int insertedCount) {
+        System.out.println("Inserted " + insertedCount + " values to heap.");
+        System.out.println("\nNew heap -");
+        heap.printHeap();
+    }
+
+    @Override
+    public void onDelete(MaxMinHeap heap, int deletedIndex, int deletedValue) {
+        System.out.println("Deleted value [" + deletedValue + "] in index [" + deletedIndex + "] from the heap.");
+        System.out.println("\nNew heap -");
+        heap.printHeap();
+    }
+}
@@ -0,0 +1,31 @@
+package com.Main.MaxMinHeap;
+
+/**
+ * The operations shared by all the MaxMinHeap implementations, regardless of the type of the stored values.
+ *
+ * The value-typed methods (heapInsert, heapExtractMax, heapExtractMin) are declared by each implementation with
+ * its own primitive / generic signature, so the primitive heaps never box on their hot paths.
+ *
+ * Implementations:
+ * - MaxMinHeap - int values
+ * - LongMaxMinHeap - long values
+ * - DoubleMaxMinHeap - double values
+ * - ObjectMaxMinHeap - any values ordered by a Comparator
+ * - KeyedMaxMinHeap - long keys with a long payload each
+ *
+ */
+
+public interface DoubleEndedHeap {
+
+    int size();
+
+    boolean isEmpty();
+
+    void buildHeap();
+
+    void heapify(int indexToHeapify);
+
+    void heapDelete(int index);
+
+    void printHeap();
+}
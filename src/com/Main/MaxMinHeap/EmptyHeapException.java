@@ -0,0 +1,17 @@
+package com.Main.MaxMinHeap;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Thrown by the extract methods of the heaps when there is no value to extract.
+ *
+ */
+
+public class EmptyHeapException extends NoSuchElementException {
+
+    private static final long serialVersionUID = 1L;
+
+    public EmptyHeapException() {
+        super("Error, heap is empty!");
+    }
+}
@@ -0,0 +1,530 @@
+package com.Main.MaxMinHeap;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A double ended priority queue of int values for more values than fit in memory.
+ *
+ * New values go to an in memory MaxMinHeap of a fixed capacity (the hot buffer). When the buffer is full it is
+ * sorted in place, spilled to a new run file in the spill directory, and starts over empty.
+ * A run is a sorted sequence of values on disk, so its min and max are simply its first and last remaining values.
+ * heapExtractMax / heapExtractMin compare the buffer max / min with the last / first value of every run and take the
+ * best one, so the runs are merged lazily from both ends, only as far as values are extracted.
+ *
+ * All the disk I/O is sequential and done in blocks of <blockSize> values through FileChannel:
+ * - a spill writes the sorted buffer block by block
+ * - every run reads a block forward from its front and a block backward from its end, and only goes back to the
+ *   disk once that block is used up
+ * The read / write calls and bytes are counted (getReadCount, getWriteCount, getBytesRead, getBytesWritten).
+ *
+ * To keep extraction cheap the amount of runs is bounded: once there are more than <maxRuns> runs, the smaller half
+ * of them is merged into a single run (one sequential read of every merged run and one sequential write).
+ *
+ * Run files are deleted as soon as they are used up, and all of them are deleted by close().
+ * The queue is not thread safe, and must not be used after close().
+ *
+ */
+
+public class ExternalMaxMinHeap implements AutoCloseable {
+
+    static final int DEFAULT_BUFFER_CAPACITY = 1 << 22; // 16MB of values in memory
+    static final int DEFAULT_BLOCK_SIZE = 1 << 16; // 256KB blocks
+    static final int DEFAULT_MAX_RUNS = 64;
+    private static final int VALUE_BYTES = Integer.BYTES;
+
+    private final Path spillDirectory;
+    private final int blockSize;
+    private final int maxRuns;
+    private final MaxMinHeap buffer;
+    private final ArrayList<Run> runs;
+    // Blocks of used up runs and finished writers, reused by the next ones
+    private final ArrayDeque<ByteBuffer> freeBlocks;
+    private long spilledSize;
+    private boolean closed;
+
+    // I/O metrics
+    private long readCount;
+    private long writeCount;
+    private long bytesRead;
+    private long bytesWritten;
+
+    public ExternalMaxMinHeap(String spillDirectoryPath) {
+        // Constructor with the default buffer capacity (2^22 values), block size (2^16 values) and maximal amount of runs
+        this(spillDirectoryPath, DEFAULT_BUFFER_CAPACITY, DEFAULT_BLOCK_SIZE, DEFAULT_MAX_RUNS);
+    }
+
+    public ExternalMaxMinHeap(String spillDirectoryPath, int bufferCapacity, int blockSize, int maxRuns) {
+        /*
+        @param spillDirectoryPath - Existing directory the run files are created in
+        @param bufferCapacity - Amount of values kept in memory before they are spilled to a run
+        @param blockSize - Amount of values of every disk read / write (every run holds up to two blocks in memory)
+        @param maxRuns - Amount of runs above which the smaller half of the runs is merged
+         */
+        if (bufferCapacity <= 0 || blockSize <= 0) {
+            throw new IllegalArgumentException("Buffer capacity and block size must be positive, got ["
+                    + bufferCapacity + "] and [" + blockSize + "].");
+        }
+        if (maxRuns < 2) {
+            throw new IllegalArgumentException("Maximal amount of runs must be at least 2, got [" + maxRuns + "].");
+        }
+        this.spillDirectory = Path.of(spillDirectoryPath);
+        this.blockSize = blockSize;
+        this.maxRuns = maxRuns;
+        this.buffer = MaxMinHeap.withFixedCapacity(bufferCapacity);
+        this.runs = new ArrayList<>();
+        this.freeBlocks = new ArrayDeque<>();
+    }
+
+    public long size() {
+        // Returns the number of values currently in the queue (in memory and on disk)
+        return buffer.heapSize + spilledSize;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if the queue holds no values
+        return size() == 0;
+    }
+
+    public void heapInsert(int newValue) {
+        /*
+        Inserts a new value, spilling the buffer to a new run first if it is full
+        Throws UncheckedIOException if the spill fails
+
+        @param newValue - New value to be inserted
+         */
+        ensureOpen();
+        if (buffer.isFull()) {
+            spill();
+        }
+        buffer.heapInsert(newValue);
+    }
+
+    public int heapExtractMax() {
+        /*
+        Extracts and returns the maximal value of the queue
+        Throws EmptyHeapException if the queue is empty
+         */
+        ensureOpen();
+        Run run = getMaxRun();
+        if (run == null || (buffer.heapSize > 0 && buffer.heapArray[0] >= run.last())) {
+            return buffer.heapExtractMax();
+        }
+        int max = run.removeLast();
+        afterRunRemoval(run);
+        return max;
+    }
+
+    public int heapExtractMin() {
+        /*
+        Extracts and returns the minimal value of the queue
+        Throws EmptyHeapException if the queue is empty
+         */
+        ensureOpen();
+        Run run = getMinRun();
+        if (run == null || (buffer.heapSize > 0 && buffer.heapArray[buffer.getHeapMinIndex()] <= run.first())) {
+            return buffer.heapExtractMin();
+        }
+        int min = run.removeFirst();
+        afterRunRemoval(run);
+        return min;
+    }
+
+    public int peekMax() {
+        /*
+        Returns the maximal value of the queue without removing it
+        Throws EmptyHeapException if the queue is empty
+         */
+        ensureOpen();
+        Run run = getMaxRun();
+        if (run == null) {
+            if (buffer.heapSize == 0) {
+                throw new EmptyHeapException();
+            }
+            return buffer.heapArray[0];
+        }
+        return buffer.heapSize > 0 ? Math.max(buffer.heapArray[0], run.last()) : run.last();
+    }
+
+    public int peekMin() {
+        /*
+        Returns the minimal value of the queue without removing it
+        Throws EmptyHeapException if the queue is empty
+         */
+        ensureOpen();
+        Run run = getMinRun();
+        if (run == null) {
+            if (buffer.heapSize == 0) {
+                throw new EmptyHeapException();
+            }
+            return buffer.heapArray[buffer.getHeapMinIndex()];
+        }
+        return buffer.heapSize > 0 ? Math.min(buffer.heapArray[buffer.getHeapMinIndex()], run.first()) : run.first();
+    }
+
+    public int getRunCount() {
+        // Returns the amount of runs currently on disk
+        return runs.size();
+    }
+
+    public long getReadCount() {
+        // Returns the amount of read calls done on run files
+        return readCount;
+    }
+
+    public long getWriteCount() {
+        // Returns the amount of write calls done on run files
+        return writeCount;
+    }
+
+    public long getBytesRead() {
+        // Returns the amount of bytes read from run files
+        return bytesRead;
+    }
+
+    public long getBytesWritten() {
+        // Returns the amount of bytes written to run files
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() {
+        /*
+        Deletes all the run files and drops all the values, the queue can not be used afterwards
+         */
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Run run : runs) {
+            closeQuietly(run.channel);
+        }
+        runs.clear();
+        freeBlocks.clear();
+        spilledSize = 0;
+        buffer.heapSize = 0;
+    }
+
+    private void spill() {
+        /*
+        Sorts the buffer in place and writes it as a new run, then merges runs if there are too many
+        If the run can not be written the buffer is rebuilt into a heap, so no value is lost and the queue stays usable
+         */
+        int count = buffer.heapSize;
+        Arrays.sort(buffer.heapArray, 0, count);
+        RunWriter writer = null;
+        boolean written = false;
+        try {
+            writer = new RunWriter();
+            writer.putAll(buffer.heapArray, 0, count);
+            runs.add(writer.finish());
+            written = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill heap values to " + spillDirectory + ".", e);
+        } finally {
+            if (!written) {
+                if (writer != null) {
+                    writer.abort();
+                }
+                buffer.buildHeap();
+            }
+        }
+        spilledSize += count;
+        buffer.heapSize = 0;
+
+        if (runs.size() > maxRuns) {
+            try {
+                // Rounded up, so at least two runs are merged (a single run "merged" alone would not reduce the count)
+                mergeSmallestRuns((runs.size() + 1) / 2);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to merge heap runs in " + spillDirectory + ".", e);
+            }
+        }
+    }
+
+    void mergeSmallestRuns(int mergedRunCount) throws IOException {
+        /*
+        Merges the <mergedRunCount> runs with the fewest remaining values into a single run
+        The smallest front of the merged runs is taken from a LongMaxMinHeap of (value, run) pairs,
+        value in the high 32 bits so the pairs are ordered by value
+        The merged runs are only retired once the new run is written - if the merge fails they are rewound to where
+        they started, and keep all their values
+         */
+        runs.sort(Comparator.comparingLong(Run::size));
+        Run[] merged = runs.subList(0, mergedRunCount).toArray(new Run[0]);
+        long[] fronts = new long[merged.length];
+        for (int i = 0; i < merged.length; i++) {
+            fronts[i] = merged[i].front;
+        }
+
+        RunWriter writer = null;
+        Run mergedRun;
+        try {
+            LongMaxMinHeap smallestFronts = new LongMaxMinHeap();
+            for (int i = 0; i < merged.length; i++) {
+                smallestFronts.heapInsert(((long) merged[i].first() << 32) | i);
+            }
+            writer = new RunWriter();
+            while (!smallestFronts.isEmpty()) {
+                long front = smallestFronts.heapExtractMin();
+                Run run = merged[(int) front];
+                writer.put(run.removeFirst());
+                if (run.size() > 0) {
+                    smallestFronts.heapInsert(((long) run.first() << 32) | (int) front);
+                }
+            }
+            mergedRun = writer.finish();
+        } catch (IOException | RuntimeException e) {
+            if (writer != null) {
+                writer.abort();
+            }
+            for (int i = 0; i < merged.length; i++) {
+                merged[i].rewind(fronts[i]);
+            }
+            throw e;
+        }
+
+        for (Run run : merged) {
+            retire(run);
+        }
+        runs.subList(0, mergedRunCount).clear();
+        runs.add(mergedRun);
+    }
+
+    private Run getMaxRun() {
+        // Returns the run with the largest last value, null if there are no runs
+        Run maxRun = null;
+        for (Run run : runs) {
+            if (maxRun == null || run.last() > maxRun.last()) {
+                maxRun = run;
+            }
+        }
+        return maxRun;
+    }
+
+    private Run getMinRun() {
+        // Returns the run with the smallest first value, null if there are no runs
+        Run minRun = null;
+        for (Run run : runs) {
+            if (minRun == null || run.first() < minRun.first()) {
+                minRun = run;
+            }
+        }
+        return minRun;
+    }
+
+    private void afterRunRemoval(Run run) {
+        // Accounts for a value extracted from a run, and deletes the run once it is used up
+        spilledSize--;
+        if (run.size() == 0) {
+            retire(run);
+            runs.remove(run);
+        }
+    }
+
+    private void retire(Run run) {
+        // Closes (and so deletes) the file of a run and keeps its blocks for reuse
+        closeQuietly(run.channel);
+        releaseBlock(run.frontBlock);
+        releaseBlock(run.backBlock);
+        run.frontBlock = null;
+        run.backBlock = null;
+    }
+
+    private ByteBuffer takeBlock() {
+        ByteBuffer block = freeBlocks.poll();
+        if (block == null) {
+            block = ByteBuffer.allocateDirect(blockSize * VALUE_BYTES).order(ByteOrder.nativeOrder());
+        }
+        return block.clear();
+    }
+
+    private void releaseBlock(ByteBuffer block) {
+        if (block != null) {
+            freeBlocks.push(block);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // The run is dropped either way
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Heap was closed.");
+        }
+    }
+
+    /**
+     * Writes a new run file sequentially, one block at a time. The file is deleted once its channel is closed.
+     */
+    private final class RunWriter {
+
+        private final FileChannel channel;
+        private final ByteBuffer block;
+        private long position;
+        private long count;
+
+        RunWriter() throws IOException {
+            Path file = Files.createTempFile(spillDirectory, "heap-run-", ".bin");
+            try {
+                this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            this.block = takeBlock();
+        }
+
+        void put(int value) throws IOException {
+            block.putInt(value);
+            count++;
+            if (!block.hasRemaining()) {
+                flush();
+            }
+        }
+
+        void putAll(int[] values, int from, int to) throws IOException {
+            while (from < to) {
+                int length = Math.min(to - from, block.remaining() / VALUE_BYTES);
+                block.asIntBuffer().put(values, from, length);
+                block.position(block.position() + length * VALUE_BYTES);
+                from += length;
+                count += length;
+                if (!block.hasRemaining()) {
+                    flush();
+                }
+            }
+        }
+
+        Run finish() throws IOException {
+            // Writes the last partial block and returns the written values as a run
+            flush();
+            releaseBlock(block);
+            return new Run(channel, count);
+        }
+
+        void abort() {
+            // Drops a run that could not be written - closing the channel deletes its file
+            closeQuietly(channel);
+            releaseBlock(block);
+        }
+
+        private void flush() throws IOException {
+            block.flip();
+            while (block.hasRemaining()) {
+                int written = channel.write(block, position);
+                position += written;
+                writeCount++;
+                bytesWritten += written;
+            }
+            block.clear();
+        }
+    }
+
+    /**
+     * A sorted run file, the remaining values are the indices [front, back) of the file.
+     * The front block holds the values from front onward and the back block the values right before back.
+     */
+    private final class Run {
+
+        final FileChannel channel;
+        long front;
+        long back;
+        ByteBuffer frontBlock;
+        long frontBlockStart;
+        long frontBlockEnd;
+        ByteBuffer backBlock;
+        long backBlockStart;
+        long backBlockEnd;
+
+        Run(FileChannel channel, long count) {
+            this.channel = channel;
+            this.front = 0;
+            this.back = count;
+        }
+
+        long size() {
+            return back - front;
+        }
+
+        int first() {
+            if (front >= frontBlockEnd) {
+                frontBlockStart = front;
+                frontBlockEnd = Math.min(back, front + blockSize);
+                frontBlock = readBlock(frontBlock, frontBlockStart, frontBlockEnd);
+            }
+            return frontBlock.getInt((int) (front - frontBlockStart) * VALUE_BYTES);
+        }
+
+        int last() {
+            long index = back - 1;
+            if (index < backBlockStart || index >= backBlockEnd) {
+                backBlockEnd = back;
+                backBlockStart = Math.max(front, back - blockSize);
+                backBlock = readBlock(backBlock, backBlockStart, backBlockEnd);
+            }
+            return backBlock.getInt((int) (index - backBlockStart) * VALUE_BYTES);
+        }
+
+        int removeFirst() {
+            int value = first();
+            front++;
+            return value;
+        }
+
+        int removeLast() {
+            int value = last();
+            back--;
+            return value;
+        }
+
+        void rewind(long previousFront) {
+            // Moves the front back to where it was, the front block is read again by the next first()
+            front = previousFront;
+            frontBlockStart = previousFront;
+            frontBlockEnd = previousFront;
+        }
+
+        private ByteBuffer readBlock(ByteBuffer block, long start, long end) {
+            /*
+            Reads the values [start, end) of the run into a block (taken from the free blocks if the run has none yet)
+             */
+            if (block == null) {
+                block = takeBlock();
+            }
+            block.clear().limit((int) (end - start) * VALUE_BYTES);
+            long position = start * VALUE_BYTES;
+            try {
+                while (block.hasRemaining()) {
+                    int read = channel.read(block, position);
+                    if (read < 0) {
+                        throw new EOFException("Run file ended before its last value.");
+                    }
+                    position += read;
+                    readCount++;
+                    bytesRead += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read spilled heap values.", e);
+            }
+            return block;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.Main.MaxMinHeap;
+
+/**
+ * Callbacks for the operations done on a MaxMinHeap.
+ *
+ * The listener is called after the operation was applied, so the heap passed to it is already valid.
+ * onError is called instead when an operation fails, right before its exception (EmptyHeapException /
+ * IndexOutOfBoundsException) is thrown to the caller - the heap is left unchanged.
+ * All the methods do nothing by default, implement only the ones you need.
+ *
+ */
+
+public interface HeapEventListener {
+
+    default void onBuild(MaxMinHeap heap) {
+    }
+
+    default void onInsert(MaxMinHeap heap, int insertedValue) {
+    }
+
+    default void onInsertAll(MaxMinHeap heap, int insertedCount) {
+    }
+
+    default void onDelete(MaxMinHeap heap, int deletedIndex, int deletedValue) {
+    }
+
+    default void onExtractMax(MaxMinHeap heap, int extractedValue) {
+    }
+
+    default void onExtractMin(MaxMinHeap heap, int extractedValue) {
+    }
+
+    default void onError(MaxMinHeap heap, RuntimeException error) {
+    }
+}
@@ -0,0 +1,244 @@
+package com.Main.MaxMinHeap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * This class loads the whitespace separated heap input files straight into primitive arrays.
+ *
+ * The file is memory mapped and split into chunks that end on whitespace, so no number is cut in two.
+ * Loading is done in two parallel passes over the chunks:
+ * 1. Count the numbers in every chunk
+ * 2. Parse every chunk into its own slice of a single result array (the offsets are the prefix sums of the counts)
+ * That way the numbers are written exactly once into the array that is later handed to the heap, without copying.
+ *
+ */
+
+public final class HeapFileLoader {
+
+    // Chunks are at least this big so small files are not split into many tiny parallel tasks
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+    // Chunks are mapped one by one, so a chunk must fit into a single MappedByteBuffer
+    private static final long MAX_CHUNK_SIZE = 1L << 28;
+    // Size of the reads used to find the whitespace that ends a chunk
+    private static final int BOUNDARY_PROBE_SIZE = 64;
+
+    private HeapFileLoader() {
+    }
+
+    public static int[] loadInts(String inputFilePath) throws IOException {
+        /*
+        Reads all the int values of a whitespace separated input file, in file order
+
+        @param inputFilePath - path of the input file
+         */
+        MappedByteBuffer[] chunks = mapChunks(Path.of(inputFilePath));
+        long[] offsets = countAndGetOffsets(chunks);
+        long total = offsets[chunks.length];
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IOException("Input file holds " + total + " values, more than an int array can hold.");
+        }
+
+        int[] values = new int[(int) total];
+        IntStream.range(0, chunks.length).parallel()
+                .forEach(chunk -> parseIntChunk(chunks[chunk], values, (int) offsets[chunk]));
+        return values;
+    }
+
+    public static long[] loadLongs(String inputFilePath) throws IOException {
+        /*
+        Reads all the long values of a whitespace separated input file, in file order
+
+        @param inputFilePath - path of the input file
+         */
+        MappedByteBuffer[] chunks = mapChunks(Path.of(inputFilePath));
+        long[] offsets = countAndGetOffsets(chunks);
+        long total = offsets[chunks.length];
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IOException("Input file holds " + total + " values, more than a long array can hold.");
+        }
+
+        long[] values = new long[(int) total];
+        IntStream.range(0, chunks.length).parallel()
+                .forEach(chunk -> parseLongChunk(chunks[chunk], values, (int) offsets[chunk]));
+        return values;
+    }
+
+    private static MappedByteBuffer[] mapChunks(Path inputFile) throws IOException {
+        /*
+        Maps the file as read only chunks, every chunk (but the last) ends right after a whitespace byte
+         */
+        try (FileChannel channel = FileChannel.open(inputFile, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            int parallelism = Runtime.getRuntime().availableProcessors();
+            long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, fileSize / (parallelism * 4L)));
+
+            // First find the chunk boundaries, then map them
+            long[] boundaries = new long[(int) (fileSize / chunkSize) + 2];
+            int chunkCount = 0;
+            long start = 0;
+            while (start < fileSize) {
+                long end = findChunkEnd(channel, Math.min(start + chunkSize, fileSize), fileSize);
+                boundaries[chunkCount++] = start;
+                start = end;
+            }
+            boundaries[chunkCount] = fileSize;
+
+            MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                long chunkStart = boundaries[chunk];
+                long chunkLength = boundaries[chunk + 1] - chunkStart;
+                if (chunkLength > Integer.MAX_VALUE) {
+                    throw new IOException("Input file has a single token longer than " + Integer.MAX_VALUE + " bytes.");
+                }
+                chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkLength);
+            }
+            return chunks;
+        }
+    }
+
+    private static long findChunkEnd(FileChannel channel, long position, long fileSize) throws IOException {
+        /*
+        Moves a nominal chunk end forward until it is right after a whitespace byte (or the end of the file)
+         */
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE_SIZE);
+        while (position < fileSize) {
+            probe.clear();
+            int read = channel.read(probe, position - 1);
+            for (int i = 0; i < read; i++) {
+                if (isWhitespace(probe.get(i))) {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+        return fileSize;
+    }
+
+    private static long[] countAndGetOffsets(MappedByteBuffer[] chunks) {
+        /*
+        Counts the values of every chunk in parallel and returns the offset of every chunk in the result array
+        The last cell holds the total amount of values
+         */
+        long[] counts = new long[chunks.length];
+        IntStream.range(0, chunks.length).parallel().forEach(chunk -> counts[chunk] = countTokens(chunks[chunk]));
+
+        long[] offsets = new long[chunks.length + 1];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            offsets[chunk + 1] = offsets[chunk] + counts[chunk];
+        }
+        return offsets;
+    }
+
+    private static int countTokens(ByteBuffer chunk) {
+        /*
+        Counts the whitespace separated tokens of a chunk
+         */
+        int count = 0;
+        boolean inToken = false;
+        int limit = chunk.limit();
+        for (int i = 0; i < limit; i++) {
+            boolean whitespace = isWhitespace(chunk.get(i));
+            if (!whitespace && !inToken) {
+                count++;
+            }
+            inToken = !whitespace;
+        }
+        return count;
+    }
+
+    private static void parseIntChunk(ByteBuffer chunk, int[] values, int offset) {
+        /*
+        Parses the tokens of a chunk as int values into the values array, starting at the given offset
+         */
+        int limit = chunk.limit();
+        int i = 0;
+        while (i < limit) {
+            byte current = chunk.get(i);
+            if (isWhitespace(current)) {
+                i++;
+                continue;
+            }
+
+            int tokenStart = i;
+            boolean negative = current == '-';
+            if (negative || current == '+') {
+                i++;
+            }
+            // Accumulate negatively so Integer.MIN_VALUE can be parsed as well
+            long value = 0;
+            int digits = 0;
+            while (i < limit && !isWhitespace(current = chunk.get(i))) {
+                if (current < '0' || current > '9' || (value = value * 10 - (current - '0')) < Integer.MIN_VALUE) {
+                    throw badToken(chunk, tokenStart, "int");
+                }
+                digits++;
+                i++;
+            }
+            if (digits == 0 || (!negative && value == Integer.MIN_VALUE)) {
+                throw badToken(chunk, tokenStart, "int");
+            }
+            values[offset++] = (int) (negative ? value : -value);
+        }
+    }
+
+    private static void parseLongChunk(ByteBuffer chunk, long[] values, int offset) {
+        /*
+        Parses the tokens of a chunk as long values into the values array, starting at the given offset
+         */
+        int limit = chunk.limit();
+        int i = 0;
+        while (i < limit) {
+            byte current = chunk.get(i);
+            if (isWhitespace(current)) {
+                i++;
+                continue;
+            }
+
+            int tokenStart = i;
+            boolean negative = current == '-';
+            if (negative || current == '+') {
+                i++;
+            }
+            // Accumulate negatively so Long.MIN_VALUE can be parsed as well
+            long value = 0;
+            int digits = 0;
+            while (i < limit && !isWhitespace(current = chunk.get(i))) {
+                int digit = current - '0';
+                if (digit < 0 || digit > 9 || value < Long.MIN_VALUE / 10 || value * 10 < Long.MIN_VALUE + digit) {
+                    throw badToken(chunk, tokenStart, "long");
+                }
+                value = value * 10 - digit;
+                digits++;
+                i++;
+            }
+            if (digits == 0 || (!negative && value == Long.MIN_VALUE)) {
+                throw badToken(chunk, tokenStart, "long");
+            }
+            values[offset++] = negative ? value : -value;
+        }
+    }
+
+    private static NumberFormatException badToken(ByteBuffer chunk, int tokenStart, String type) {
+        /*
+        Builds the exception reported for a token that is not a valid number of the requested type
+         */
+        StringBuilder token = new StringBuilder();
+        for (int i = tokenStart; i < chunk.limit() && !isWhitespace(chunk.get(i)) && token.length() < 32; i++) {
+            token.append((char) chunk.get(i));
+        }
+        return new NumberFormatException("Input token '" + token + "' is not a valid " + type + " value.");
+    }
+
+    private static boolean isWhitespace(byte b) {
+        /*
+        Same whitespace set as java.util.Scanner uses by default for ASCII input
+         */
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+    }
+}
@@ -0,0 +1,291 @@
+package com.Main.MaxMinHeap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshots of heaps - the already valid heap array is written as is, so restoring a heap only maps the file
+ * and adopts the values, without any heapify pass.
+ *
+ * File format (the header is big endian, the values are in the byte order recorded in the header):
+ * - magic "MMHP" (4 bytes)
+ * - format version (2 bytes)
+ * - element type (1 byte, 1 = int)
+ * - byte order of the values (1 byte, 0 = little endian, 1 = big endian)
+ * - amount of values (8 bytes)
+ * - CRC32C of the values bytes (8 bytes)
+ * - reserved (8 bytes)
+ * - the heap array values
+ *
+ * Snapshots are written to a temporary file that replaces the target file only once it is complete.
+ *
+ */
+
+public final class HeapSnapshot {
+
+    private static final int MAGIC = 0x4D4D4850; // "MMHP"
+    private static final short VERSION = 1;
+    private static final byte ELEMENT_TYPE_INT = 1;
+    private static final byte LITTLE_ENDIAN = 0;
+    private static final byte BIG_ENDIAN = 1;
+    static final int HEADER_BYTES = 32;
+
+    // Values are mapped in chunks of at most this many bytes (a MappedByteBuffer is limited to 2GB)
+    private static final long MAP_CHUNK_BYTES = 1L << 30;
+
+    private HeapSnapshot() {
+    }
+
+    public static void write(MaxMinHeap heap, String snapshotFilePath) throws IOException {
+        /*
+        Writes a snapshot of a heap, the values of the heap are not changed (lazily deleted values are compacted away)
+
+        @param heap - The heap to write
+        @param snapshotFilePath - Path of the snapshot file, replaced if it exists
+         */
+        heap.compact();
+        Path target = Path.of(snapshotFilePath);
+        Path temp = temporaryPathOf(target);
+        long payloadBytes = (long) heap.heapSize * Integer.BYTES;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            CRC32C checksum = new CRC32C();
+            int valueOffset = 0;
+            for (long written = 0; written < payloadBytes; ) {
+                long chunkBytes = Math.min(MAP_CHUNK_BYTES, payloadBytes - written);
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + written, chunkBytes);
+                chunk.order(ByteOrder.nativeOrder());
+                int chunkValues = (int) (chunkBytes / Integer.BYTES);
+                chunk.asIntBuffer().put(heap.heapArray, valueOffset, chunkValues);
+                checksum.update(chunk);
+                written += chunkBytes;
+                valueOffset += chunkValues;
+            }
+            writeHeader(channel, heap.heapSize, ByteOrder.nativeOrder(), checksum.getValue());
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void write(OffHeapMaxMinHeap heap, String snapshotFilePath) throws IOException {
+        /*
+        Writes a snapshot of an off heap heap, the heap is not changed
+
+        @param heap - The heap to write
+        @param snapshotFilePath - Path of the snapshot file, replaced if it exists
+         */
+        heap.ensureOpen();
+        Path target = Path.of(snapshotFilePath);
+        Path temp = temporaryPathOf(target);
+        long pageValues = 1L << heap.pageShift;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            CRC32C checksum = new CRC32C();
+            long position = HEADER_BYTES;
+            for (int page = 0; page < heap.pageCount; page++) {
+                int usedValues = (int) Math.min(pageValues, heap.heapSize - page * pageValues);
+                if (usedValues <= 0) {
+                    break;
+                }
+                ByteBuffer values = heap.pages[page].duplicate().order(heap.pages[page].order());
+                values.clear().limit(usedValues * OffHeapMaxMinHeap.VALUE_BYTES);
+                if (values.order() != ByteOrder.nativeOrder()) {
+                    values = toNativeOrder(values);
+                }
+                checksum.update(values.duplicate());
+                while (values.hasRemaining()) {
+                    position += channel.write(values, position);
+                }
+            }
+            writeHeader(channel, heap.heapSize, ByteOrder.nativeOrder(), checksum.getValue());
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static MaxMinHeap readMaxMinHeap(String snapshotFilePath, boolean verifyChecksum) throws IOException {
+        /*
+        Restores a MaxMinHeap from a snapshot - the values are bulk copied from the mapped file into the heap array,
+        no heapify is done
+
+        @param snapshotFilePath - Path of the snapshot file
+        @param verifyChecksum - Whether to verify the CRC32C of the values (one more pass over the mapped values)
+         */
+        try (FileChannel channel = FileChannel.open(Path.of(snapshotFilePath), StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if (header.size > Integer.MAX_VALUE - 8) {
+                throw new IOException("Snapshot holds " + header.size + " values, too many for a MaxMinHeap (use OffHeapMaxMinHeap).");
+            }
+
+            int[] values = new int[(int) header.size];
+            long payloadBytes = header.size * Integer.BYTES;
+            CRC32C checksum = new CRC32C();
+            int valueOffset = 0;
+            for (long read = 0; read < payloadBytes; ) {
+                long chunkBytes = Math.min(MAP_CHUNK_BYTES, payloadBytes - read);
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + read, chunkBytes);
+                chunk.order(header.byteOrder);
+                if (verifyChecksum) {
+                    checksum.update(chunk.duplicate());
+                }
+                int chunkValues = (int) (chunkBytes / Integer.BYTES);
+                chunk.asIntBuffer().get(values, valueOffset, chunkValues);
+                read += chunkBytes;
+                valueOffset += chunkValues;
+            }
+            if (verifyChecksum && checksum.getValue() != header.checksum) {
+                throw new IOException("Snapshot checksum mismatch, the file is corrupted.");
+            }
+            return new MaxMinHeap(values, values.length);
+        }
+    }
+
+    public static OffHeapMaxMinHeap readOffHeapMaxMinHeap(String snapshotFilePath, boolean verifyChecksum) throws IOException {
+        /*
+        Restores an OffHeapMaxMinHeap from a snapshot - every full page of values is a private (copy on write)
+        mapping of the file that the heap adopts as is, so nothing is copied or heapified and the values are only
+        read from disk when they are touched. Only the last, partial page is copied into a new page.
+        Changes to the restored heap never reach the snapshot file.
+        Private mappings need the file to be opened for writing as well (it is never written), so a snapshot file
+        that is not writable is mapped read only and every page is copied into a new off heap page instead.
+
+        @param snapshotFilePath - Path of the snapshot file
+        @param verifyChecksum - Whether to verify the CRC32C of the values (reads the whole file once)
+         */
+        Path path = Path.of(snapshotFilePath);
+        return readOffHeapMaxMinHeap(path, verifyChecksum, Files.isWritable(path));
+    }
+
+    static OffHeapMaxMinHeap readOffHeapMaxMinHeap(Path path, boolean verifyChecksum, boolean adoptMappedPages) throws IOException {
+        /*
+        Restores an OffHeapMaxMinHeap from a snapshot, see readOffHeapMaxMinHeap(String, boolean)
+
+        @param adoptMappedPages - Whether full pages are adopted as private mappings (the file must be writable) or
+                                  copied out of a read only mapping
+         */
+        int pageShift = OffHeapMaxMinHeap.DEFAULT_PAGE_SHIFT;
+        long pageBytes = (1L << pageShift) * OffHeapMaxMinHeap.VALUE_BYTES;
+        long firstPageBytes = (long) OffHeapMaxMinHeap.FIRST_PAGE_VALUES * OffHeapMaxMinHeap.VALUE_BYTES;
+
+        try (FileChannel channel = adoptMappedPages
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            long payloadBytes = header.size * OffHeapMaxMinHeap.VALUE_BYTES;
+            int pageCount = (int) ((payloadBytes + pageBytes - 1) / pageBytes);
+            ByteBuffer[] pages = new ByteBuffer[pageCount];
+            FileChannel.MapMode mapMode = adoptMappedPages ? FileChannel.MapMode.PRIVATE : FileChannel.MapMode.READ_ONLY;
+            CRC32C checksum = new CRC32C();
+
+            for (int page = 0; page < pageCount; page++) {
+                long pageOffset = page * pageBytes;
+                long usedBytes = Math.min(pageBytes, payloadBytes - pageOffset);
+                MappedByteBuffer mapped = channel.map(mapMode, HEADER_BYTES + pageOffset, usedBytes);
+                if (verifyChecksum) {
+                    checksum.update(mapped.duplicate());
+                }
+                if (adoptMappedPages && usedBytes == pageBytes) {
+                    pages[page] = mapped.order(header.byteOrder);
+                } else {
+                    // Copied pages get at least the first page size, the heap grows the last page on append
+                    ByteBuffer copy = ByteBuffer.allocateDirect((int) Math.min(pageBytes, Math.max(usedBytes, firstPageBytes)));
+                    copy.put(mapped).clear();
+                    pages[page] = copy.order(header.byteOrder);
+                }
+            }
+            if (verifyChecksum && checksum.getValue() != header.checksum) {
+                throw new IOException("Snapshot checksum mismatch, the file is corrupted.");
+            }
+            return new OffHeapMaxMinHeap(pageShift, pages, pageCount, header.size);
+        }
+    }
+
+    private static void writeHeader(FileChannel channel, long size, ByteOrder valuesOrder, long checksum) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.put(ELEMENT_TYPE_INT);
+        header.put(valuesOrder == ByteOrder.LITTLE_ENDIAN ? LITTLE_ENDIAN : BIG_ENDIAN);
+        header.putLong(size);
+        header.putLong(checksum);
+        header.putLong(0L);
+        header.flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+    }
+
+    private static Header readHeader(FileChannel channel) throws IOException {
+        /*
+        Reads and validates the header of a snapshot
+         */
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES);
+        long position = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Not a heap snapshot, file is shorter than the snapshot header.");
+            }
+            position += read;
+        }
+        buffer.flip();
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a heap snapshot, bad magic number.");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported heap snapshot version [" + version + "].");
+        }
+        byte elementType = buffer.get();
+        if (elementType != ELEMENT_TYPE_INT) {
+            throw new IOException("Unsupported heap snapshot element type [" + elementType + "].");
+        }
+        byte byteOrder = buffer.get();
+        if (byteOrder != LITTLE_ENDIAN && byteOrder != BIG_ENDIAN) {
+            throw new IOException("Unsupported heap snapshot byte order [" + byteOrder + "].");
+        }
+
+        Header header = new Header();
+        header.byteOrder = byteOrder == LITTLE_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        header.size = buffer.getLong();
+        header.checksum = buffer.getLong();
+        if (header.size < 0 || header.size > (Long.MAX_VALUE - HEADER_BYTES) / Integer.BYTES
+                || channel.size() != HEADER_BYTES + header.size * Integer.BYTES) {
+            throw new IOException("Heap snapshot size does not match its header, the file is truncated or corrupted.");
+        }
+        return header;
+    }
+
+    private static ByteBuffer toNativeOrder(ByteBuffer values) {
+        /*
+        Copies int values of a buffer in the other byte order into a new native order buffer
+         */
+        IntBuffer source = values.asIntBuffer();
+        ByteBuffer converted = ByteBuffer.allocateDirect(values.remaining()).order(ByteOrder.nativeOrder());
+        converted.asIntBuffer().put(source);
+        return converted;
+    }
+
+    private static Path temporaryPathOf(Path target) {
+        return target.resolveSibling(target.getFileName() + ".tmp");
+    }
+
+    private static final class Header {
+        ByteOrder byteOrder;
+        long size;
+        long checksum;
+    }
+}
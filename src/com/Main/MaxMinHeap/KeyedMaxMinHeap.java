@@ -0,0 +1,577 @@
+package com.Main.MaxMinHeap;
+
+import java.util.Arrays;
+
+/**
+ * A MaxMinHeap of long keys (the priorities) that each carry a long payload (a task id, a file offset...) -
+ * same MaxMinHeap specifications, the heap is ordered by the keys only.
+ *
+ * The entries are stored as a structure of arrays: the keys and the payloads live in two parallel primitive arrays
+ * and every sift step moves the key and its payload together, so no entry object is ever created and the sift loops
+ * only compare within the dense keys array.
+ *
+ * Extract / peek return the entry through a caller owned Entry cursor that is filled in place, so a scheduler loop
+ * that reuses one cursor runs without any allocation:
+ *
+ *     KeyedMaxMinHeap.Entry entry = new KeyedMaxMinHeap.Entry();
+ *     while (!heap.isEmpty()) {
+ *         heap.heapExtractMax(entry);
+ *         run(entry.getValue());
+ *     }
+ *
+ */
+
+public class KeyedMaxMinHeap implements DoubleEndedHeap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    long[] keys;
+    // Payload of the key in the same index of keys
+    long[] values;
+    int heapSize;
+
+    public KeyedMaxMinHeap() {
+        // Constructor to create the object without any input
+        this(DEFAULT_CAPACITY);
+    }
+
+    public KeyedMaxMinHeap(int initialCapacity) {
+        // Constructor with preallocated room for <initialCapacity> entries, so inserts up to that size never allocate
+        int capacity = Math.max(1, initialCapacity);
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.heapSize = 0;
+    }
+
+    public KeyedMaxMinHeap(long[] keys, long[] values) {
+        /*
+        Constructor from given keys and their payloads (the arrays are copied), call buildHeap before using the heap
+        Throws IllegalArgumentException if the arrays are not of the same length
+
+        @param keys - The keys of the entries
+        @param values - The payload of every key, in the same order
+         */
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Got " + keys.length + " keys but " + values.length + " values.");
+        }
+        int capacity = Math.max(keys.length, DEFAULT_CAPACITY);
+        this.keys = Arrays.copyOf(keys, capacity);
+        this.values = Arrays.copyOf(values, capacity);
+        this.heapSize = keys.length;
+    }
+
+    public int size() {
+        // Returns the number of entries currently in the heap
+        return heapSize;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if the heap holds no entries
+        return heapSize == 0;
+    }
+
+    public void buildHeap() {
+        /*
+        This method uses the heapify method and run it on the keys array (moving the payloads along)
+        That way it fixes it to match the accepted criteria as a MaxMinHeap
+         */
+        int size = heapSize;
+        int LastPossibleWithChildrenIndex = size / 2 - 1; // Parent of the last index (-1 for an empty heap)
+        // Heapify all the nodes that can have children
+        for (int index = LastPossibleWithChildrenIndex; index >= 0; index--) {
+            siftDown(index);
+        }
+    }
+
+    public void heapify(int indexToHeapify) {
+        /*
+        This method is the "routine" method of the MaxMinHeap
+        It is used to correct errors assuming that all lower levels work correctly
+        This method is separated to 2 sub-methods based on the level of the given index (Max/Min level depth)
+
+        @param indexToHeapify - literaly the index to run Heapify on
+         */
+
+        // Check if heapify index exist in the array
+        if (!indexExistInHeap(indexToHeapify)) {
+            throw new IndexOutOfBoundsException("Index for Heapify [" + indexToHeapify + "] not in heap of size " + heapSize + ".");
+        }
+        siftDown(indexToHeapify);
+    }
+
+    private void siftDown(int index) {
+        /*
+        Heapify without the bounds check, for the internal callers that only pass existing indices
+         */
+        if (isMinLevel(index)) {
+            heapifyMinLevel(index);
+        } else {
+            heapifyMaxLevel(index);
+        }
+    }
+
+    void heapifyMinLevel(int index) {
+        /*
+        Sifts the entry of a min level index down with a "hole", like LongMaxMinHeap.heapifyMinLevel - the key and the
+        payload of the sifted entry are held aside, and each step moves a key and its payload up with one write each.
+         */
+        long[] heapKeys = keys;
+        long[] heapValues = values;
+        int size = heapSize;
+        int withChildrenBound = size >>> 1; // Indices below it have at least one child
+        int withAllGrandChildrenBound = (size - 3) >> 2; // Indices below it have all four grandchildren
+        long key = heapKeys[index];
+        long value = heapValues[index];
+
+        while (index < withChildrenBound) {
+            int smallestIndex;
+            long smallestKey;
+            if (index < withAllGrandChildrenBound) {
+                int grandChild = 4 * index + 3;
+                smallestIndex = grandChild;
+                smallestKey = heapKeys[grandChild];
+                for (int candidate = grandChild + 1; candidate <= grandChild + 3; candidate++) {
+                    if (heapKeys[candidate] < smallestKey) {
+                        smallestIndex = candidate;
+                        smallestKey = heapKeys[candidate];
+                    }
+                }
+            } else {
+                smallestIndex = getSmallestIndexUpToGrandChild(index);
+                smallestKey = heapKeys[smallestIndex];
+            }
+
+            if (smallestKey >= key) {
+                break;
+            }
+            heapKeys[index] = smallestKey;
+            heapValues[index] = heapValues[smallestIndex];
+            boolean isGrandChild = smallestIndex > 2 * index + 2;
+            index = smallestIndex;
+            if (!isGrandChild) {
+                // min child is a child of i, the entry takes its place and is done
+                break;
+            }
+            // The entry went down to a min level grandchild, switch it with the max level parent if it is bigger
+            int parentIndex = (index - 1) >> 1;
+            if (key > heapKeys[parentIndex]) {
+                long parentKey = heapKeys[parentIndex];
+                long parentValue = heapValues[parentIndex];
+                heapKeys[parentIndex] = key;
+                heapValues[parentIndex] = value;
+                key = parentKey;
+                value = parentValue;
+            }
+        }
+        heapKeys[index] = key;
+        heapValues[index] = value;
+    }
+
+    void heapifyMaxLevel(int index) {
+        /*
+        Sifts the entry of a max level index down, the mirror image of heapifyMinLevel
+         */
+        long[] heapKeys = keys;
+        long[] heapValues = values;
+        int size = heapSize;
+        int withChildrenBound = size >>> 1; // Indices below it have at least one child
+        int withAllGrandChildrenBound = (size - 3) >> 2; // Indices below it have all four grandchildren
+        long key = heapKeys[index];
+        long value = heapValues[index];
+
+        while (index < withChildrenBound) {
+            int largestIndex;
+            long largestKey;
+            if (index < withAllGrandChildrenBound) {
+                int grandChild = 4 * index + 3;
+                largestIndex = grandChild;
+                largestKey = heapKeys[grandChild];
+                for (int candidate = grandChild + 1; candidate <= grandChild + 3; candidate++) {
+                    if (heapKeys[candidate] > largestKey) {
+                        largestIndex = candidate;
+                        largestKey = heapKeys[candidate];
+                    }
+                }
+            } else {
+                largestIndex = getLargestIndexUpToGrandChild(index);
+                largestKey = heapKeys[largestIndex];
+            }
+
+            if (largestKey <= key) {
+                break;
+            }
+            heapKeys[index] = largestKey;
+            heapValues[index] = heapValues[largestIndex];
+            boolean isGrandChild = largestIndex > 2 * index + 2;
+            index = largestIndex;
+            if (!isGrandChild) {
+                // max child is a child of i, the entry takes its place and is done
+                break;
+            }
+            // The entry went down to a max level grandchild, switch it with the min level parent if it is smaller
+            int parentIndex = (index - 1) >> 1;
+            if (key < heapKeys[parentIndex]) {
+                long parentKey = heapKeys[parentIndex];
+                long parentValue = heapValues[parentIndex];
+                heapKeys[parentIndex] = key;
+                heapValues[parentIndex] = value;
+                key = parentKey;
+                value = parentValue;
+            }
+        }
+        heapKeys[index] = key;
+        heapValues[index] = value;
+    }
+
+    public Entry heapExtractMax(Entry entry) {
+        /*
+        Extracts the entry with the maximal key (the root of the heap) into the given cursor and returns the cursor
+        Throws EmptyHeapException if the heap is empty
+
+        @param entry - Cursor that receives the key and the payload of the extracted entry
+         */
+        int maxIndex = getHeapMaxIndex();
+        if (maxIndex == -1) {
+            throw new EmptyHeapException();
+        }
+        return removeAt(maxIndex, entry);
+    }
+
+    public Entry heapExtractMin(Entry entry) {
+        /*
+        Extracts the entry with the minimal key into the given cursor and returns the cursor
+        Throws EmptyHeapException if the heap is empty
+
+        @param entry - Cursor that receives the key and the payload of the extracted entry
+         */
+        int minIndex = getHeapMinIndex();
+        if (minIndex == -1) {
+            throw new EmptyHeapException();
+        }
+        return removeAt(minIndex, entry);
+    }
+
+    public Entry peekMax(Entry entry) {
+        /*
+        Copies the entry with the maximal key into the given cursor without removing it, and returns the cursor
+        Throws EmptyHeapException if the heap is empty
+
+        @param entry - Cursor that receives the key and the payload of the max entry
+         */
+        int maxIndex = getHeapMaxIndex();
+        if (maxIndex == -1) {
+            throw new EmptyHeapException();
+        }
+        return entry.set(keys[maxIndex], values[maxIndex]);
+    }
+
+    public Entry peekMin(Entry entry) {
+        /*
+        Copies the entry with the minimal key into the given cursor without removing it, and returns the cursor
+        Throws EmptyHeapException if the heap is empty
+
+        @param entry - Cursor that receives the key and the payload of the min entry
+         */
+        int minIndex = getHeapMinIndex();
+        if (minIndex == -1) {
+            throw new EmptyHeapException();
+        }
+        return entry.set(keys[minIndex], values[minIndex]);
+    }
+
+    public void heapInsert(long key, long value) {
+        /*
+        Inserts a new entry to the end of the arrays representing the heap
+        afterwards the method fixes the new entry position to match the MaxMinHeap criteria by using bubbleUp method
+
+        @param key - Key (priority) of the new entry
+        @param value - Payload of the new entry
+         */
+        append(key, value);
+        bubbleUp(heapSize - 1);
+    }
+
+    public void heapDelete(int index) {
+        /*
+        Deletes the entry in a certain index by exchanging places with the last entry of the heap and then it removes that entry
+        After that it fixes the heap by running heapify on it
+        Throws IndexOutOfBoundsException if the index is not in the heap
+
+        @param index - Index to delete
+         */
+        if (!indexExistInHeap(index)) {
+            throw new IndexOutOfBoundsException("Requested index [" + index + "] not in heap of size " + heapSize + " (notice that indices start from 0).");
+        }
+        heapSize--;
+        if (index < heapSize) {
+            keys[index] = keys[heapSize];
+            values[index] = values[heapSize];
+            bubbleUp(index);
+            siftDown(index);
+        }
+    }
+
+    private static double log2(int x) {
+        /*
+        This method is used to get the mathematic result of log with base 2 as a double
+
+        @param x - value to evaluate it's log of base 2
+         */
+        return (Math.log(x) / Math.log(2));
+    }
+
+    private Entry removeAt(int index, Entry entry) {
+        /*
+        Removes the entry in a certain index into the cursor by moving the last entry of the heap into its place
+        The moved entry may belong above or below that place, so it is bubbled up and then heapified down
+
+        @param index - Index to remove, must exist in the heap
+        @param entry - Cursor that receives the removed entry
+         */
+        entry.set(keys[index], values[index]);
+        heapSize--;
+        if (index < heapSize) {
+            keys[index] = keys[heapSize];
+            values[index] = values[heapSize];
+            bubbleUp(index);
+            siftDown(index);
+        }
+        return entry;
+    }
+
+    private void append(long key, long value) {
+        /*
+        Adds an entry after the last position of the heap, growing both arrays by half when they are full
+         */
+        if (heapSize == keys.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, heapSize + (heapSize >> 1));
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        keys[heapSize] = key;
+        values[heapSize] = value;
+        heapSize++;
+    }
+
+    private static int getHeapDepthOfIndex(int index) {
+        /*
+        This method returns the depth of a certain index in the heap tree representation
+        The depth is floor(log2(index + 1)), the position of the highest set bit of index + 1
+
+        @param index - Index to check depth of
+         */
+        return 31 - Integer.numberOfLeadingZeros(index + 1);
+    }
+
+    private static boolean isMinLevel(int index) {
+        /*
+        Returns true if the index is on a min level (odd depth) - the depth is odd exactly when index + 1 has an even
+        amount of leading zero bits
+         */
+        return (Integer.numberOfLeadingZeros(index + 1) & 1) == 0;
+    }
+
+    private int getSmallestIndexUpToGrandChild(int parentIndex) {
+        /*
+        This method returns the index of the descendant with the minimal key up to a grand child for a given parent node (2 depths)
+        Used for the nodes near the bottom of the heap, where not all the children / grandchildren exist.
+        The parent must have at least one child.
+         */
+        long[] heapKeys = keys;
+        int size = heapSize;
+        int leftChildIndex = 2 * parentIndex + 1;
+        int smallestIndex = leftChildIndex;
+        long smallestKey = heapKeys[leftChildIndex];
+
+        int rightChildIndex = leftChildIndex + 1;
+        if (rightChildIndex < size && heapKeys[rightChildIndex] < smallestKey) {
+            smallestIndex = rightChildIndex;
+            smallestKey = heapKeys[rightChildIndex];
+        }
+        // The grandchildren exist only if the left child has children
+        if (leftChildIndex < (size >>> 1)) {
+            int grandChildrenEnd = Math.min(size, 2 * leftChildIndex + 5);
+            for (int grandChild = 2 * leftChildIndex + 1; grandChild < grandChildrenEnd; grandChild++) {
+                if (heapKeys[grandChild] < smallestKey) {
+                    smallestIndex = grandChild;
+                    smallestKey = heapKeys[grandChild];
+                }
+            }
+        }
+        return smallestIndex;
+    }
+
+    private int getLargestIndexUpToGrandChild(int parentIndex) {
+        /*
+        This method returns the index of the descendant with the maximal key up to a grand child for a given parent node (2 depths)
+        Used for the nodes near the bottom of the heap, where not all the children / grandchildren exist.
+        The parent must have at least one child.
+         */
+        long[] heapKeys = keys;
+        int size = heapSize;
+        int leftChildIndex = 2 * parentIndex + 1;
+        int largestIndex = leftChildIndex;
+        long largestKey = heapKeys[leftChildIndex];
+
+        int rightChildIndex = leftChildIndex + 1;
+        if (rightChildIndex < size && heapKeys[rightChildIndex] > largestKey) {
+            largestIndex = rightChildIndex;
+            largestKey = heapKeys[rightChildIndex];
+        }
+        // The grandchildren exist only if the left child has children
+        if (leftChildIndex < (size >>> 1)) {
+            int grandChildrenEnd = Math.min(size, 2 * leftChildIndex + 5);
+            for (int grandChild = 2 * leftChildIndex + 1; grandChild < grandChildrenEnd; grandChild++) {
+                if (heapKeys[grandChild] > largestKey) {
+                    largestIndex = grandChild;
+                    largestKey = heapKeys[grandChild];
+                }
+            }
+        }
+        return largestIndex;
+    }
+
+    private boolean indexExistInHeap(int index) {
+        /*
+         returns true if index exists in the arrays representing the heap (value between 0 and heap size)
+         */
+        return index >= 0 & index < heapSize;
+    }
+
+    private int getHeapMaxIndex() {
+        /*
+        returns the index of the entry with Maximum key in the heap (root of course in the MaxMinHeap)
+        If the heap is empty -1 is returned
+         */
+        if (heapSize > 0) {
+            return 0;
+        }
+        return -1;
+    }
+
+    private int getHeapMinIndex() {
+        /*
+        returns the index of the entry with Minimum key in the heap (1st / 2nd depth layer only needs to be checked)
+        If the heap is empty -1 is returned
+         */
+        switch (heapSize) {
+            case 0:
+                return -1;
+            case 1:
+                return 0;
+            case 2:
+                return 1;
+            default:
+                return keys[1] <= keys[2] ? 1 : 2;
+        }
+    }
+
+    private void bubbleUp(int index) {
+        /*
+        This method is responsible for moving a certain entry up if it is not positioned correctly to match the
+        MaxMinHeap criteria, like LongMaxMinHeap.bubbleUp - the passed entries move down into a "hole" and the
+        bubbled key and payload are written once, at their final place.
+
+        @param index - Index to bubble up
+         */
+        if (index == 0) {
+            return;
+        }
+        long[] heapKeys = keys;
+        long[] heapValues = values;
+        long key = heapKeys[index];
+        long value = heapValues[index];
+        boolean minLevel = isMinLevel(index);
+
+        // A min level key bigger than its max level parent (or the opposite) switches with the parent first
+        int parentIndex = (index - 1) >> 1;
+        if (minLevel ? key > heapKeys[parentIndex] : key < heapKeys[parentIndex]) {
+            heapKeys[index] = heapKeys[parentIndex];
+            heapValues[index] = heapValues[parentIndex];
+            index = parentIndex;
+            minLevel = !minLevel;
+        }
+
+        // Then it climbs the levels of its kind, the grandparent of index is (index - 3) / 4
+        if (minLevel) {
+            while (index > 2) {
+                int grandParentIndex = (index - 3) >> 2;
+                if (key >= heapKeys[grandParentIndex]) {
+                    break;
+                }
+                heapKeys[index] = heapKeys[grandParentIndex];
+                heapValues[index] = heapValues[grandParentIndex];
+                index = grandParentIndex;
+            }
+        } else {
+            while (index > 2) {
+                int grandParentIndex = (index - 3) >> 2;
+                if (key <= heapKeys[grandParentIndex]) {
+                    break;
+                }
+                heapKeys[index] = heapKeys[grandParentIndex];
+                heapValues[index] = heapValues[grandParentIndex];
+                index = grandParentIndex;
+            }
+        }
+        heapKeys[index] = key;
+        heapValues[index] = value;
+    }
+
+    public void printHeap() {
+        /*
+        Prints the heap to the user, one time as the raw arrays, second time as a tree of key:payload showing each layer
+         */
+        int arraySize = heapSize;
+        int deepestLevel = getHeapDepthOfIndex(arraySize - 1);
+        double layerLog2;
+        System.out.println("\nArray representation:");
+        System.out.println("Keys:   " + Arrays.toString(Arrays.copyOf(keys, heapSize)));
+        System.out.println("Values: " + Arrays.toString(Arrays.copyOf(values, heapSize)));
+
+        System.out.print("\nTree layers representation:");
+
+        for (int i = 0; i < arraySize; i++) {
+
+            layerLog2 = log2(i + 1);
+
+            if (layerLog2 == (int) layerLog2) {
+                if (getHeapDepthOfIndex(i) % 2 == 0) {
+                    System.out.print("\nMax: ");
+                } else {
+                    System.out.print("\nMin: ");
+                }
+
+                for (int j = 0; j < (deepestLevel - getHeapDepthOfIndex(i)); j++) {
+                    System.out.print("  ");
+                }
+
+            }
+            System.out.print(keys[i] + ":" + values[i] + "  ");
+        }
+        System.out.println();
+    }
+
+    /**
+     * A reusable cursor that receives the key and the payload of an extracted / peeked entry.
+     * The heap only writes into it, one cursor can be reused for any amount of calls.
+     */
+    public static final class Entry {
+        private long key;
+        private long value;
+
+        public long getKey() {
+            return key;
+        }
+
+        public long getValue() {
+            return value;
+        }
+
+        Entry set(long key, long value) {
+            this.key = key;
+            this.value = value;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package com.Main.MaxMinHeap;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The long sibling of MaxMinHeap - same MaxMinHeap specifications and the same public methods,
+ * but the heap is stored in a growable primitive long array.
+ *
+ * Indices are still int, only the stored values are long.
+ *
+ */
+
+public class LongMaxMinHeap implements DoubleEndedHeap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    long[] heapArray;
+    int heapSize;
+
+    public LongMaxMinHeap() {
+        // Constructor to create the object without any input
+        this.heapArray = new long[DEFAULT_CAPACITY];
+        this.heapSize = 0;
+    }
+
+    public LongMaxMinHeap(long[] arr) {
+        // Constructor from a given primitive array (the array is copied)
+        this.heapArray = Arrays.copyOf(arr, Math.max(arr.length, DEFAULT_CAPACITY));
+        this.heapSize = arr.length;
+    }
+
+    public LongMaxMinHeap(String inputFilePath) throws IOException {
+        // Constructor that reads the input array from a file (memory mapped and parsed in parallel, see HeapFileLoader)
+        // The parsed array becomes the heap array as is, no copy is made before buildHeap
+        this.heapArray = HeapFileLoader.loadLongs(inputFilePath);
+        this.heapSize = heapArray.length;
+    }
+
+    public int size() {
+        // Returns the number of values currently in the heap
+        return heapSize;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if the heap holds no values
+        return heapSize == 0;
+    }
+
+    public void buildHeap() {
+        /*
+        This method uses the heapify method and run it on the heapArray attribute
+        That way it fixes it to match the accepted criteria as a MaxMinHeap
+         */
+        int size = heapSize;
+        int LastPossibleWithChildrenIndex = size / 2 - 1; // Parent of the last index (-1 for an empty heap)
+        // Heapify all the nodes that can have children
+        for (int index = LastPossibleWithChildrenIndex; index >= 0; index--) {
+            siftDown(index);
+        }
+    }
+
+    public void heapify(int indexToHeapify) {
+        /*
+        This method is the "routine" method of the MaxMinHeap
+        It is used to correct errors assuming that all lower levels work correctly
+        This method is separated to 2 sub-methods based on the level of the given index (Max/Min level depth)
+
+        @param indexToHeapify - literaly the index to run Heapify on
+         */
+
+        // Check if heapify index exist in the array
+        if (!indexExistInHeap(indexToHeapify)) {
+            throw new IndexOutOfBoundsException("Index for Heapify [" + indexToHeapify + "] not in heap of size " + heapSize + ".");
+        }
+        siftDown(indexToHeapify);
+    }
+
+    private void siftDown(int index) {
+        /*
+        Heapify without the bounds check, for the internal callers that only pass existing indices
+         */
+        if (isMinLevel(index)) {
+            heapifyMinLevel(index);
+        } else {
+            heapifyMaxLevel(index);
+        }
+    }
+
+    void heapifyMinLevel(int index) {
+        /*
+        Sifts the value of a min level index down, iteratively and with a "hole" - the sifted value is held aside and
+        every smaller descendant moves up into the hole with a single write, instead of a swap per step.
+        A node whose four grandchildren all exist takes the unchecked fast path: its children are max level nodes that
+        are not smaller than their own children, so only the grandchildren can hold its smallest descendant.
+         */
+        long[] heap = heapArray;
+        int size = heapSize;
+        int withChildrenBound = size >>> 1; // Indices below it have at least one child
+        int withAllGrandChildrenBound = (size - 3) >> 2; // Indices below it have all four grandchildren
+        long value = heap[index];
+
+        while (index < withChildrenBound) {
+            int smallestIndex;
+            long smallestValue;
+            if (index < withAllGrandChildrenBound) {
+                int grandChild = 4 * index + 3;
+                smallestIndex = grandChild;
+                smallestValue = heap[grandChild];
+                for (int candidate = grandChild + 1; candidate <= grandChild + 3; candidate++) {
+                    if (heap[candidate] < smallestValue) {
+                        smallestIndex = candidate;
+                        smallestValue = heap[candidate];
+                    }
+                }
+            } else {
+                smallestIndex = getSmallestIndexUpToGrandChild(index);
+                smallestValue = heap[smallestIndex];
+            }
+
+            if (smallestValue >= value) {
+                break;
+            }
+            heap[index] = smallestValue;
+            boolean isGrandChild = smallestIndex > 2 * index + 2;
+            index = smallestIndex;
+            if (!isGrandChild) {
+                // min child is a child of i, the value takes its place and is done
+                break;
+            }
+            // The value went down to a min level grandchild, switch it with the max level parent if it is bigger
+            int parentIndex = (index - 1) >> 1;
+            if (value > heap[parentIndex]) {
+                long parentValue = heap[parentIndex];
+                heap[parentIndex] = value;
+                value = parentValue;
+            }
+        }
+        heap[index] = value;
+    }
+
+    void heapifyMaxLevel(int index) {
+        /*
+        Sifts the value of a max level index down, the mirror image of heapifyMinLevel
+         */
+        long[] heap = heapArray;
+        int size = heapSize;
+        int withChildrenBound = size >>> 1; // Indices below it have at least one child
+        int withAllGrandChildrenBound = (size - 3) >> 2; // Indices below it have all four grandchildren
+        long value = heap[index];
+
+        while (index < withChildrenBound) {
+            int largestIndex;
+            long largestValue;
+            if (index < withAllGrandChildrenBound) {
+                int grandChild = 4 * index + 3;
+                largestIndex = grandChild;
+                largestValue = heap[grandChild];
+                for (int candidate = grandChild + 1; candidate <= grandChild + 3; candidate++) {
+                    if (heap[candidate] > largestValue) {
+                        largestIndex = candidate;
+                        largestValue = heap[candidate];
+                    }
+                }
+            } else {
+                largestIndex = getLargestIndexUpToGrandChild(index);
+                largestValue = heap[largestIndex];
+            }
+
+            if (largestValue <= value) {
+                break;
+            }
+            heap[index] = largestValue;
+            boolean isGrandChild = largestIndex > 2 * index + 2;
+            index = largestIndex;
+            if (!isGrandChild) {
+                // max child is a child of i, the value takes its place and is done
+                break;
+            }
+            // The value went down to a max level grandchild, switch it with the min level parent if it is smaller
+            int parentIndex = (index - 1) >> 1;
+            if (value < heap[parentIndex]) {
+                long parentValue = heap[parentIndex];
+                heap[parentIndex] = value;
+                value = parentValue;
+            }
+        }
+        heap[index] = value;
+    }
+
+    public long heapExtractMax() {
+        /*
+        This method extracts and returns the maximal value found in the heap (the root of the heap)
+        It is done by exchanging places with the last index of the heap and then running heapify on the heap root
+        Throws EmptyHeapException if the heap is empty
+         */
+        int maxIndex = getHeapMaxIndex();
+        if (maxIndex == -1) {
+            throw new EmptyHeapException();
+        }
+
+        long max = removeAt(maxIndex);
+        return max;
+    }
+
+    public long heapExtractMin() {
+        /*
+        This method extracts and returns the minimal value found in the heap
+        It is done by exchanging places with the last index of the heap and then running heapify on the original index
+        Throws EmptyHeapException if the heap is empty
+         */
+        int minIndex = getHeapMinIndex();
+        if (minIndex == -1) {
+            throw new EmptyHeapException();
+        }
+
+        long min = removeAt(minIndex);
+        return min;
+    }
+
+    public void heapInsert(long newValue) {
+        /*
+        Inserts a new value to the end of the array representing the heap
+        afterwards the method fixes the new value position to match the MaxMinHeap criteria by using bubbleUp method
+
+        @param newValue - New value to be inserted to the heap
+         */
+
+        append(newValue);
+        int newValueIndex = getLastHeapIndex();
+        bubbleUp(newValueIndex); // Uses bubbleUp method to fix the position of the new inserted value
+    }
+
+    public void heapDelete(int index) {
+        /*
+        Deletes a certain value from the heap by exchanging places with the last value of the heap and then it removes that value
+        After that it fixes the heap by running heapify on it
+        Throws IndexOutOfBoundsException if the index is not in the heap
+
+        @param index - Index to delete
+         */
+        if (!indexExistInHeap(index)) {
+            throw new IndexOutOfBoundsException("Requested index [" + index + "] not in heap of size " + heapSize + " (notice that indices start from 0).");
+        }
+
+        removeAt(index);
+    }
+
+    private static double log2(int x) {
+        /*
+        This method is used to get the mathematic result of log with base 2 as a double
+
+        @param x - value to evaluate it's log of base 2
+         */
+        return (Math.log(x) / Math.log(2));
+    }
+
+    private int getLastHeapIndex() {
+        /* 
+        Returns the index of the last position in the array with value.
+         */
+        return heapSize - 1;
+    }
+
+    private long removeAt(int index) {
+        /*
+        Removes the value in a certain index by moving the last value of the heap into its place
+        The moved value may belong above or below that place, so it is bubbled up and then heapified down
+
+        @param index - Index to remove, must exist in the heap
+         */
+        long removedValue = heapArray[index];
+        heapSize--;
+        if (index < heapSize) {
+            heapArray[index] = heapArray[heapSize];
+            bubbleUp(index);
+            siftDown(index);
+        }
+        return removedValue;
+    }
+
+    private void append(long value) {
+        /*
+        Adds a value after the last position of the heap, growing the backing array by half when it is full
+         */
+        if (heapSize == heapArray.length) {
+            heapArray = Arrays.copyOf(heapArray, Math.max(DEFAULT_CAPACITY, heapSize + (heapSize >> 1)));
+        }
+        heapArray[heapSize++] = value;
+    }
+
+    private static int getHeapDepthOfIndex(int index) {
+        /*
+        This method returns the depth of a certain index in the heap tree representation
+        Notice that indices in Java start from 0 so the given index value is increased by 1
+        The depth is floor(log2(index + 1)), the position of the highest set bit of index + 1
+
+        @param index - Index to check depth of
+         */
+        return 31 - Integer.numberOfLeadingZeros(index + 1);
+    }
+
+    private static boolean isMinLevel(int index) {
+        /*
+        Returns true if the index is on a min level (odd depth) - the depth is odd exactly when index + 1 has an even
+        amount of leading zero bits
+         */
+        return (Integer.numberOfLeadingZeros(index + 1) & 1) == 0;
+    }
+
+    private int getSmallestIndexUpToGrandChild(int parentIndex) {
+        /*
+        This method returns the index of the descendant with the minimal value up to a grand child for a given parent node (2 depths)
+        Used for the nodes near the bottom of the heap, where not all the children / grandchildren exist - the children
+        and the grandchildren are each a contiguous range of indices, so each range is cut at the heap size once.
+        The parent must have at least one child.
+         */
+        long[] heap = heapArray;
+        int size = heapSize;
+        int leftChildIndex = 2 * parentIndex + 1;
+        int smallestIndex = leftChildIndex;
+        long smallestValue = heap[leftChildIndex];
+
+        int rightChildIndex = leftChildIndex + 1;
+        if (rightChildIndex < size && heap[rightChildIndex] < smallestValue) {
+            smallestIndex = rightChildIndex;
+            smallestValue = heap[rightChildIndex];
+        }
+        // The grandchildren exist only if the left child has children
+        if (leftChildIndex < (size >>> 1)) {
+            int grandChildrenEnd = Math.min(size, 2 * leftChildIndex + 5);
+            for (int grandChild = 2 * leftChildIndex + 1; grandChild < grandChildrenEnd; grandChild++) {
+                if (heap[grandChild] < smallestValue) {
+                    smallestIndex = grandChild;
+                    smallestValue = heap[grandChild];
+                }
+            }
+        }
+        return smallestIndex;
+    }
+
+    private int getLargestIndexUpToGrandChild(int parentIndex) {
+        /*
+        This method returns the index of the descendant with the maximal value up to a grand child for a given parent node (2 depths)
+        Used for the nodes near the bottom of the heap, where not all the children / grandchildren exist - the children
+        and the grandchildren are each a contiguous range of indices, so each range is cut at the heap size once.
+        The parent must have at least one child.
+         */
+        long[] heap = heapArray;
+        int size = heapSize;
+        int leftChildIndex = 2 * parentIndex + 1;
+        int largestIndex = leftChildIndex;
+        long largestValue = heap[leftChildIndex];
+
+        int rightChildIndex = leftChildIndex + 1;
+        if (rightChildIndex < size && heap[rightChildIndex] > largestValue) {
+            largestIndex = rightChildIndex;
+            largestValue = heap[rightChildIndex];
+        }
+        // The grandchildren exist only if the left child has children
+        if (leftChildIndex < (size >>> 1)) {
+            int grandChildrenEnd = Math.min(size, 2 * leftChildIndex + 5);
+            for (int grandChild = 2 * leftChildIndex + 1; grandChild < grandChildrenEnd; grandChild++) {
+                if (heap[grandChild] > largestValue) {
+                    largestIndex = grandChild;
+                    largestValue = heap[grandChild];
+                }
+            }
+        }
+        return largestIndex;
+    }
+
+    private boolean indexExistInHeap(int index) {
+        /*
+         returns true if index exists in the array representing the heap (value between 0 and heap array size)
+         */
+        return index >= 0 & index < heapSize;
+    }
+
+    private int getLeftChildIndex(int parentIndex) {
+        /*
+        returns the left child index of a node if it exists in the array that represents the heap (returns -1 if not)
+         */
+        if (parentIndex < 0 || parentIndex >= (heapSize >>> 1)) {
+            return -1;
+        }
+        return 2 * parentIndex + 1;
+    }
+
+    private int getRightChildIndex(int parentIndex) {
+        /*
+        returns the right child index of a node if it exists in the array that represents the heap (returns -1 if not)
+         */
+        if (parentIndex < 0 || parentIndex >= ((heapSize - 1) >> 1)) {
+            return -1;
+        }
+        return 2 * parentIndex + 2;
+    }
+
+    private int getHeapMaxIndex() {
+        /*
+        returns the index of the node with Maximum value in the heap (root of course in the MaxMinHeap)
+        If the heap is empty -1 is returned
+         */
+        if (heapSize > 0) {
+            return 0;
+        }
+        return -1;
+    }
+
+    private int getHeapMinIndex() {
+        /*
+        returns the index of the node with Minimum value in the heap (1st / 2nd depth layer only needs to be checked)
+        If the heap is empty -1 is returned
+         */
+
+        long min = Long.MIN_VALUE;
+        int minIndex = -1;
+
+        // We check the first, second, third indices in case the heap is very small
+        if (indexExistInHeap(0)) {
+            min = heapArray[0];
+            minIndex = 0;
+
+            // Check left Child
+            if (indexExistInHeap(1)) {
+                if (heapArray[1] < min) {
+                    min = heapArray[1];
+                    minIndex = 1;
+                }
+            }
+
+            // Check right Child
+            if (indexExistInHeap(2)) {
+                if (heapArray[2] < min) {
+                    minIndex = 2;
+                }
+            }
+        }
+        return minIndex;
+    }
+
+    private void bubbleUp(int index) {
+        /*
+        This method is responsible for moving a certain value up if it is not positioned correctly to match the
+        MaxMinHeap criteria.
+        If the value belongs on the other kind of level it first moves to its parent, then it climbs grandparent by
+        grandparent along its own kind of levels. The loop moves the passed values down into a "hole" and writes
+        the bubbled value once, at its final place.
+
+        @param index - Index to bubble up
+         */
+        if (index == 0) {
+            return;
+        }
+        long[] heap = heapArray;
+        long value = heap[index];
+        boolean minLevel = isMinLevel(index);
+
+        // A min level value bigger than its max level parent (or the opposite) switches with the parent first
+        int parentIndex = (index - 1) >> 1;
+        if (minLevel ? value > heap[parentIndex] : value < heap[parentIndex]) {
+            heap[index] = heap[parentIndex];
+            index = parentIndex;
+            minLevel = !minLevel;
+        }
+
+        // Then it climbs the levels of its kind, the grandparent of index is (index - 3) / 4
+        if (minLevel) {
+            while (index > 2) {
+                int grandParentIndex = (index - 3) >> 2;
+                if (value >= heap[grandParentIndex]) {
+                    break;
+                }
+                heap[index] = heap[grandParentIndex];
+                index = grandParentIndex;
+            }
+        } else {
+            while (index > 2) {
+                int grandParentIndex = (index - 3) >> 2;
+                if (value <= heap[grandParentIndex]) {
+                    break;
+                }
+                heap[index] = heap[grandParentIndex];
+                index = grandParentIndex;
+            }
+        }
+        heap[index] = value;
+    }
+
+    public void printHeap() {
+        /*
+        Prints the heap to the user, one time as the raw array, second time as a tree showing each layer
+         */
+        int arraySize = heapSize;
+        int deepestLevel = getHeapDepthOfIndex(arraySize - 1);
+        double layerLog2;
+        System.out.println("\nArray representation:");
+        System.out.println(Arrays.toString(Arrays.copyOf(heapArray, heapSize)));
+
+        System.out.print("\nTree layers representation:");
+
+        for (int i = 0; i < arraySize; i++) {
+
+            layerLog2 = log2(i + 1);
+
+            if (layerLog2 == (int) layerLog2) {
+                if (getHeapDepthOfIndex(i) % 2 == 0) {
+                    System.out.print("\nMax: ");
+                } else {
+                    System.out.print("\nMin: ");
+                }
+
+                for (int j = 0; j < (deepestLevel - getHeapDepthOfIndex(i)); j++) {
+                    System.out.print("  ");
+                }
+
+            }
+            System.out.print(heapArray[i] + "  ");
+        }
+        System.out.println();
+    }
+}
@@ -1,9 +1,14 @@
 package com.Main.MaxMinHeap;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 /**
  * This class is Implementing the required Data Structure by the OpenUniversity described as MaxMinHeap
@@ -20,30 +25,165 @@ import java.util.Scanner;
  * - heapInsert (HEAP-INSERT)
  * - heapDelete (HEAP-DELETE)
  *
+ * The heap is stored in a growable primitive int array so no operation boxes its values.
+ * The heap operations never print, callers that want to follow them can set a HeapEventListener.
+ * Readers on other threads get immutable views through snapshot() (see MaxMinHeapSnapshot).
+ * See LongMaxMinHeap and DoubleMaxMinHeap for the long / double siblings.
+ *
  */
 
-public class MaxMinHeap {
-
-    ArrayList<Integer> heapArray;
+public class MaxMinHeap implements DoubleEndedHeap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    // Flag of the peekTopK / peekBottomK frontier entries that only stand for their own value
+    private static final long PLAIN_VALUE_FLAG = 1L << 31;
+    // Heaps smaller than this are always built on the calling thread by buildHeapParallel
+    static final int PARALLEL_BUILD_THRESHOLD = 1 << 18;
+    // Subtrees of up to 2^PARALLEL_SUBTREE_LEVELS - 1 values are built by a single fork join task
+    static final int PARALLEL_SUBTREE_LEVELS = 15;
+    // Snapshots share the heap array chunks of 2^SNAPSHOT_CHUNK_SHIFT values that were not written since the last one
+    static final int SNAPSHOT_CHUNK_SHIFT = 10;
+
+    int[] heapArray;
+    int heapSize;
+    // True for a heap created by withFixedCapacity, its heap array is never grown
+    boolean fixedCapacity;
+    HeapEventListener eventListener;
+    // Reusable frontier of peekTopK / peekBottomK, grown on demand
+    long[] peekFrontier;
+    // Lazy deletion (see setLazyDeletion) - one bit per heap array cell, set for the cells of deleted values
+    long[] tombstones;
+    int tombstoneCount;
+    double compactionRatio;
+    // Snapshots (see snapshot) - the last snapshot taken and one bit per chunk written since then (null before the first)
+    MaxMinHeapSnapshot lastSnapshot;
+    long[] snapshotDirtyChunks;
 
     public MaxMinHeap() {
         // Constructor to create the object without any input
-        this.heapArray = new ArrayList<>();
+        this.heapArray = new int[DEFAULT_CAPACITY];
+        this.heapSize = 0;
     }
 
     public MaxMinHeap(ArrayList<Integer> arr) {
         // Constructor from a given array
-        this.heapArray = (ArrayList<Integer>) arr.clone();
+        this.heapArray = new int[Math.max(arr.size(), DEFAULT_CAPACITY)];
+        this.heapSize = arr.size();
+        for (int i = 0; i < heapSize; i++) {
+            this.heapArray[i] = arr.get(i);
+        }
+    }
+
+    public MaxMinHeap(int[] arr) {
+        // Constructor from a given primitive array (the array is copied)
+        this.heapArray = Arrays.copyOf(arr, Math.max(arr.length, DEFAULT_CAPACITY));
+        this.heapSize = arr.length;
+    }
+
+    MaxMinHeap(int[] heapArray, int heapSize) {
+        // Constructor that takes ownership of an array that already holds a valid heap (no copy, no heapify)
+        this.heapArray = heapArray;
+        this.heapSize = heapSize;
     }
 
     public MaxMinHeap(String inputFilePath) throws IOException {
-        // Constructor that reads the input array from a file
-        this.heapArray = new ArrayList<>();
+        // Constructor that reads the input array from a file (memory mapped and parsed in parallel, see HeapFileLoader)
+        // The parsed array becomes the heap array as is, no copy is made before buildHeap
+        this.heapArray = HeapFileLoader.loadInts(inputFilePath);
+        this.heapSize = heapArray.length;
+    }
+
+    public static MaxMinHeap withFixedCapacity(int capacity) {
+        /*
+        Creates an empty heap that holds at most <capacity> values in a preallocated array that is never grown
+        Meant for keeping the best values of a stream with offerKeepLargest / offerKeepSmallest,
+        heapInsert / insertAll on a full fixed capacity heap throw IllegalStateException
+
+        @param capacity - Maximal amount of values in the heap
+         */
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Fixed capacity must be positive, got [" + capacity + "].");
+        }
+        MaxMinHeap heap = new MaxMinHeap();
+        heap.heapArray = new int[capacity];
+        heap.fixedCapacity = true;
+        return heap;
+    }
 
-        Scanner scanner = new Scanner(new File(inputFilePath));
-        while (scanner.hasNextInt()) {
-            this.heapArray.add(scanner.nextInt());
+    public void setEventListener(HeapEventListener eventListener) {
+        /*
+        Sets the listener that is notified after every build / insert / delete / extract (null for no listener)
+        The heap itself never prints, use ConsoleHeapEventListener to get the verbose console output
+         */
+        this.eventListener = eventListener;
+    }
+
+    public void setLazyDeletion(double compactionRatio) {
+        /*
+        Turns lazy deletion on (compactionRatio > 0) or off (compactionRatio == 0)
+        With lazy deletion heapDelete only marks the cell of the deleted value in a bitset (a tombstone) - O(1).
+        The deleted values stay in the heap array, keep their place in the heap order, and are moved along with their
+        tombstones by the sifts. A deleted value is dropped for real once a change of the heap brings it to one of the
+        three top cells (where the max / min are), and all of them are dropped by a single compaction pass
+        (filter + buildHeap) once the tombstones pass <compactionRatio> of the heap array, so bursts of deletes cost
+        O(1) each with an amortized O(1) cleanup.
+        Only the changing operations drop or compact deleted values - peeks, iterators, peekTopK / peekBottomK and
+        printHeap skip them and leave the heap array as it is.
+        Turning lazy deletion off compacts the heap first.
+
+        @param compactionRatio - Share of tombstones in the heap array (0 to 1] that triggers a compaction, 0 to turn off
+         */
+        if (!(compactionRatio >= 0 && compactionRatio <= 1)) {
+            throw new IllegalArgumentException("Compaction ratio must be in [0, 1], got [" + compactionRatio + "].");
         }
+        if (compactionRatio == 0) {
+            compact();
+            tombstones = null;
+        } else if (tombstones == null) {
+            tombstones = new long[(heapArray.length + 63) >>> 6];
+        }
+        this.compactionRatio = compactionRatio;
+    }
+
+    public void compact() {
+        /*
+        Drops all the lazily deleted values in one pass and rebuilds the heap from the remaining ones - O(n)
+         */
+        if (tombstoneCount == 0) {
+            return;
+        }
+        long[] dead = tombstones;
+        int liveCount = 0;
+        for (int index = 0; index < heapSize; index++) {
+            if (!isTombstone(dead, index)) {
+                heapArray[liveCount++] = heapArray[index];
+            }
+        }
+        Arrays.fill(dead, 0L);
+        tombstoneCount = 0;
+        heapSize = liveCount;
+        heapifyAllParents();
+    }
+
+    public int getTombstoneCount() {
+        // Returns the amount of lazily deleted values that are still in the heap array
+        return tombstoneCount;
+    }
+
+    public boolean isFull() {
+        // Returns true if a fixed capacity heap holds as many values as its capacity (always false for a growing heap)
+        // Lazily deleted values still take their cells until the heap is compacted
+        return fixedCapacity && heapSize == heapArray.length;
+    }
+
+    public int size() {
+        // Returns the number of values currently in the heap (lazily deleted values are not counted)
+        return heapSize - tombstoneCount;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if the heap holds no values
+        return heapSize == tombstoneCount;
     }
 
     public void buildHeap() {
@@ -51,13 +191,74 @@ public class MaxMinHeap {
         This method uses the heapify method and run it on the heapArray attribute
         That way it fixes it to match the accepted criteria as a MaxMinHeap
          */
-        int size = heapArray.size();
-        int LastPossibleWithChildrenIndex = (int) (Math.floor((double) size / 2));
+        heapifyAllParents();
+        if (eventListener != null) {
+            eventListener.onBuild(this);
+        }
+    }
+
+    public void buildHeapParallel() {
+        /*
+        Same result as buildHeap, built by the common ForkJoinPool (see buildHeapParallel(ForkJoinPool))
+         */
+        buildHeapParallel(ForkJoinPool.commonPool());
+    }
+
+    public void buildHeapParallel(ForkJoinPool pool) {
+        /*
+        Same result as buildHeap, with the independent subtrees built concurrently
+        heapify of a node only touches its own subtree, so the two subtrees under a node can be built in parallel and
+        the node is heapified once both are done. Subtrees of up to 2^PARALLEL_SUBTREE_LEVELS - 1 values are built
+        bottom up by a single task, the levels above them are finished by the joining tasks, up to the root.
+        Heaps below PARALLEL_BUILD_THRESHOLD values (or a pool of a single thread) are built serially by buildHeap,
+        and so are heaps with lazily deleted values (the tombstone bits of different subtrees share words).
+
+        @param pool - Pool that runs the subtree tasks
+         */
+        if (heapSize < PARALLEL_BUILD_THRESHOLD || pool.getParallelism() == 1 || tombstoneCount > 0) {
+            buildHeap();
+            return;
+        }
+        markAllChunksDirty();
+        pool.invoke(new BuildSubtreeTask(0, getHeapDepthOfIndex(heapSize - 1)));
+        if (eventListener != null) {
+            eventListener.onBuild(this);
+        }
+    }
+
+    private void heapifySubtree(int root, int height) {
+        /*
+        Runs heapify bottom up on every node of a subtree that has children
+        The nodes at depth d under the root are the contiguous indices [(root + 1) * 2^d - 1, (root + 1) * 2^d - 1 + 2^d)
+
+        @param root - Root index of the subtree
+        @param height - Depth of the deepest level of the heap below the root
+         */
+        long lastParentIndex = heapSize / 2 - 1;
+        for (int depth = height; depth >= 0; depth--) {
+            long firstIndex = ((long) (root + 1) << depth) - 1;
+            if (firstIndex > lastParentIndex) {
+                continue;
+            }
+            long lastIndex = Math.min(firstIndex + (1L << depth) - 1, lastParentIndex);
+            for (int index = (int) lastIndex; index >= firstIndex; index--) {
+                siftDown(index);
+            }
+        }
+    }
+
+    private void heapifyAllParents() {
+        /*
+        Runs heapify bottom up on every index that has children, the whole heap array is valid afterwards
+         */
+        markAllChunksDirty();
+        int size = heapSize;
+        int LastPossibleWithChildrenIndex = size / 2 - 1; // Parent of the last index (-1 for an empty heap)
         // Heapify all the nodes that can have children
         for (int index = LastPossibleWithChildrenIndex; index >= 0; index--) {
-            heapify(index);
+            siftDown(index);
         }
-        printHeap();
+        dropDeletedTop();
     }
 
     public void heapify(int indexToHeapify) {
@@ -71,90 +272,172 @@ public class MaxMinHeap {
 
         // Check if heapify index exist in the array
         if (!indexExistInHeap(indexToHeapify)) {
-            System.out.println("Index for Heapify [" + indexToHeapify + "] not in array, no actions were taken.");
-            return;
-        }
-
-        // Heapify odd index (min value of all descendant)
-        if (getHeapDepthOfIndex(indexToHeapify) % 2 == 1) {
-            heapifyMinLevel(indexToHeapify);
+            throw reportError(new IndexOutOfBoundsException("Index for Heapify [" + indexToHeapify + "] not in heap of size " + heapSize + "."));
         }
-        // Heapify even index (max value of all descendant)
-        else {
-            heapifyMaxLevel(indexToHeapify);
+        markPathDirty(siftDown(indexToHeapify));
+        if (indexToHeapify <= 2) {
+            dropDeletedTop();
         }
     }
 
-    void heapifyMinLevel(int index) {
-        // Check that has kids
-        if (getLeftChildIndex(index) == -1)
-            return;
+    private int siftDown(int index) {
+        /*
+        Heapify without the bounds check, for the internal callers that only pass existing indices
+        Returns the index the sift ended at, every index it wrote is on the path from there up to the given index
+         */
+        if (isMinLevel(index)) {
+            return heapifyMinLevel(index);
+        }
+        return heapifyMaxLevel(index);
+    }
 
-        // Find index of smallest child / grandchild
-        int minChildIndex = getSmallestIndexUpToGrandChild(index);
+    int heapifyMinLevel(int index) {
+        /*
+        Sifts the value of a min level index down, iteratively and with a "hole" - the sifted value is held aside and
+        every smaller descendant moves up into the hole with a single write, instead of a swap per step.
+        A node whose four grandchildren all exist takes the unchecked fast path: its children are max level nodes that
+        are not smaller than their own children, so only the grandchildren can hold its smallest descendant.
+         */
+        int[] heap = heapArray;
+        int size = heapSize;
+        int withChildrenBound = size >>> 1; // Indices below it have at least one child
+        int withAllGrandChildrenBound = (size - 3) >> 2; // Indices below it have all four grandchildren
+        int value = heap[index];
+        // Tombstones move along with their values (only while there are any)
+        long[] dead = tombstoneCount > 0 ? tombstones : null;
+        boolean valueDead = dead != null && isTombstone(dead, index);
+
+        while (index < withChildrenBound) {
+            int smallestIndex;
+            int smallestValue;
+            if (index < withAllGrandChildrenBound) {
+                int grandChild = 4 * index + 3;
+                smallestIndex = grandChild;
+                smallestValue = heap[grandChild];
+                for (int candidate = grandChild + 1; candidate <= grandChild + 3; candidate++) {
+                    if (heap[candidate] < smallestValue) {
+                        smallestIndex = candidate;
+                        smallestValue = heap[candidate];
+                    }
+                }
+            } else {
+                smallestIndex = getSmallestIndexUpToGrandChild(index);
+                smallestValue = heap[smallestIndex];
+            }
 
-        // min child is a grandchild of i
-        if (isGrandChildOf(index, minChildIndex)) {
-            if (heapArray.get(index) > heapArray.get(minChildIndex)) {
-                switchPlace(index, minChildIndex);
-                // Check if after the switch the new child is bigger than parent otherwise switch with it
-                if (heapArray.get(minChildIndex) > heapArray.get(getParentIndex(minChildIndex))) {
-                    switchPlace(minChildIndex, getParentIndex(minChildIndex));
+            if (smallestValue >= value) {
+                break;
+            }
+            heap[index] = smallestValue;
+            if (dead != null) {
+                setTombstone(dead, index, isTombstone(dead, smallestIndex));
+            }
+            boolean isGrandChild = smallestIndex > 2 * index + 2;
+            index = smallestIndex;
+            if (!isGrandChild) {
+                // min child is a child of i, the value takes its place and is done
+                break;
+            }
+            // The value went down to a min level grandchild, switch it with the max level parent if it is bigger
+            int parentIndex = (index - 1) >> 1;
+            if (value > heap[parentIndex]) {
+                int parentValue = heap[parentIndex];
+                heap[parentIndex] = value;
+                value = parentValue;
+                if (dead != null) {
+                    boolean parentDead = isTombstone(dead, parentIndex);
+                    setTombstone(dead, parentIndex, valueDead);
+                    valueDead = parentDead;
                 }
-                heapifyMinLevel(minChildIndex);
             }
         }
-        // min child is a child of i
-        else {
-            if (heapArray.get(minChildIndex) < heapArray.get(index))
-                switchPlace(minChildIndex, index);
+        heap[index] = value;
+        if (dead != null) {
+            setTombstone(dead, index, valueDead);
         }
-
+        return index;
     }
 
-    void heapifyMaxLevel(int index) {
-        // Check that has kids
-        if (getLeftChildIndex(index) == -1)
-            return;
-
-        // Find index of smallest child / grandchild
-        int maxChildIndex = getLargestIndexUpToGrandChild(index);
-
-        // max child is a grandchild of i
-        if (isGrandChildOf(index, maxChildIndex)) {
-            if (heapArray.get(index) < heapArray.get(maxChildIndex)) {
-                switchPlace(index, maxChildIndex);
-                // Check if after the switch the new child is smaller than parent otherwise switch with it
-                if (heapArray.get(maxChildIndex) < heapArray.get(getParentIndex(maxChildIndex))) {
-                    switchPlace(maxChildIndex, getParentIndex(maxChildIndex));
+    int heapifyMaxLevel(int index) {
+        /*
+        Sifts the value of a max level index down, the mirror image of heapifyMinLevel
+         */
+        int[] heap = heapArray;
+        int size = heapSize;
+        int withChildrenBound = size >>> 1; // Indices below it have at least one child
+        int withAllGrandChildrenBound = (size - 3) >> 2; // Indices below it have all four grandchildren
+        int value = heap[index];
+        // Tombstones move along with their values (only while there are any)
+        long[] dead = tombstoneCount > 0 ? tombstones : null;
+        boolean valueDead = dead != null && isTombstone(dead, index);
+
+        while (index < withChildrenBound) {
+            int largestIndex;
+            int largestValue;
+            if (index < withAllGrandChildrenBound) {
+                int grandChild = 4 * index + 3;
+                largestIndex = grandChild;
+                largestValue = heap[grandChild];
+                for (int candidate = grandChild + 1; candidate <= grandChild + 3; candidate++) {
+                    if (heap[candidate] > largestValue) {
+                        largestIndex = candidate;
+                        largestValue = heap[candidate];
+                    }
                 }
+            } else {
+                largestIndex = getLargestIndexUpToGrandChild(index);
+                largestValue = heap[largestIndex];
+            }
 
-                heapifyMaxLevel(maxChildIndex);
+            if (largestValue <= value) {
+                break;
+            }
+            heap[index] = largestValue;
+            if (dead != null) {
+                setTombstone(dead, index, isTombstone(dead, largestIndex));
+            }
+            boolean isGrandChild = largestIndex > 2 * index + 2;
+            index = largestIndex;
+            if (!isGrandChild) {
+                // max child is a child of i, the value takes its place and is done
+                break;
+            }
+            // The value went down to a max level grandchild, switch it with the min level parent if it is smaller
+            int parentIndex = (index - 1) >> 1;
+            if (value < heap[parentIndex]) {
+                int parentValue = heap[parentIndex];
+                heap[parentIndex] = value;
+                value = parentValue;
+                if (dead != null) {
+                    boolean parentDead = isTombstone(dead, parentIndex);
+                    setTombstone(dead, parentIndex, valueDead);
+                    valueDead = parentDead;
+                }
             }
         }
-        // max child is a child of i
-        else {
-            if (heapArray.get(maxChildIndex) > heapArray.get(index))
-                switchPlace(maxChildIndex, index);
+        heap[index] = value;
+        if (dead != null) {
+            setTombstone(dead, index, valueDead);
         }
+        return index;
     }
 
     public int heapExtractMax() {
         /*
         This method extracts and returns the maximal value found in the heap (the root of the heap)
         It is done by exchanging places with the last index of the heap and then running heapify on the heap root
+        Throws EmptyHeapException if the heap is empty
          */
         int maxIndex = getHeapMaxIndex();
         if (maxIndex == -1) {
-            System.out.println("Error, heap is empty!");
-            return -1;
+            throw reportError(new EmptyHeapException());
         }
 
-        int max = heapArray.get(maxIndex);
-        switchPlace(maxIndex, getLastHeapIndex());
-        heapArray.remove(getLastHeapIndex());
-        heapify(maxIndex);
-
+        int max = removeAt(maxIndex);
+        dropDeletedTop();
+        if (eventListener != null) {
+            eventListener.onExtractMax(this, max);
+        }
         return max;
     }
 
@@ -162,21 +445,45 @@ public class MaxMinHeap {
         /*
         This method extracts and returns the minimal value found in the heap
         It is done by exchanging places with the last index of the heap and then running heapify on the original index
+        Throws EmptyHeapException if the heap is empty
          */
         int minIndex = getHeapMinIndex();
         if (minIndex == -1) {
-            System.out.println("Error, heap is empty!");
-            return -1;
+            throw reportError(new EmptyHeapException());
         }
 
-        int min = heapArray.get(minIndex);
-        switchPlace(minIndex, getLastHeapIndex());
-        heapArray.remove(getLastHeapIndex());
-        heapify(minIndex);
-
+        int min = removeAt(minIndex);
+        dropDeletedTop();
+        if (eventListener != null) {
+            eventListener.onExtractMin(this, min);
+        }
         return min;
     }
 
+    public int peekMax() {
+        /*
+        Returns the maximal value of the heap (the root) without removing it - O(1)
+        Throws EmptyHeapException if the heap is empty
+         */
+        int maxIndex = getHeapMaxIndex();
+        if (maxIndex == -1) {
+            throw reportError(new EmptyHeapException());
+        }
+        return heapArray[maxIndex];
+    }
+
+    public int peekMin() {
+        /*
+        Returns the minimal value of the heap (on index 0 / 1 / 2) without removing it - O(1)
+        Throws EmptyHeapException if the heap is empty
+         */
+        int minIndex = getHeapMinIndex();
+        if (minIndex == -1) {
+            throw reportError(new EmptyHeapException());
+        }
+        return heapArray[minIndex];
+    }
+
     public void heapInsert(int newValue) {
         /*
         Inserts a new value to the end of the array representing the heap
@@ -185,290 +492,804 @@ public class MaxMinHeap {
         @param newValue - New value to be inserted to the heap
          */
 
-        System.out.println("Inserting [" + newValue + "] to heap.");
-        heapArray.add(newValue);
+        append(newValue);
         int newValueIndex = getLastHeapIndex();
         bubbleUp(newValueIndex); // Uses bubbleUp method to fix the position of the new inserted value
-        System.out.println("\nNew heap -");
-        printHeap();
+        markPathDirty(newValueIndex);
+        if (eventListener != null) {
+            eventListener.onInsert(this, newValue);
+        }
     }
 
     public void heapDelete(int index) {
         /*
         Deletes a certain value from the heap by exchanging places with the last value of the heap and then it removes that value
         After that it fixes the heap by running heapify on it
+        Throws IndexOutOfBoundsException if the index is not in the heap
 
         @param index - Index to delete
          */
         if (!indexExistInHeap(index)) {
-            System.out.println("ERROR: Requested index value not in heap (notice that indices start from 0)!");
-            return;
+            throw reportError(new IndexOutOfBoundsException("Requested index [" + index + "] not in heap of size " + heapSize + " (notice that indices start from 0)."));
         }
 
-        System.out.println("Deleting value [" + heapArray.get(index) + "] in index [" + index + "] from the heap.");
-        // Move the deleted value to end of heap and then delete it
-        switchPlace(index, getLastHeapIndex());
-        heapArray.remove(getLastHeapIndex());
-        heapify(index);
-        System.out.println("\nNew heap -");
-        printHeap();
+        int deletedValue;
+        if (tombstones == null) {
+            deletedValue = removeAt(index);
+        } else {
+            if (isTombstone(tombstones, index)) {
+                throw reportError(new IndexOutOfBoundsException("Requested index [" + index + "] was already deleted."));
+            }
+            deletedValue = heapArray[index];
+            setTombstone(tombstones, index, true);
+            tombstoneCount++;
+            dropDeletedTop();
+        }
+        if (eventListener != null) {
+            eventListener.onDelete(this, index, deletedValue);
+        }
+        if (tombstoneCount > compactionRatio * heapSize) {
+            compact();
+        }
     }
 
-    private static double log2(int x) {
+    public void insertAll(int[] newValues) {
         /*
-        This method is used to get the mathematic result of log with base 2 as a double
+        Inserts all the given values to the heap
+        Small batches are inserted one by one with bubbleUp (k * log(n + k)), big batches are appended to the end
+        of the heap array and the whole heap is rebuilt with buildHeap (n + k), whichever is cheaper
 
-        @param x - value to evaluate it's log of base 2
+        @param newValues - New values to be inserted to the heap
          */
-        return (Math.log(x) / Math.log(2));
+        appendAll(newValues, newValues.length);
+        if (eventListener != null) {
+            eventListener.onInsertAll(this, newValues.length);
+        }
     }
 
-    private int getLastHeapIndex() {
-        /* 
-        Returns the index of the last position in the array with value.
+    public void insertAll(int[] newValues, int count) {
+        /*
+        Inserts the first <count> values of an array to the heap, like insertAll(int[]) - lets callers reuse one
+        buffer for many batches
+        Throws IllegalArgumentException if count is negative or bigger than the array
+
+        @param newValues - Array that holds the new values from its start
+        @param count - Amount of values to insert
          */
-        return heapArray.size() - 1;
+        if (count < 0 || count > newValues.length) {
+            throw new IllegalArgumentException("Count [" + count + "] not in the range of an array of length " + newValues.length + ".");
+        }
+        appendAll(newValues, count);
+        if (eventListener != null) {
+            eventListener.onInsertAll(this, count);
+        }
     }
 
-    private static int getHeapDepthOfIndex(int index) {
+    public void meld(MaxMinHeap other) {
         /*
-        This method returns the depth of a certain index in the heap tree representation
-        Notice that indices in Java start from 0 so the given index value is increased by 1
+        Moves all the values of another heap into this heap, the other heap is left empty
+        Uses the cheaper strategy by the relative sizes, the same way insertAll does:
+        - a small heap is inserted value by value with bubbleUp - m * log(n + m)
+        - a heap of comparable size is appended and the whole heap is rebuilt with buildHeap - n + m
+        If the other heap is the bigger one the two heaps first trade arrays (unless one of them has a fixed
+        capacity), so the values of the smaller heap are the ones that are copied.
+        Throws IllegalArgumentException if the other heap is this heap
+
+        @param other - Heap whose values are moved into this heap
+         */
+        if (other == this) {
+            throw new IllegalArgumentException("A heap can not be melded into itself.");
+        }
+        compact();
+        other.compact();
+        int meldedCount = other.heapSize;
+        if (other.heapSize > heapSize && !fixedCapacity && !other.fixedCapacity) {
+            int[] ownArray = heapArray;
+            int ownSize = heapSize;
+            heapArray = other.heapArray;
+            heapSize = other.heapSize;
+            other.heapArray = ownArray;
+            other.heapSize = ownSize;
+            growTombstones();
+            other.growTombstones();
+            markAllChunksDirty();
+            other.markAllChunksDirty();
+        }
+        appendAll(other.heapArray, other.heapSize);
+        other.heapSize = 0;
+        if (eventListener != null) {
+            eventListener.onInsertAll(this, meldedCount);
+        }
+    }
 
-        @param index - Index to check depth of
+    public static MaxMinHeap mergeAll(MaxMinHeap... heaps) {
+        /*
+        Returns a new heap of all the values of the given heaps, the given heaps are not changed
+        All the heap arrays are copied once into a single array of the total size that is then rebuilt once
+        (buildHeapParallel) - O(total) no matter how many heaps are merged, where melding them one by one would
+        rebuild or bubble up again for every heap
+
+        @param heaps - Heaps to merge
          */
-        return (int) log2(index + 1);
+        long total = 0;
+        for (MaxMinHeap heap : heaps) {
+            total += heap.size();
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Merged heaps hold " + total + " values, more than a MaxMinHeap can hold.");
+        }
+
+        int[] values = new int[Math.max(DEFAULT_CAPACITY, (int) total)];
+        int offset = 0;
+        for (MaxMinHeap heap : heaps) {
+            if (heap.tombstoneCount == 0) {
+                System.arraycopy(heap.heapArray, 0, values, offset, heap.heapSize);
+                offset += heap.heapSize;
+            } else {
+                // Lazily deleted values are left out
+                for (int index = 0; index < heap.heapSize; index++) {
+                    if (!isTombstone(heap.tombstones, index)) {
+                        values[offset++] = heap.heapArray[index];
+                    }
+                }
+            }
+        }
+        MaxMinHeap merged = new MaxMinHeap(values, offset);
+        merged.buildHeapParallel();
+        return merged;
     }
 
-    private void switchPlace(int firstIndex, int secondIndex) {
+    private void appendAll(int[] newValues, int count) {
         /*
-        A simple method to switch the location of two values in the array by their indices
+        Adds the first <count> values of an array to the heap, by bubbleUp or by a rebuild (see insertAll)
          */
-        Integer firstValue = heapArray.get(firstIndex);
-        Integer secondValue = heapArray.get(secondIndex);
-        heapArray.set(firstIndex, secondValue);
-        heapArray.set(secondIndex, firstValue);
+        if (fixedCapacity && tombstoneCount > 0 && heapSize + count > heapArray.length) {
+            compact();
+        }
+        int newSize = heapSize + count;
+        ensureCapacity(newSize);
+        int log2NewSize = 32 - Integer.numberOfLeadingZeros(newSize);
+
+        if ((long) count * log2NewSize > newSize) {
+            System.arraycopy(newValues, 0, heapArray, heapSize, count);
+            heapSize = newSize;
+            heapifyAllParents();
+        } else {
+            for (int i = 0; i < count; i++) {
+                heapArray[heapSize++] = newValues[i];
+                bubbleUp(getLastHeapIndex());
+                markPathDirty(getLastHeapIndex());
+            }
+        }
     }
 
-    private static boolean isGrandChildOf(int parentIndex, int indexToCheck) {
+    public boolean offerKeepLargest(int newValue) {
         /*
-        Check if an index is a grandChild of a given parent
-        returns True if <indexToCheck> is actually a grand child of <parentIndex>
+        Streaming top-k retention - offers a value to a heap that keeps only the largest values it was offered
+        While the heap is not full the value is inserted, once it is full:
+        - a value that is not above the current min (index 1 / 2) is rejected in O(1) without touching the heap
+        - otherwise it replaces the min in place and a single sift restores the heap (no extract + insert)
+        Returns true if the value was kept
+
+        @param newValue - Value offered to the heap
          */
-        int leftestGrandChildren = (((parentIndex + 1) * 2 - 1) + 1) * 2 - 1;
-        int rightestGrandChild = (((parentIndex + 1) * 2) + 1) * 2;
-        return leftestGrandChildren <= indexToCheck & indexToCheck <= rightestGrandChild;
+        if (tombstoneCount > 0 && isFull()) {
+            compact();
+        }
+        if (!isFull()) {
+            heapInsert(newValue);
+            return true;
+        }
+
+        int minIndex = getHeapMinIndex();
+        if (newValue <= heapArray[minIndex]) {
+            return false;
+        }
+        heapArray[minIndex] = newValue;
+        // The new value may be above the root, bubbleUp switches them, then the min level below is fixed
+        bubbleUp(minIndex);
+        markPathDirty(siftDown(minIndex));
+        dropDeletedTop();
+        if (eventListener != null) {
+            eventListener.onInsert(this, newValue);
+        }
+        return true;
     }
 
-    private int getSmallestIndexUpToGrandChild(int parentIndex) {
+    public boolean offerKeepSmallest(int newValue) {
         /*
-        This method returns the index of the descendant with the minimal value up to a grand child for a given parent node (2 depths)
-        It does it with simple comparisons of all the existing children / grandchildren of a given node.
+        Streaming bottom-k retention - offers a value to a heap that keeps only the smallest values it was offered
+        While the heap is not full the value is inserted, once it is full:
+        - a value that is not below the current max (the root) is rejected in O(1) without touching the heap
+        - otherwise it replaces the root in place and a single heapify restores the heap (no extract + insert)
+        Returns true if the value was kept
 
-        includeParent parameter sets whether or not should the parent index value checked as a minimum as well.
+        @param newValue - Value offered to the heap
          */
+        if (tombstoneCount > 0 && isFull()) {
+            compact();
+        }
+        if (!isFull()) {
+            heapInsert(newValue);
+            return true;
+        }
 
-        int leftChildIndex = getLeftChildIndex(parentIndex);
-        int leftGrandChildLeftIndex = getLeftChildIndex(leftChildIndex);
-        int leftGrandChildRightIndex = getRightChildIndex(leftChildIndex);
-        int rightChildIndex = getRightChildIndex(parentIndex);
-        int rightGrandChildLeftIndex = getLeftChildIndex(rightChildIndex);
-        int rightGrandChildRightIndex = getRightChildIndex(rightChildIndex);
-        int smallestIndex = -1;
-        int smallestValue = Integer.MAX_VALUE;
+        int maxIndex = getHeapMaxIndex();
+        if (newValue >= heapArray[maxIndex]) {
+            return false;
+        }
+        heapArray[maxIndex] = newValue;
+        markPathDirty(siftDown(maxIndex));
+        dropDeletedTop();
+        if (eventListener != null) {
+            eventListener.onInsert(this, newValue);
+        }
+        return true;
+    }
 
+    public int extractTopK(int k, int[] output) {
+        /*
+        Extracts the k largest values of the heap into output, from the largest down
+        Returns the amount of extracted values (less than k if the heap has less values)
 
-        // Check left child
-        if (indexExistInHeap(leftChildIndex)) {
-            if (heapArray.get(leftChildIndex) < smallestValue) {
-                smallestIndex = leftChildIndex;
-                smallestValue = heapArray.get(leftChildIndex);
-            }
+        Throws IllegalArgumentException (before extracting anything) if output has no room for the extracted values
+
+        @param k - Amount of values to extract, none if it is not positive
+        @param output - Array to fill from index 0, must have room for the extracted values
+         */
+        int count = extractCount(k, output);
+        for (int i = 0; i < count; i++) {
+            output[i] = heapExtractMax();
         }
-        // Check left grand-children
-        if (indexExistInHeap(leftGrandChildLeftIndex)) {
-            if (heapArray.get(leftGrandChildLeftIndex) < smallestValue) {
-                smallestIndex = leftGrandChildLeftIndex;
-                smallestValue = heapArray.get(leftGrandChildLeftIndex);
-            }
+        return count;
+    }
+
+    public int extractBottomK(int k, int[] output) {
+        /*
+        Extracts the k smallest values of the heap into output, from the smallest up
+        Returns the amount of extracted values (less than k if the heap has less values)
+
+        Throws IllegalArgumentException (before extracting anything) if output has no room for the extracted values
+
+        @param k - Amount of values to extract, none if it is not positive
+        @param output - Array to fill from index 0, must have room for the extracted values
+         */
+        int count = extractCount(k, output);
+        for (int i = 0; i < count; i++) {
+            output[i] = heapExtractMin();
         }
-        if (indexExistInHeap(leftGrandChildRightIndex)) {
-            if (heapArray.get(leftGrandChildRightIndex) < smallestValue) {
-                smallestIndex = leftGrandChildRightIndex;
-                smallestValue = heapArray.get(leftGrandChildRightIndex);
-            }
+        return count;
+    }
+
+    private int extractCount(int k, int[] output) {
+        // Returns the amount of values extractTopK / extractBottomK extract, checking first that output has room for them
+        int count = Math.max(0, Math.min(k, size()));
+        if (output.length < count) {
+            throw new IllegalArgumentException("Output of length " + output.length + " is too short for " + count + " values.");
         }
+        return count;
+    }
 
-        // Check right child
-        if (indexExistInHeap(rightChildIndex)) {
-            if (heapArray.get(rightChildIndex) < smallestValue) {
-                smallestIndex = rightChildIndex;
-                smallestValue = heapArray.get(rightChildIndex);
-            }
+    public int peekTopK(int k, int[] output) {
+        /*
+        Copies the k largest values of the heap into output, from the largest down, without changing the heap
+        Returns the amount of copied values (less than k if the heap has less values)
+
+        @param k - Amount of values to copy
+        @param output - Array to fill from index 0, must have room for the copied values
+         */
+        return peekK(k, output, true);
+    }
+
+    public int peekBottomK(int k, int[] output) {
+        /*
+        Copies the k smallest values of the heap into output, from the smallest up, without changing the heap
+        Returns the amount of copied values (less than k if the heap has less values)
+
+        @param k - Amount of values to copy
+        @param output - Array to fill from index 0, must have room for the copied values
+         */
+        return peekK(k, output, false);
+    }
+
+    public PrimitiveIterator.OfInt ascendingIterator() {
+        /*
+        Returns a lazy iterator over the values of the heap from the smallest up, without changing the heap
+        Every value is found on demand by the same best-first search as peekBottomK, so taking the first k values
+        costs O(k log k) no matter how big the heap is.
+        The heap must not be changed while iterating (nextInt throws ConcurrentModificationException if its size changed)
+        Lazily deleted values are skipped
+         */
+        return new SortedIterator(false, new long[DEFAULT_CAPACITY]);
+    }
+
+    public PrimitiveIterator.OfInt descendingIterator() {
+        /*
+        Returns a lazy iterator over the values of the heap from the largest down, without changing the heap
+        Same costs and rules as ascendingIterator
+         */
+        return new SortedIterator(true, new long[DEFAULT_CAPACITY]);
+    }
+
+    public int heapSort(int[] output) {
+        /*
+        Empties the heap into output in ascending order, filling it from both ends at once - every round extracts the
+        min into the next free cell from the start and the max into the next free cell from the end, so both halves
+        of the output are final as soon as they are written and no separate reverse / merge pass is needed
+        Returns the amount of sorted values
+
+        @param output - Array to fill from index 0, must have room for all the values of the heap
+         */
+        int count = size();
+        if (output.length < count) {
+            throw new IllegalArgumentException("Output of length " + output.length + " is too short for " + count + " values.");
         }
-        // Check right grand-children
-        if (indexExistInHeap(rightGrandChildLeftIndex)) {
-            if (heapArray.get(rightGrandChildLeftIndex) < smallestValue) {
-                smallestIndex = rightGrandChildLeftIndex;
-                smallestValue = heapArray.get(rightGrandChildLeftIndex);
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            output[low++] = heapExtractMin();
+            output[high--] = heapExtractMax();
+        }
+        if (low == high) {
+            output[low] = heapExtractMax();
+        }
+        return count;
+    }
+
+    public void forEach(IntConsumer action) {
+        /*
+        Passes every value of the heap to an action, in heap array order (not sorted), without any allocation
+        Lazily deleted values are skipped. The action must not change the heap.
+
+        @param action - Action that gets the values
+         */
+        int[] heap = heapArray;
+        int size = heapSize;
+        if (tombstoneCount == 0) {
+            for (int index = 0; index < size; index++) {
+                action.accept(heap[index]);
+            }
+        } else {
+            for (int index = 0; index < size; index++) {
+                if (!isTombstone(tombstones, index)) {
+                    action.accept(heap[index]);
+                }
             }
         }
-        if (indexExistInHeap(rightGrandChildRightIndex)) {
-            if (heapArray.get(rightGrandChildRightIndex) < smallestValue) {
-                smallestIndex = rightGrandChildRightIndex;
+    }
+
+    public MaxMinHeapSnapshot snapshot() {
+        /*
+        Returns an immutable view of the heap as it is now, that any thread can read while this heap keeps changing
+        Must be called by the thread that changes the heap (or under its lock), the returned snapshot can then be
+        handed to any amount of reader threads without locks.
+        The heap array is split into chunks of 2^SNAPSHOT_CHUNK_SHIFT values, and every heap operation marks the
+        chunks it wrote (the path of its sift, O(log n) chunks at most). A snapshot only copies the chunks that were
+        written since the previous snapshot and shares all the others with it - copy on write at chunk granularity,
+        so taking snapshots often costs about the chunks written in between, not the size of the heap.
+        Lazily deleted values are compacted away first.
+         */
+        compact();
+        int chunkSize = 1 << SNAPSHOT_CHUNK_SHIFT;
+        int chunkCount = (heapSize + chunkSize - 1) >>> SNAPSHOT_CHUNK_SHIFT;
+        int[][] chunks = new int[chunkCount][];
+        MaxMinHeapSnapshot previous = lastSnapshot;
+        long[] dirty = snapshotDirtyChunks;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int start = chunk << SNAPSHOT_CHUNK_SHIFT;
+            int length = Math.min(chunkSize, heapSize - start);
+            // A chunk is shared only if it is not written since the previous snapshot and still holds as many values
+            if (previous != null && chunk < previous.chunks.length && (dirty[chunk >>> 6] & (1L << chunk)) == 0
+                    && previous.chunks[chunk].length == length) {
+                chunks[chunk] = previous.chunks[chunk];
+            } else {
+                chunks[chunk] = Arrays.copyOfRange(heapArray, start, start + length);
             }
         }
-        return smallestIndex;
+        MaxMinHeapSnapshot snapshot = new MaxMinHeapSnapshot(chunks, heapSize);
+        lastSnapshot = snapshot;
+        // Chunks past the ones of this snapshot are copied by the next one anyway, so they need no bits
+        snapshotDirtyChunks = new long[(chunkCount + 63) >>> 6];
+        return snapshot;
     }
 
-    private int getLargestIndexUpToGrandChild(int parentIndex) {
+    private int peekK(int k, int[] output, boolean largest) {
         /*
-        This method returns the index of the descendant with the maximal value up to a grand child for a given parent node (2 depths)
-        It does it with simple comparisons of all the existing children / grandchildren of a given node.
+        Copies the first k values of a SortedIterator into output
+        The frontier array is kept between calls, it never has to grow for 4k + 4 entries (the iterator grows it when
+        lazily deleted values are passed on the way, they are searched through but not copied)
+         */
+        int count = Math.min(k, size());
+        if (count <= 0) {
+            return 0;
+        }
 
-        includeParent parameter sets whether or not should the parent index value checked as a maximum as well.
+        int frontierCapacity = 4 * count + 4;
+        if (peekFrontier == null || peekFrontier.length < frontierCapacity) {
+            peekFrontier = new long[frontierCapacity];
+        }
+        SortedIterator values = new SortedIterator(largest, peekFrontier);
+        for (int i = 0; i < count; i++) {
+            output[i] = values.nextInt();
+        }
+        peekFrontier = values.frontier;
+        return count;
+    }
+
+    private static boolean isDominantLevel(int index, boolean largest) {
+        /*
+        Returns true if the index is on a max level when looking for the largest values (min level for the smallest)
          */
+        return !isMinLevel(index) == largest;
+    }
 
-        int leftChildIndex = getLeftChildIndex(parentIndex);
-        int leftGrandChildLeftIndex = getLeftChildIndex(leftChildIndex);
-        int leftGrandChildRightIndex = getRightChildIndex(leftChildIndex);
-        int rightChildIndex = getRightChildIndex(parentIndex);
-        int rightGrandChildLeftIndex = getLeftChildIndex(rightChildIndex);
-        int rightGrandChildRightIndex = getRightChildIndex(rightChildIndex);
-        int largestIndex = -1;
-        int largestValue = Integer.MIN_VALUE;
+    private static long frontierKey(int value, boolean largest) {
+        /*
+        The ordering part of a frontier entry, bigger is better
+         */
+        return (long) (largest ? value : ~value) << 32;
+    }
 
-        // Check left child
-        if (indexExistInHeap(leftChildIndex)) {
-            if (heapArray.get(leftChildIndex) > largestValue) {
-                largestIndex = leftChildIndex;
-                largestValue = heapArray.get(leftChildIndex);
+    private long frontierEntry(int index, boolean largest) {
+        /*
+        The frontier entry of a node that was not opened yet:
+        - a dominant level node is bounded by its own value
+        - any other node is bounded by its best child (or is a plain value if it has no children)
+         */
+        if (isDominantLevel(index, largest)) {
+            return frontierKey(heapArray[index], largest) | index;
+        }
+        int leftChildIndex = getLeftChildIndex(index);
+        if (leftChildIndex == -1) {
+            return frontierKey(heapArray[index], largest) | index | PLAIN_VALUE_FLAG;
+        }
+        int bound = heapArray[leftChildIndex];
+        int rightChildIndex = getRightChildIndex(index);
+        if (rightChildIndex != -1 && (largest ? heapArray[rightChildIndex] > bound : heapArray[rightChildIndex] < bound)) {
+            bound = heapArray[rightChildIndex];
+        }
+        return frontierKey(bound, largest) | index;
+    }
+
+    private int pushChildrenToFrontier(long[] frontier, int frontierSize, int index, boolean largest) {
+        /*
+        Pushes the existing children of a node to the frontier, returns the new frontier size
+         */
+        int leftChildIndex = getLeftChildIndex(index);
+        if (leftChildIndex != -1) {
+            frontierSize = pushToFrontier(frontier, frontierSize, frontierEntry(leftChildIndex, largest));
+        }
+        int rightChildIndex = getRightChildIndex(index);
+        if (rightChildIndex != -1) {
+            frontierSize = pushToFrontier(frontier, frontierSize, frontierEntry(rightChildIndex, largest));
+        }
+        return frontierSize;
+    }
+
+    private static int pushToFrontier(long[] frontier, int frontierSize, long entry) {
+        /*
+        Adds an entry to the frontier (a plain binary max heap of longs), returns the new frontier size
+         */
+        int index = frontierSize;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (frontier[parent] >= entry) {
+                break;
             }
+            frontier[index] = frontier[parent];
+            index = parent;
         }
-        // Check left grand-children
-        if (indexExistInHeap(leftGrandChildLeftIndex)) {
-            if (heapArray.get(leftGrandChildLeftIndex) > largestValue) {
-                largestIndex = leftGrandChildLeftIndex;
-                largestValue = heapArray.get(leftGrandChildLeftIndex);
+        frontier[index] = entry;
+        return frontierSize + 1;
+    }
+
+    private static int popFromFrontier(long[] frontier, int frontierSize) {
+        /*
+        Removes the best entry of the frontier (frontier[0]), returns the new frontier size
+         */
+        int size = frontierSize - 1;
+        long last = frontier[size];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
             }
+            if (child + 1 < size && frontier[child + 1] > frontier[child]) {
+                child++;
+            }
+            if (last >= frontier[child]) {
+                break;
+            }
+            frontier[index] = frontier[child];
+            index = child;
         }
-        if (indexExistInHeap(leftGrandChildRightIndex)) {
-            if (heapArray.get(leftGrandChildRightIndex) > largestValue) {
-                largestIndex = leftGrandChildRightIndex;
-                largestValue = heapArray.get(leftGrandChildRightIndex);
+        frontier[index] = last;
+        return size;
+    }
+
+    private RuntimeException reportError(RuntimeException error) {
+        /*
+        Passes an error to the listener (if there is one) right before it is thrown, the heap is unchanged by then
+        Returns the error, so the caller can throw it
+
+        @param error - Exception about to be thrown
+         */
+        if (eventListener != null) {
+            eventListener.onError(this, error);
+        }
+        return error;
+    }
+
+    private void markPathDirty(int index) {
+        /*
+        Marks the snapshot chunks of an index and of all its ancestors as written (only once a snapshot was taken)
+        A sift / bubbleUp only writes indices on the path from the index it ended at up to the root
+
+        @param index - The deepest index that was written
+         */
+        long[] dirty = snapshotDirtyChunks;
+        if (dirty == null) {
+            return;
+        }
+        int chunkCount = dirty.length << 6;
+        // Indices below the chunk size, the top levels of the heap, are all in chunk 0
+        for (int pathIndex = index; pathIndex >>> SNAPSHOT_CHUNK_SHIFT != 0; pathIndex = (pathIndex - 1) >> 1) {
+            int chunk = pathIndex >>> SNAPSHOT_CHUNK_SHIFT;
+            if (chunk < chunkCount) {
+                dirty[chunk >>> 6] |= 1L << chunk;
             }
         }
+        if (dirty.length > 0) {
+            dirty[0] |= 1L;
+        }
+    }
+
+    private void markAllChunksDirty() {
+        // Marks all the snapshot chunks as written, for the operations that rewrite the whole heap array
+        if (snapshotDirtyChunks != null) {
+            Arrays.fill(snapshotDirtyChunks, -1L);
+        }
+    }
+
+    private static double log2(int x) {
+        /*
+        This method is used to get the mathematic result of log with base 2 as a double
+
+        @param x - value to evaluate it's log of base 2
+         */
+        return (Math.log(x) / Math.log(2));
+    }
+
+    private int getLastHeapIndex() {
+        /* 
+        Returns the index of the last position in the array with value.
+         */
+        return heapSize - 1;
+    }
 
-        // Check right child
-        if (indexExistInHeap(rightChildIndex)) {
-            if (heapArray.get(rightChildIndex) > largestValue) {
-                largestIndex = rightChildIndex;
-                largestValue = heapArray.get(rightChildIndex);
+    private int removeAt(int index) {
+        /*
+        Removes the value in a certain index by moving the last value of the heap into its place
+        The moved value may belong above or below that place, so it is bubbled up and then heapified down
+
+        @param index - Index to remove, must exist in the heap
+         */
+        int removedValue = heapArray[index];
+        heapSize--;
+        if (tombstoneCount > 0) {
+            // The removed cell gives up its tombstone, the last cell hands its tombstone over with its value
+            if (isTombstone(tombstones, index)) {
+                tombstoneCount--;
             }
+            setTombstone(tombstones, index, isTombstone(tombstones, heapSize));
+            setTombstone(tombstones, heapSize, false);
         }
-        // Check right grand-children
-        if (indexExistInHeap(rightGrandChildLeftIndex)) {
-            if (heapArray.get(rightGrandChildLeftIndex) > largestValue) {
-                largestIndex = rightGrandChildLeftIndex;
-                largestValue = heapArray.get(rightGrandChildLeftIndex);
+        if (index < heapSize) {
+            heapArray[index] = heapArray[heapSize];
+            bubbleUp(index);
+            markPathDirty(siftDown(index));
+        }
+        return removedValue;
+    }
+
+    private void append(int value) {
+        /*
+        Adds a value after the last position of the heap, growing the backing array by half when it is full
+         */
+        if (heapSize == heapArray.length) {
+            if (tombstoneCount > 0) {
+                // Deleted values are taking cells, make room by compacting instead of failing / growing
+                compact();
+                heapArray[heapSize++] = value;
+                return;
+            }
+            if (fixedCapacity) {
+                throw new IllegalStateException("Heap is full (fixed capacity " + heapArray.length + ").");
             }
+            heapArray = Arrays.copyOf(heapArray, Math.max(DEFAULT_CAPACITY, heapSize + (heapSize >> 1)));
+            growTombstones();
         }
-        if (indexExistInHeap(rightGrandChildRightIndex)) {
-            if (heapArray.get(rightGrandChildRightIndex) > largestValue) {
-                largestIndex = rightGrandChildRightIndex;
+        heapArray[heapSize++] = value;
+    }
+
+    private void ensureCapacity(int requiredCapacity) {
+        /*
+        Grows the backing array (at least by half) so it can hold the required amount of values
+         */
+        if (requiredCapacity > heapArray.length) {
+            if (fixedCapacity) {
+                throw new IllegalStateException("Heap is full (fixed capacity " + heapArray.length + ").");
             }
+            heapArray = Arrays.copyOf(heapArray, Math.max(requiredCapacity, heapArray.length + (heapArray.length >> 1)));
+            growTombstones();
         }
-        return largestIndex;
     }
 
-    private boolean indexExistInHeap(int index) {
+    private void growTombstones() {
+        // Keeps a tombstone bit for every cell of the heap array after it grew
+        if (tombstones != null && tombstones.length << 6 < heapArray.length) {
+            tombstones = Arrays.copyOf(tombstones, (heapArray.length + 63) >>> 6);
+        }
+    }
+
+    private static boolean isTombstone(long[] tombstones, int index) {
+        return (tombstones[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void setTombstone(long[] tombstones, int index, boolean deleted) {
+        if (deleted) {
+            tombstones[index >>> 6] |= 1L << index;
+        } else {
+            tombstones[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    private static int getHeapDepthOfIndex(int index) {
         /*
-         returns true if index exists in the array representing the heap (value between 0 and heap array size)
+        This method returns the depth of a certain index in the heap tree representation
+        Notice that indices in Java start from 0 so the given index value is increased by 1
+        The depth is floor(log2(index + 1)), the position of the highest set bit of index + 1
+
+        @param index - Index to check depth of
          */
-        return index >= 0 & index < heapArray.size();
+        return 31 - Integer.numberOfLeadingZeros(index + 1);
     }
 
-    private int getParentIndex(int childIndex) {
+    private static boolean isMinLevel(int index) {
         /*
-        returns the parent index of a node if it exists in the array that represents the heap (returns -1 if not)
+        Returns true if the index is on a min level (odd depth) - the depth is odd exactly when index + 1 has an even
+        amount of leading zero bits
          */
-        int parentIndex = (int) Math.ceil((double) childIndex / 2) - 1;
+        return (Integer.numberOfLeadingZeros(index + 1) & 1) == 0;
+    }
 
-        if (indexExistInHeap(parentIndex)) {
-            return parentIndex;
+    private int getSmallestIndexUpToGrandChild(int parentIndex) {
+        /*
+        This method returns the index of the descendant with the minimal value up to a grand child for a given parent node (2 depths)
+        Used for the nodes near the bottom of the heap, where not all the children / grandchildren exist - the children
+        and the grandchildren are each a contiguous range of indices, so each range is cut at the heap size once.
+        The parent must have at least one child.
+         */
+        int[] heap = heapArray;
+        int size = heapSize;
+        int leftChildIndex = 2 * parentIndex + 1;
+        int smallestIndex = leftChildIndex;
+        int smallestValue = heap[leftChildIndex];
+
+        int rightChildIndex = leftChildIndex + 1;
+        if (rightChildIndex < size && heap[rightChildIndex] < smallestValue) {
+            smallestIndex = rightChildIndex;
+            smallestValue = heap[rightChildIndex];
         }
-        return -1;
+        // The grandchildren exist only if the left child has children
+        if (leftChildIndex < (size >>> 1)) {
+            int grandChildrenEnd = Math.min(size, 2 * leftChildIndex + 5);
+            for (int grandChild = 2 * leftChildIndex + 1; grandChild < grandChildrenEnd; grandChild++) {
+                if (heap[grandChild] < smallestValue) {
+                    smallestIndex = grandChild;
+                    smallestValue = heap[grandChild];
+                }
+            }
+        }
+        return smallestIndex;
     }
 
-    private int getLeftChildIndex(int parentIndex) {
+    private int getLargestIndexUpToGrandChild(int parentIndex) {
         /*
-        returns the left child index of a node if it exists in the array that represents the heap (returns -1 if not)
+        This method returns the index of the descendant with the maximal value up to a grand child for a given parent node (2 depths)
+        Used for the nodes near the bottom of the heap, where not all the children / grandchildren exist - the children
+        and the grandchildren are each a contiguous range of indices, so each range is cut at the heap size once.
+        The parent must have at least one child.
          */
-        if (!indexExistInHeap(parentIndex)) {
-            return -1;
+        int[] heap = heapArray;
+        int size = heapSize;
+        int leftChildIndex = 2 * parentIndex + 1;
+        int largestIndex = leftChildIndex;
+        int largestValue = heap[leftChildIndex];
+
+        int rightChildIndex = leftChildIndex + 1;
+        if (rightChildIndex < size && heap[rightChildIndex] > largestValue) {
+            largestIndex = rightChildIndex;
+            largestValue = heap[rightChildIndex];
+        }
+        // The grandchildren exist only if the left child has children
+        if (leftChildIndex < (size >>> 1)) {
+            int grandChildrenEnd = Math.min(size, 2 * leftChildIndex + 5);
+            for (int grandChild = 2 * leftChildIndex + 1; grandChild < grandChildrenEnd; grandChild++) {
+                if (heap[grandChild] > largestValue) {
+                    largestIndex = grandChild;
+                    largestValue = heap[grandChild];
+                }
+            }
         }
+        return largestIndex;
+    }
 
-        int leftChildIndex = (parentIndex + 1) * 2 - 1;
+    private boolean indexExistInHeap(int index) {
+        /*
+         returns true if index exists in the array representing the heap (value between 0 and heap array size)
+         */
+        return index >= 0 & index < heapSize;
+    }
 
-        if (indexExistInHeap(leftChildIndex)) {
-            return leftChildIndex;
+    private int getLeftChildIndex(int parentIndex) {
+        /*
+        returns the left child index of a node if it exists in the array that represents the heap (returns -1 if not)
+         */
+        if (parentIndex < 0 || parentIndex >= (heapSize >>> 1)) {
+            return -1;
         }
-        return -1;
+        return 2 * parentIndex + 1;
     }
 
     private int getRightChildIndex(int parentIndex) {
         /*
         returns the right child index of a node if it exists in the array that represents the heap (returns -1 if not)
          */
-
-        if (!indexExistInHeap(parentIndex)) {
+        if (parentIndex < 0 || parentIndex >= ((heapSize - 1) >> 1)) {
             return -1;
         }
-
-        int rightChildIndex = (parentIndex + 1) * 2;
-
-        if (indexExistInHeap(rightChildIndex)) {
-            return rightChildIndex;
-        }
-        return -1;
+        return 2 * parentIndex + 2;
     }
 
     private int getHeapMaxIndex() {
         /*
         returns the index of the node with Maximum value in the heap (root of course in the MaxMinHeap)
         If the heap is empty -1 is returned
+        The top cells never hold lazily deleted values (see dropDeletedTop), so the root is always a live value
          */
-        if (heapArray.size() > 0) {
+        if (heapSize > 0) {
             return 0;
         }
         return -1;
     }
 
-    private int getHeapMinIndex() {
+    int getHeapMinIndex() {
         /*
         returns the index of the node with Minimum value in the heap (1st / 2nd depth layer only needs to be checked)
         If the heap is empty -1 is returned
+        The top cells never hold lazily deleted values (see dropDeletedTop), so the min is always a live value
          */
-
         int min = Integer.MIN_VALUE;
         int minIndex = -1;
 
         // We check the first, second, third indices in case the heap is very small
         if (indexExistInHeap(0)) {
-            min = heapArray.get(0);
+            min = heapArray[0];
             minIndex = 0;
 
             // Check left Child
             if (indexExistInHeap(1)) {
-                if (heapArray.get(1) < min) {
-                    min = heapArray.get(1);
+                if (heapArray[1] < min) {
+                    min = heapArray[1];
                     minIndex = 1;
                 }
             }
 
             // Check right Child
             if (indexExistInHeap(2)) {
-                if (heapArray.get(2) < min) {
+                if (heapArray[2] < min) {
                     minIndex = 2;
                 }
             }
@@ -476,79 +1297,104 @@ public class MaxMinHeap {
         return minIndex;
     }
 
-    private void bubbleUp(int index) {
+    private void dropDeletedTop() {
         /*
-        This method is responsible for moving a certain value up if it is not positioned correctly to match the
-        MaxMinHeap criteria.
-        It uses two sub methods for bubbleUp depending on the input index level (Min / Max level)
-
-        @param index - Index to bubble up
+        Removes for real the lazily deleted values that a change of the heap brought to the top cells (index 0 / 1 / 2),
+        until all of them hold live values (or the heap is empty)
+        Every changing operation that can move values up to the top calls it last, so the max and the min of the heap
+        are always live and the reads never have to look at the tombstones
          */
-        int parentIndex = getParentIndex(index);
-
-        if (indexExistInHeap(parentIndex)) {
-            // Check heap level - if min / max
-            if (getHeapDepthOfIndex(index) % 2 == 1) {
-                // Here we know we are at min level, need to check if parent in max level is smaller
-                if (heapArray.get(index) > heapArray.get(parentIndex)) {
-                    switchPlace(index, parentIndex);
-                    bubbleUpMax(parentIndex);
-                } else {
-                    bubbleUpMin(index);
-                }
+        while (tombstoneCount > 0) {
+            int deletedIndex;
+            if (isTombstone(tombstones, 0)) {
+                deletedIndex = 0;
+            } else if (heapSize > 1 && isTombstone(tombstones, 1)) {
+                deletedIndex = 1;
+            } else if (heapSize > 2 && isTombstone(tombstones, 2)) {
+                deletedIndex = 2;
             } else {
-                // Here we know we are at max level, need to check if parent in min level is bigger
-                if (heapArray.get(index) < heapArray.get(parentIndex)) {
-                    switchPlace(index, parentIndex);
-                    bubbleUpMin(parentIndex);
-                } else {
-                    bubbleUpMax(index);
-                }
+                return;
             }
+            removeAt(deletedIndex);
         }
     }
 
-    private void bubbleUpMin(int index) {
+    private void bubbleUp(int index) {
         /*
-        Sub method of bubbleUp that bubbles up an index of a Minimum depth level
+        This method is responsible for moving a certain value up if it is not positioned correctly to match the
+        MaxMinHeap criteria.
+        If the value belongs on the other kind of level it first moves to its parent, then it climbs grandparent by
+        grandparent along its own kind of levels. The loop moves the passed values down into a "hole" and writes
+        the bubbled value once, at its final place.
 
-        @param index - index to bubble up
+        @param index - Index to bubble up
          */
-        int grandParentIndex = getParentIndex(getParentIndex(index));
-
-        if (indexExistInHeap(grandParentIndex)) {
-            if (heapArray.get(index) < heapArray.get(grandParentIndex)) {
-                switchPlace(index, grandParentIndex);
-                bubbleUpMin(grandParentIndex);
+        if (index == 0) {
+            return;
+        }
+        int[] heap = heapArray;
+        int value = heap[index];
+        boolean minLevel = isMinLevel(index);
+        long[] dead = tombstoneCount > 0 ? tombstones : null;
+        boolean valueDead = dead != null && isTombstone(dead, index);
+
+        // A min level value bigger than its max level parent (or the opposite) switches with the parent first
+        int parentIndex = (index - 1) >> 1;
+        if (minLevel ? value > heap[parentIndex] : value < heap[parentIndex]) {
+            heap[index] = heap[parentIndex];
+            if (dead != null) {
+                setTombstone(dead, index, isTombstone(dead, parentIndex));
             }
+            index = parentIndex;
+            minLevel = !minLevel;
         }
-    }
 
-    private void bubbleUpMax(int index) {
-        /*
-        Sub method of bubbleUp that bubbles up an index of a Maximum depth level
-
-        @param index - index to bubble up
-         */
-        int grandParentIndex = getParentIndex(getParentIndex(index));
-
-        if (indexExistInHeap(grandParentIndex)) {
-            if (heapArray.get(index) > heapArray.get(grandParentIndex)) {
-                switchPlace(index, grandParentIndex);
-                bubbleUpMax(grandParentIndex);
+        // Then it climbs the levels of its kind, the grandparent of index is (index - 3) / 4
+        if (minLevel) {
+            while (index > 2) {
+                int grandParentIndex = (index - 3) >> 2;
+                if (value >= heap[grandParentIndex]) {
+                    break;
+                }
+                heap[index] = heap[grandParentIndex];
+                if (dead != null) {
+                    setTombstone(dead, index, isTombstone(dead, grandParentIndex));
+                }
+                index = grandParentIndex;
+            }
+        } else {
+            while (index > 2) {
+                int grandParentIndex = (index - 3) >> 2;
+                if (value <= heap[grandParentIndex]) {
+                    break;
+                }
+                heap[index] = heap[grandParentIndex];
+                if (dead != null) {
+                    setTombstone(dead, index, isTombstone(dead, grandParentIndex));
+                }
+                index = grandParentIndex;
             }
         }
+        heap[index] = value;
+        if (dead != null) {
+            setTombstone(dead, index, valueDead);
+        }
     }
 
     public void printHeap() {
         /*
         Prints the heap to the user, one time as the raw array, second time as a tree showing each layer
+        Lazily deleted values are printed in parentheses, in the cells they still take
          */
-        int arraySize = heapArray.size();
+        int arraySize = heapSize;
         int deepestLevel = getHeapDepthOfIndex(arraySize - 1);
         double layerLog2;
         System.out.println("\nArray representation:");
-        System.out.println(heapArray);
+        StringBuilder array = new StringBuilder("[");
+        for (int i = 0; i < arraySize; i++) {
+            array.append(i == 0 ? "" : ", ").append(cellToString(i));
+        }
+        System.out.println(array.append(']'));
 
         System.out.print("\nTree layers representation:");
 
@@ -568,8 +1414,117 @@ public class MaxMinHeap {
                 }
 
             }
-            System.out.print(heapArray.get(i) + "  ");
+            System.out.print(cellToString(i) + "  ");
         }
         System.out.println();
     }
+
+    private String cellToString(int index) {
+        // The value of a cell for printHeap, in parentheses if it was lazily deleted
+        if (tombstoneCount > 0 && isTombstone(tombstones, index)) {
+            return "(" + heapArray[index] + ")";
+        }
+        return String.valueOf(heapArray[index]);
+    }
+
+    /**
+     * Builds a subtree of the heap for buildHeapParallel - forks the two child subtrees while the subtree is above
+     * PARALLEL_SUBTREE_LEVELS levels, and heapifies the root once both of them are done.
+     */
+    private final class BuildSubtreeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int root;
+        private final int height;
+
+        BuildSubtreeTask(int root, int height) {
+            this.root = root;
+            this.height = height;
+        }
+
+        @Override
+        protected void compute() {
+            if (height < PARALLEL_SUBTREE_LEVELS) {
+                heapifySubtree(root, height);
+                return;
+            }
+            invokeAll(new BuildSubtreeTask(2 * root + 1, height - 1), new BuildSubtreeTask(2 * root + 2, height - 1));
+            siftDown(root);
+        }
+    }
+
+    /**
+     * A best-first search over the heap tree that returns its values in order, visiting only O(k) nodes for k values.
+     *
+     * A node of the "dominant" levels (max levels for largest, min levels for smallest) bounds all of its descendants,
+     * so it is taken as soon as it is the best entry of the frontier, and then its children enter the frontier.
+     * A node of the other levels is the worst value of its own subtree, so it first enters the frontier with the
+     * bound of its best child, and only when that entry is taken its children enter the frontier and the node
+     * itself enters again as a plain value.
+     *
+     * Frontier entries are longs - the ordered value in the high 32 bits (inverted for smallest, so the frontier is
+     * always a max heap), the index in the low 31 bits and the "plain value" flag in bit 31.
+     * Lazily deleted values keep their place in the heap order, so they are searched through like any other value
+     * and only left out when they would be returned.
+     */
+    private final class SortedIterator implements PrimitiveIterator.OfInt {
+
+        private final boolean largest;
+        private final int expectedSize;
+        private long[] frontier;
+        private int frontierSize;
+        private int remaining;
+
+        SortedIterator(boolean largest, long[] frontier) {
+            this.largest = largest;
+            this.expectedSize = size();
+            this.frontier = frontier;
+            this.remaining = expectedSize;
+            if (heapSize > 0) {
+                frontierSize = pushToFrontier(frontier, 0, frontierEntry(0, largest));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (size() != expectedSize) {
+                throw new ConcurrentModificationException("Heap was changed while iterating.");
+            }
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+
+            while (true) {
+                // A round adds at most 3 entries (two children and the node itself)
+                if (frontierSize + 3 > frontier.length) {
+                    frontier = Arrays.copyOf(frontier, 2 * frontier.length);
+                }
+                long entry = frontier[0];
+                frontierSize = popFromFrontier(frontier, frontierSize);
+                int index = (int) entry & Integer.MAX_VALUE;
+                boolean plainValue = (entry & PLAIN_VALUE_FLAG) != 0;
+
+                if (plainValue || isDominantLevel(index, largest)) {
+                    if (!plainValue) {
+                        frontierSize = pushChildrenToFrontier(frontier, frontierSize, index, largest);
+                    }
+                    // A lazily deleted value still bounds its subtree, its children are searched but it is skipped
+                    if (tombstoneCount > 0 && isTombstone(tombstones, index)) {
+                        continue;
+                    }
+                    remaining--;
+                    return heapArray[index];
+                }
+                // The node is worse than its whole subtree, open the subtree and keep the node as a plain value
+                frontierSize = pushChildrenToFrontier(frontier, frontierSize, index, largest);
+                frontierSize = pushToFrontier(frontier, frontierSize, frontierKey(heapArray[index], largest) | index | PLAIN_VALUE_FLAG);
+            }
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.Main.MaxMinHeap;
+
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable view of a MaxMinHeap at the moment MaxMinHeap.snapshot() was called.
+ *
+ * The values are kept in the heap array order, in chunks of 2^MaxMinHeap.SNAPSHOT_CHUNK_SHIFT values. Chunks that
+ * did not change between two snapshots of the same heap are the same arrays, shared by both. Chunks are never
+ * written once a snapshot holds them, so a snapshot can be read by any amount of threads without locks while the
+ * heap it came from keeps changing.
+ *
+ * The snapshot keeps the MaxMinHeap order, so peekMax / peekMin are O(1) like on the heap itself.
+ *
+ */
+
+public final class MaxMinHeapSnapshot {
+
+    final int[][] chunks;
+    private final int size;
+
+    MaxMinHeapSnapshot(int[][] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    public int size() {
+        // Returns the number of values in the snapshot
+        return size;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if the snapshot holds no values
+        return size == 0;
+    }
+
+    public int get(int index) {
+        /*
+        Returns the value of a heap array index
+        Throws IndexOutOfBoundsException if the index is not in the snapshot
+
+        @param index - Heap array index
+         */
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Requested index [" + index + "] not in snapshot of size " + size + ".");
+        }
+        return chunks[index >>> MaxMinHeap.SNAPSHOT_CHUNK_SHIFT][index & ((1 << MaxMinHeap.SNAPSHOT_CHUNK_SHIFT) - 1)];
+    }
+
+    public int peekMax() {
+        /*
+        Returns the maximal value of the snapshot (the root)
+        Throws EmptyHeapException if the snapshot is empty
+         */
+        if (size == 0) {
+            throw new EmptyHeapException();
+        }
+        return chunks[0][0];
+    }
+
+    public int peekMin() {
+        /*
+        Returns the minimal value of the snapshot (on index 0 / 1 / 2, all of them in the first chunk)
+        Throws EmptyHeapException if the snapshot is empty
+         */
+        if (size == 0) {
+            throw new EmptyHeapException();
+        }
+        int[] top = chunks[0];
+        if (size == 1) {
+            return top[0];
+        }
+        if (size == 2) {
+            return top[1];
+        }
+        return Math.min(top[1], top[2]);
+    }
+
+    public void forEach(IntConsumer action) {
+        /*
+        Passes every value of the snapshot to an action, in heap array order (not sorted), without any allocation
+
+        @param action - Action that gets the values
+         */
+        for (int[] chunk : chunks) {
+            for (int value : chunk) {
+                action.accept(value);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        // Returns a copy of the values in heap array order
+        int[] values = new int[size];
+        int offset = 0;
+        for (int[] chunk : chunks) {
+            System.arraycopy(chunk, 0, values, offset, chunk.length);
+            offset += chunk.length;
+        }
+        return values;
+    }
+}
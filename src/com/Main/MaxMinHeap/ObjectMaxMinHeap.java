@@ -0,0 +1,529 @@
+package com.Main.MaxMinHeap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * The generic sibling of MaxMinHeap - same MaxMinHeap specifications and the same public methods,
+ * but the values are objects ordered by a Comparator given on construction.
+ *
+ * The comparator is kept in a final field and every comparison goes through it, so the call sites in
+ * heapifyMinLevel / heapifyMaxLevel see a single receiver type and stay monomorphic for the JIT.
+ *
+ * @param <T> - type of the values kept in the heap
+ */
+
+public class ObjectMaxMinHeap<T> implements DoubleEndedHeap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    final Comparator<? super T> comparator;
+    Object[] heapArray;
+    int heapSize;
+
+    @SuppressWarnings("unchecked")
+    public ObjectMaxMinHeap() {
+        // Constructor to create the object without any input, values are compared by their natural ordering
+        this((Comparator<? super T>) Comparator.naturalOrder());
+    }
+
+    public ObjectMaxMinHeap(Comparator<? super T> comparator) {
+        // Constructor to create the object without any input, values are compared by the given comparator
+        this.comparator = comparator;
+        this.heapArray = new Object[DEFAULT_CAPACITY];
+        this.heapSize = 0;
+    }
+
+    public ObjectMaxMinHeap(Collection<? extends T> values, Comparator<? super T> comparator) {
+        // Constructor from a given collection (the values are copied, buildHeap is not called)
+        this.comparator = comparator;
+        this.heapArray = Arrays.copyOf(values.toArray(), Math.max(values.size(), DEFAULT_CAPACITY), Object[].class);
+        this.heapSize = values.size();
+    }
+
+    public int size() {
+        // Returns the number of values currently in the heap
+        return heapSize;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if the heap holds no values
+        return heapSize == 0;
+    }
+
+    public void buildHeap() {
+        /*
+        This method uses the heapify method and run it on the heapArray attribute
+        That way it fixes it to match the accepted criteria as a MaxMinHeap
+         */
+        int size = heapSize;
+        int LastPossibleWithChildrenIndex = size / 2 - 1; // Parent of the last index (-1 for an empty heap)
+        // Heapify all the nodes that can have children
+        for (int index = LastPossibleWithChildrenIndex; index >= 0; index--) {
+            siftDown(index);
+        }
+    }
+
+    public void heapify(int indexToHeapify) {
+        /*
+        This method is the "routine" method of the MaxMinHeap
+        It is used to correct errors assuming that all lower levels work correctly
+        This method is separated to 2 sub-methods based on the level of the given index (Max/Min level depth)
+
+        @param indexToHeapify - literaly the index to run Heapify on
+         */
+
+        // Check if heapify index exist in the array
+        if (!indexExistInHeap(indexToHeapify)) {
+            throw new IndexOutOfBoundsException("Index for Heapify [" + indexToHeapify + "] not in heap of size " + heapSize + ".");
+        }
+
+        siftDown(indexToHeapify);
+    }
+
+    private void siftDown(int index) {
+        /*
+        Heapify without the bounds check, for the internal callers that only pass existing indices
+         */
+        if (isMinLevel(index)) {
+            heapifyMinLevel(index);
+        } else {
+            heapifyMaxLevel(index);
+        }
+    }
+
+    void heapifyMinLevel(int index) {
+        /*
+        Sifts the value of a min level index down, iteratively and with a "hole" - the sifted value is held aside and
+        every smaller descendant moves up into the hole with a single write, instead of a swap per step.
+        A node whose four grandchildren all exist takes the unchecked fast path: its children are max level nodes that
+        are not smaller than their own children, so only the grandchildren can hold its smallest descendant.
+         */
+        Object[] heap = heapArray;
+        int size = heapSize;
+        int withChildrenBound = size >>> 1; // Indices below it have at least one child
+        int withAllGrandChildrenBound = (size - 3) >> 2; // Indices below it have all four grandchildren
+        Object value = heap[index];
+
+        while (index < withChildrenBound) {
+            int smallestIndex;
+            Object smallestValue;
+            if (index < withAllGrandChildrenBound) {
+                int grandChild = 4 * index + 3;
+                smallestIndex = grandChild;
+                smallestValue = heap[grandChild];
+                for (int candidate = grandChild + 1; candidate <= grandChild + 3; candidate++) {
+                    if (compare(heap[candidate], smallestValue) < 0) {
+                        smallestIndex = candidate;
+                        smallestValue = heap[candidate];
+                    }
+                }
+            } else {
+                smallestIndex = getSmallestIndexUpToGrandChild(index);
+                smallestValue = heap[smallestIndex];
+            }
+
+            if (compare(smallestValue, value) >= 0) {
+                break;
+            }
+            heap[index] = smallestValue;
+            boolean isGrandChild = smallestIndex > 2 * index + 2;
+            index = smallestIndex;
+            if (!isGrandChild) {
+                // min child is a child of i, the value takes its place and is done
+                break;
+            }
+            // The value went down to a min level grandchild, switch it with the max level parent if it is bigger
+            int parentIndex = (index - 1) >> 1;
+            if (compare(value, heap[parentIndex]) > 0) {
+                Object parentValue = heap[parentIndex];
+                heap[parentIndex] = value;
+                value = parentValue;
+            }
+        }
+        heap[index] = value;
+    }
+
+    void heapifyMaxLevel(int index) {
+        /*
+        Sifts the value of a max level index down, the mirror image of heapifyMinLevel
+         */
+        Object[] heap = heapArray;
+        int size = heapSize;
+        int withChildrenBound = size >>> 1; // Indices below it have at least one child
+        int withAllGrandChildrenBound = (size - 3) >> 2; // Indices below it have all four grandchildren
+        Object value = heap[index];
+
+        while (index < withChildrenBound) {
+            int largestIndex;
+            Object largestValue;
+            if (index < withAllGrandChildrenBound) {
+                int grandChild = 4 * index + 3;
+                largestIndex = grandChild;
+                largestValue = heap[grandChild];
+                for (int candidate = grandChild + 1; candidate <= grandChild + 3; candidate++) {
+                    if (compare(heap[candidate], largestValue) > 0) {
+                        largestIndex = candidate;
+                        largestValue = heap[candidate];
+                    }
+                }
+            } else {
+                largestIndex = getLargestIndexUpToGrandChild(index);
+                largestValue = heap[largestIndex];
+            }
+
+            if (compare(largestValue, value) <= 0) {
+                break;
+            }
+            heap[index] = largestValue;
+            boolean isGrandChild = largestIndex > 2 * index + 2;
+            index = largestIndex;
+            if (!isGrandChild) {
+                // max child is a child of i, the value takes its place and is done
+                break;
+            }
+            // The value went down to a max level grandchild, switch it with the min level parent if it is smaller
+            int parentIndex = (index - 1) >> 1;
+            if (compare(value, heap[parentIndex]) < 0) {
+                Object parentValue = heap[parentIndex];
+                heap[parentIndex] = value;
+                value = parentValue;
+            }
+        }
+        heap[index] = value;
+    }
+
+    public T heapExtractMax() {
+        /*
+        This method extracts and returns the maximal value found in the heap (the root of the heap)
+        It is done by exchanging places with the last index of the heap and then running heapify on the heap root
+        Throws EmptyHeapException if the heap is empty
+         */
+        int maxIndex = getHeapMaxIndex();
+        if (maxIndex == -1) {
+            throw new EmptyHeapException();
+        }
+
+        T max = removeAt(maxIndex);
+        return max;
+    }
+
+    public T heapExtractMin() {
+        /*
+        This method extracts and returns the minimal value found in the heap
+        It is done by exchanging places with the last index of the heap and then running heapify on the original index
+        Throws EmptyHeapException if the heap is empty
+         */
+        int minIndex = getHeapMinIndex();
+        if (minIndex == -1) {
+            throw new EmptyHeapException();
+        }
+
+        T min = removeAt(minIndex);
+        return min;
+    }
+
+    public void heapInsert(T newValue) {
+        /*
+        Inserts a new value to the end of the array representing the heap
+        afterwards the method fixes the new value position to match the MaxMinHeap criteria by using bubbleUp method
+
+        @param newValue - New value to be inserted to the heap
+         */
+
+        append(newValue);
+        int newValueIndex = getLastHeapIndex();
+        bubbleUp(newValueIndex); // Uses bubbleUp method to fix the position of the new inserted value
+    }
+
+    public void heapDelete(int index) {
+        /*
+        Deletes a certain value from the heap by exchanging places with the last value of the heap and then it removes that value
+        After that it fixes the heap by running heapify on it
+        Throws IndexOutOfBoundsException if the index is not in the heap
+
+        @param index - Index to delete
+         */
+        if (!indexExistInHeap(index)) {
+            throw new IndexOutOfBoundsException("Requested index [" + index + "] not in heap of size " + heapSize + " (notice that indices start from 0).");
+        }
+
+        removeAt(index);
+    }
+
+    private static double log2(int x) {
+        /*
+        This method is used to get the mathematic result of log with base 2 as a double
+
+        @param x - value to evaluate it's log of base 2
+         */
+        return (Math.log(x) / Math.log(2));
+    }
+
+    private int getLastHeapIndex() {
+        /* 
+        Returns the index of the last position in the array with value.
+         */
+        return heapSize - 1;
+    }
+
+    private T removeAt(int index) {
+        /*
+        Removes the value in a certain index by moving the last value of the heap into its place
+        The moved value may belong above or below that place, so it is bubbled up and then heapified down
+
+        @param index - Index to remove, must exist in the heap
+         */
+        T removedValue = elementAt(index);
+        heapSize--;
+        if (index < heapSize) {
+            heapArray[index] = heapArray[heapSize];
+            heapArray[heapSize] = null; // Release the moved reference for the garbage collector
+            bubbleUp(index);
+            siftDown(index);
+        } else {
+            heapArray[heapSize] = null; // Release the removed value for the garbage collector
+        }
+        return removedValue;
+    }
+
+    private void append(T value) {
+        /*
+        Adds a value after the last position of the heap, growing the backing array by half when it is full
+         */
+        if (heapSize == heapArray.length) {
+            heapArray = Arrays.copyOf(heapArray, Math.max(DEFAULT_CAPACITY, heapSize + (heapSize >> 1)));
+        }
+        heapArray[heapSize++] = value;
+    }
+
+    private static int getHeapDepthOfIndex(int index) {
+        /*
+        This method returns the depth of a certain index in the heap tree representation
+        Notice that indices in Java start from 0 so the given index value is increased by 1
+        The depth is floor(log2(index + 1)), the position of the highest set bit of index + 1
+
+        @param index - Index to check depth of
+         */
+        return 31 - Integer.numberOfLeadingZeros(index + 1);
+    }
+
+    private static boolean isMinLevel(int index) {
+        /*
+        Returns true if the index is on a min level (odd depth) - the depth is odd exactly when index + 1 has an even
+        amount of leading zero bits
+         */
+        return (Integer.numberOfLeadingZeros(index + 1) & 1) == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int index) {
+        /*
+        Returns the value stored in a certain index of the heap array
+         */
+        return (T) heapArray[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object firstValue, Object secondValue) {
+        /*
+        Compares two values of the heap array using the heap comparator
+         */
+        return comparator.compare((T) firstValue, (T) secondValue);
+    }
+
+    private int getSmallestIndexUpToGrandChild(int parentIndex) {
+        /*
+        This method returns the index of the descendant with the minimal value up to a grand child for a given parent node (2 depths)
+        Used for the nodes near the bottom of the heap, where not all the children / grandchildren exist - the children
+        and the grandchildren are each a contiguous range of indices, so each range is cut at the heap size once.
+        The parent must have at least one child.
+         */
+        Object[] heap = heapArray;
+        int size = heapSize;
+        int leftChildIndex = 2 * parentIndex + 1;
+        int smallestIndex = leftChildIndex;
+        Object smallestValue = heap[leftChildIndex];
+
+        int rightChildIndex = leftChildIndex + 1;
+        if (rightChildIndex < size && compare(heap[rightChildIndex], smallestValue) < 0) {
+            smallestIndex = rightChildIndex;
+            smallestValue = heap[rightChildIndex];
+        }
+        // The grandchildren exist only if the left child has children
+        if (leftChildIndex < (size >>> 1)) {
+            int grandChildrenEnd = Math.min(size, 2 * leftChildIndex + 5);
+            for (int grandChild = 2 * leftChildIndex + 1; grandChild < grandChildrenEnd; grandChild++) {
+                if (compare(heap[grandChild], smallestValue) < 0) {
+                    smallestIndex = grandChild;
+                    smallestValue = heap[grandChild];
+                }
+            }
+        }
+        return smallestIndex;
+    }
+
+    private int getLargestIndexUpToGrandChild(int parentIndex) {
+        /*
+        This method returns the index of the descendant with the maximal value up to a grand child for a given parent node (2 depths)
+        Used for the nodes near the bottom of the heap, where not all the children / grandchildren exist - the children
+        and the grandchildren are each a contiguous range of indices, so each range is cut at the heap size once.
+        The parent must have at least one child.
+         */
+        Object[] heap = heapArray;
+        int size = heapSize;
+        int leftChildIndex = 2 * parentIndex + 1;
+        int largestIndex = leftChildIndex;
+        Object largestValue = heap[leftChildIndex];
+
+        int rightChildIndex = leftChildIndex + 1;
+        if (rightChildIndex < size && compare(heap[rightChildIndex], largestValue) > 0) {
+            largestIndex = rightChildIndex;
+            largestValue = heap[rightChildIndex];
+        }
+        // The grandchildren exist only if the left child has children
+        if (leftChildIndex < (size >>> 1)) {
+            int grandChildrenEnd = Math.min(size, 2 * leftChildIndex + 5);
+            for (int grandChild = 2 * leftChildIndex + 1; grandChild < grandChildrenEnd; grandChild++) {
+                if (compare(heap[grandChild], largestValue) > 0) {
+                    largestIndex = grandChild;
+                    largestValue = heap[grandChild];
+                }
+            }
+        }
+        return largestIndex;
+    }
+
+    private boolean indexExistInHeap(int index) {
+        /*
+         returns true if index exists in the array representing the heap (value between 0 and heap array size)
+         */
+        return index >= 0 & index < heapSize;
+    }
+
+    private int getHeapMaxIndex() {
+        /*
+        returns the index of the node with Maximum value in the heap (root of course in the MaxMinHeap)
+        If the heap is empty -1 is returned
+         */
+        if (heapSize > 0) {
+            return 0;
+        }
+        return -1;
+    }
+
+    private int getHeapMinIndex() {
+        /*
+        returns the index of the node with Minimum value in the heap (1st / 2nd depth layer only needs to be checked)
+        If the heap is empty -1 is returned
+         */
+
+        T min = null;
+        int minIndex = -1;
+
+        // We check the first, second, third indices in case the heap is very small
+        if (indexExistInHeap(0)) {
+            min = elementAt(0);
+            minIndex = 0;
+
+            // Check left Child
+            if (indexExistInHeap(1)) {
+                if (comparator.compare(elementAt(1), min) < 0) {
+                    min = elementAt(1);
+                    minIndex = 1;
+                }
+            }
+
+            // Check right Child
+            if (indexExistInHeap(2)) {
+                if (comparator.compare(elementAt(2), min) < 0) {
+                    minIndex = 2;
+                }
+            }
+        }
+        return minIndex;
+    }
+
+    private void bubbleUp(int index) {
+        /*
+        This method is responsible for moving a certain value up if it is not positioned correctly to match the
+        MaxMinHeap criteria.
+        If the value belongs on the other kind of level it first moves to its parent, then it climbs grandparent by
+        grandparent along its own kind of levels. The loop moves the passed values down into a "hole" and writes
+        the bubbled value once, at its final place.
+
+        @param index - Index to bubble up
+         */
+        if (index == 0) {
+            return;
+        }
+        Object[] heap = heapArray;
+        Object value = heap[index];
+        boolean minLevel = isMinLevel(index);
+
+        // A min level value bigger than its max level parent (or the opposite) switches with the parent first
+        int parentIndex = (index - 1) >> 1;
+        int parentOrder = compare(value, heap[parentIndex]);
+        if (minLevel ? parentOrder > 0 : parentOrder < 0) {
+            heap[index] = heap[parentIndex];
+            index = parentIndex;
+            minLevel = !minLevel;
+        }
+
+        // Then it climbs the levels of its kind, the grandparent of index is (index - 3) / 4
+        if (minLevel) {
+            while (index > 2) {
+                int grandParentIndex = (index - 3) >> 2;
+                if (compare(value, heap[grandParentIndex]) >= 0) {
+                    break;
+                }
+                heap[index] = heap[grandParentIndex];
+                index = grandParentIndex;
+            }
+        } else {
+            while (index > 2) {
+                int grandParentIndex = (index - 3) >> 2;
+                if (compare(value, heap[grandParentIndex]) <= 0) {
+                    break;
+                }
+                heap[index] = heap[grandParentIndex];
+                index = grandParentIndex;
+            }
+        }
+        heap[index] = value;
+    }
+
+    public void printHeap() {
+        /*
+        Prints the heap to the user, one time as the raw array, second time as a tree showing each layer
+         */
+        int arraySize = heapSize;
+        int deepestLevel = getHeapDepthOfIndex(arraySize - 1);
+        double layerLog2;
+        System.out.println("\nArray representation:");
+        System.out.println(Arrays.toString(Arrays.copyOf(heapArray, heapSize)));
+
+        System.out.print("\nTree layers representation:");
+
+        for (int i = 0; i < arraySize; i++) {
+
+            layerLog2 = log2(i + 1);
+
+            if (layerLog2 == (int) layerLog2) {
+                if (getHeapDepthOfIndex(i) % 2 == 0) {
+                    System.out.print("\nMax: ");
+                } else {
+                    System.out.print("\nMin: ");
+                }
+
+                for (int j = 0; j < (deepestLevel - getHeapDepthOfIndex(i)); j++) {
+                    System.out.print("  ");
+                }
+
+            }
+            System.out.print(heapArray[i] + "  ");
+        }
+        System.out.println();
+    }
+}
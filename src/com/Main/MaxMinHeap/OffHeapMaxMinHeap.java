@@ -0,0 +1,520 @@
+package com.Main.MaxMinHeap;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * An off heap MaxMinHeap of int values for heaps of billions of values.
+ *
+ * Same MaxMinHeap specifications and the same heapify / bubbleUp logic as MaxMinHeap, but:
+ * - the heap array lives outside of the Java heap, in direct ByteBuffer pages of up to 2^27 values (512MB), so the GC
+ *   never scans or copies it. Only the last page grows by doubling from 2^10 values, the full pages before it are
+ *   never copied
+ * - indices are long, so the heap is not limited to the 2^31 values of a Java array
+ * - the memory is freed explicitly by close() (or by the GC once the heap is unreachable, if close was not called)
+ *
+ * The heap is not thread safe, and must not be used after close().
+ *
+ */
+
+public class OffHeapMaxMinHeap implements AutoCloseable {
+
+    static final int DEFAULT_PAGE_SHIFT = 27;
+    static final int FIRST_PAGE_VALUES = 1 << 10;
+    static final int VALUE_BYTES = Integer.BYTES;
+
+    final int pageShift;
+    private final long pageMask;
+    ByteBuffer[] pages;
+    int pageCount;
+    long heapSize;
+    private boolean closed;
+
+    public OffHeapMaxMinHeap() {
+        // Constructor to create the object without any input, pages are allocated as the heap grows
+        this(DEFAULT_PAGE_SHIFT);
+    }
+
+    OffHeapMaxMinHeap(int pageShift) {
+        // Constructor with a given page size of 2^pageShift values (small pages are used to test the paging)
+        this.pageShift = pageShift;
+        this.pageMask = (1L << pageShift) - 1;
+        this.pages = new ByteBuffer[8];
+        this.pageCount = 0;
+        this.heapSize = 0;
+    }
+
+    OffHeapMaxMinHeap(int pageShift, ByteBuffer[] pages, int pageCount, long heapSize) {
+        /*
+        Constructor that takes ownership of existing pages that already hold a valid heap (see HeapSnapshot)
+        Every page but the last must have room for 2^pageShift values, the last one for at least its values (it is
+        grown on append like any last page), the byte order of each page is kept as is
+         */
+        this.pageShift = pageShift;
+        this.pageMask = (1L << pageShift) - 1;
+        this.pages = Arrays.copyOf(pages, Math.max(8, pages.length));
+        this.pageCount = pageCount;
+        this.heapSize = heapSize;
+    }
+
+    public long size() {
+        // Returns the number of values currently in the heap
+        return heapSize;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if the heap holds no values
+        return heapSize == 0;
+    }
+
+    public void buildHeap() {
+        /*
+        Runs heapify bottom up on every index that has children
+        Meant to be used after appending unordered values with appendUnordered
+         */
+        ensureOpen();
+        for (long index = heapSize / 2 - 1; index >= 0; index--) {
+            heapify(index);
+        }
+    }
+
+    public void appendUnordered(int value) {
+        /*
+        Adds a value to the end of the heap array WITHOUT fixing its position, buildHeap must be called before any
+        other operation - loading many values this way and building once is O(n) instead of O(n log n)
+         */
+        ensureOpen();
+        append(value);
+    }
+
+    public void heapify(long indexToHeapify) {
+        /*
+        This method is the "routine" method of the MaxMinHeap
+        It is used to correct errors assuming that all lower levels work correctly
+        Throws IndexOutOfBoundsException if the index is not in the heap
+
+        @param indexToHeapify - the index to run Heapify on
+         */
+        ensureOpen();
+        if (!indexExistInHeap(indexToHeapify)) {
+            throw new IndexOutOfBoundsException("Index for Heapify [" + indexToHeapify + "] not in heap of size " + heapSize + ".");
+        }
+
+        siftDown(indexToHeapify);
+    }
+
+    public int heapExtractMax() {
+        /*
+        Extracts and returns the maximal value found in the heap (the root of the heap)
+        Throws EmptyHeapException if the heap is empty
+         */
+        ensureOpen();
+        if (heapSize == 0) {
+            throw new EmptyHeapException();
+        }
+        return removeAt(0);
+    }
+
+    public int heapExtractMin() {
+        /*
+        Extracts and returns the minimal value found in the heap
+        Throws EmptyHeapException if the heap is empty
+         */
+        ensureOpen();
+        if (heapSize == 0) {
+            throw new EmptyHeapException();
+        }
+        return removeAt(getHeapMinIndex());
+    }
+
+    public int peekMax() {
+        /*
+        Returns the maximal value of the heap without removing it
+        Throws EmptyHeapException if the heap is empty
+         */
+        ensureOpen();
+        if (heapSize == 0) {
+            throw new EmptyHeapException();
+        }
+        return get(0);
+    }
+
+    public int peekMin() {
+        /*
+        Returns the minimal value of the heap without removing it
+        Throws EmptyHeapException if the heap is empty
+         */
+        ensureOpen();
+        if (heapSize == 0) {
+            throw new EmptyHeapException();
+        }
+        return get(getHeapMinIndex());
+    }
+
+    public void heapInsert(int newValue) {
+        /*
+        Inserts a new value to the end of the heap array and bubbles it up to its position
+
+        @param newValue - New value to be inserted to the heap
+         */
+        ensureOpen();
+        append(newValue);
+        bubbleUp(heapSize - 1);
+    }
+
+    public void heapDelete(long index) {
+        /*
+        Deletes the value in a certain index of the heap
+        Throws IndexOutOfBoundsException if the index is not in the heap
+
+        @param index - Index to delete
+         */
+        ensureOpen();
+        if (!indexExistInHeap(index)) {
+            throw new IndexOutOfBoundsException("Requested index [" + index + "] not in heap of size " + heapSize + ".");
+        }
+        removeAt(index);
+    }
+
+    @Override
+    public void close() {
+        /*
+        Frees all the off heap memory of the heap, the heap can not be used afterwards
+         */
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int page = 0; page < pageCount; page++) {
+            DirectMemory.free(pages[page]);
+            pages[page] = null;
+        }
+        pageCount = 0;
+        heapSize = 0;
+    }
+
+    private void siftDown(long index) {
+        /*
+        Heapify without the bounds check, for the internal callers that only pass existing indices
+         */
+        if (isMinLevel(index)) {
+            heapifyMinLevel(index);
+        } else {
+            heapifyMaxLevel(index);
+        }
+    }
+
+    private void heapifyMinLevel(long index) {
+        /*
+        Sifts the value of a min level index down with a "hole", the same steps as MaxMinHeap.heapifyMinLevel - the
+        sifted value is held aside, every smaller descendant moves up into the hole, and the held value is written
+        once at its final index
+         */
+        long size = heapSize;
+        long withChildrenBound = size >>> 1; // Indices below it have at least one child
+        long withAllGrandChildrenBound = (size - 3) >> 2; // Indices below it have all four grandchildren
+        int value = get(index);
+
+        while (index < withChildrenBound) {
+            long smallestIndex;
+            int smallestValue;
+            if (index < withAllGrandChildrenBound) {
+                long grandChild = 4 * index + 3;
+                smallestIndex = grandChild;
+                smallestValue = get(grandChild);
+                for (long candidate = grandChild + 1; candidate <= grandChild + 3; candidate++) {
+                    int candidateValue = get(candidate);
+                    if (candidateValue < smallestValue) {
+                        smallestIndex = candidate;
+                        smallestValue = candidateValue;
+                    }
+                }
+            } else {
+                smallestIndex = getSmallestIndexUpToGrandChild(index);
+                smallestValue = get(smallestIndex);
+            }
+
+            if (smallestValue >= value) {
+                break;
+            }
+            set(index, smallestValue);
+            boolean isGrandChild = smallestIndex > 2 * index + 2;
+            index = smallestIndex;
+            if (!isGrandChild) {
+                // min child is a child of i, the value takes its place and is done
+                break;
+            }
+            // The value went down to a min level grandchild, switch it with the max level parent if it is bigger
+            long parentIndex = (index - 1) >> 1;
+            int parentValue = get(parentIndex);
+            if (value > parentValue) {
+                set(parentIndex, value);
+                value = parentValue;
+            }
+        }
+        set(index, value);
+    }
+
+    private void heapifyMaxLevel(long index) {
+        /*
+        Sifts the value of a max level index down, the mirror image of heapifyMinLevel
+         */
+        long size = heapSize;
+        long withChildrenBound = size >>> 1; // Indices below it have at least one child
+        long withAllGrandChildrenBound = (size - 3) >> 2; // Indices below it have all four grandchildren
+        int value = get(index);
+
+        while (index < withChildrenBound) {
+            long largestIndex;
+            int largestValue;
+            if (index < withAllGrandChildrenBound) {
+                long grandChild = 4 * index + 3;
+                largestIndex = grandChild;
+                largestValue = get(grandChild);
+                for (long candidate = grandChild + 1; candidate <= grandChild + 3; candidate++) {
+                    int candidateValue = get(candidate);
+                    if (candidateValue > largestValue) {
+                        largestIndex = candidate;
+                        largestValue = candidateValue;
+                    }
+                }
+            } else {
+                largestIndex = getLargestIndexUpToGrandChild(index);
+                largestValue = get(largestIndex);
+            }
+
+            if (largestValue <= value) {
+                break;
+            }
+            set(index, largestValue);
+            boolean isGrandChild = largestIndex > 2 * index + 2;
+            index = largestIndex;
+            if (!isGrandChild) {
+                // max child is a child of i, the value takes its place and is done
+                break;
+            }
+            // The value went down to a max level grandchild, switch it with the min level parent if it is smaller
+            long parentIndex = (index - 1) >> 1;
+            int parentValue = get(parentIndex);
+            if (value < parentValue) {
+                set(parentIndex, value);
+                value = parentValue;
+            }
+        }
+        set(index, value);
+    }
+
+    private void bubbleUp(long index) {
+        /*
+        Moves a value up if it is not positioned correctly, the same steps as MaxMinHeap.bubbleUp
+        If the value belongs on the other kind of level it first moves to its parent, then it climbs grandparent by
+        grandparent along its own kind of levels. The passed values move down into a "hole", and the bubbled value is
+        written once, at its final place.
+         */
+        if (index == 0) {
+            return;
+        }
+        int value = get(index);
+        boolean minLevel = isMinLevel(index);
+
+        // A min level value bigger than its max level parent (or the opposite) switches with the parent first
+        long parentIndex = (index - 1) >> 1;
+        int parentValue = get(parentIndex);
+        if (minLevel ? value > parentValue : value < parentValue) {
+            set(index, parentValue);
+            index = parentIndex;
+            minLevel = !minLevel;
+        }
+
+        // Then it climbs the levels of its kind, the grandparent of index is (index - 3) / 4
+        if (minLevel) {
+            while (index > 2) {
+                long grandParentIndex = (index - 3) >> 2;
+                int grandParentValue = get(grandParentIndex);
+                if (value >= grandParentValue) {
+                    break;
+                }
+                set(index, grandParentValue);
+                index = grandParentIndex;
+            }
+        } else {
+            while (index > 2) {
+                long grandParentIndex = (index - 3) >> 2;
+                int grandParentValue = get(grandParentIndex);
+                if (value <= grandParentValue) {
+                    break;
+                }
+                set(index, grandParentValue);
+                index = grandParentIndex;
+            }
+        }
+        set(index, value);
+    }
+
+    private int removeAt(long index) {
+        /*
+        Removes the value in a certain index by moving the last value of the heap into its place
+        The moved value may belong above or below that place, so it is bubbled up and then heapified down
+         */
+        int removedValue = get(index);
+        long lastIndex = heapSize - 1;
+        set(index, get(lastIndex));
+        heapSize--;
+        if (index < heapSize) {
+            bubbleUp(index);
+            siftDown(index);
+        }
+        return removedValue;
+    }
+
+    private long getSmallestIndexUpToGrandChild(long parentIndex) {
+        // Returns the index of the smallest child / grandchild of a node that has children
+        long leftChildIndex = 2 * parentIndex + 1;
+        long smallestIndex = leftChildIndex;
+        int smallestValue = get(leftChildIndex);
+
+        // Right child
+        if (leftChildIndex + 1 < heapSize && get(leftChildIndex + 1) < smallestValue) {
+            smallestIndex = leftChildIndex + 1;
+            smallestValue = get(smallestIndex);
+        }
+        // The (up to) 4 grandchildren are consecutive
+        long lastCandidate = Math.min(4 * parentIndex + 6, heapSize - 1);
+        for (long candidate = 4 * parentIndex + 3; candidate <= lastCandidate; candidate++) {
+            int candidateValue = get(candidate);
+            if (candidateValue < smallestValue) {
+                smallestIndex = candidate;
+                smallestValue = candidateValue;
+            }
+        }
+        return smallestIndex;
+    }
+
+    private long getLargestIndexUpToGrandChild(long parentIndex) {
+        // Returns the index of the largest child / grandchild of a node that has children
+        long leftChildIndex = 2 * parentIndex + 1;
+        long largestIndex = leftChildIndex;
+        int largestValue = get(leftChildIndex);
+
+        // Right child
+        if (leftChildIndex + 1 < heapSize && get(leftChildIndex + 1) > largestValue) {
+            largestIndex = leftChildIndex + 1;
+            largestValue = get(largestIndex);
+        }
+        // The (up to) 4 grandchildren are consecutive
+        long lastCandidate = Math.min(4 * parentIndex + 6, heapSize - 1);
+        for (long candidate = 4 * parentIndex + 3; candidate <= lastCandidate; candidate++) {
+            int candidateValue = get(candidate);
+            if (candidateValue > largestValue) {
+                largestIndex = candidate;
+                largestValue = candidateValue;
+            }
+        }
+        return largestIndex;
+    }
+
+    private long getHeapMinIndex() {
+        // Returns the index of the minimal value of a non empty heap (root or one of its children)
+        long minIndex = 0;
+        if (heapSize > 1 && get(1) < get(minIndex)) {
+            minIndex = 1;
+        }
+        if (heapSize > 2 && get(2) < get(minIndex)) {
+            minIndex = 2;
+        }
+        return minIndex;
+    }
+
+    private static boolean isMinLevel(long index) {
+        // Depth of an index is floor(log2(index + 1)), odd depths are min levels
+        return ((63 - Long.numberOfLeadingZeros(index + 1)) & 1) == 1;
+    }
+
+    private boolean indexExistInHeap(long index) {
+        return index >= 0 && index < heapSize;
+    }
+
+    int get(long index) {
+        return pages[(int) (index >>> pageShift)].getInt((int) (index & pageMask) * VALUE_BYTES);
+    }
+
+    private void set(long index, int value) {
+        pages[(int) (index >>> pageShift)].putInt((int) (index & pageMask) * VALUE_BYTES, value);
+    }
+
+    private void append(int value) {
+        /*
+        Adds a value after the last position of the heap
+        A new page starts with room for FIRST_PAGE_VALUES values and is doubled (copied) while it is the last page,
+        up to its full 2^pageShift values - a small heap only holds a small buffer, and the full pages before the
+        last one are never copied
+         */
+        int page = (int) (heapSize >>> pageShift);
+        int offsetBytes = (int) (heapSize & pageMask) * VALUE_BYTES;
+        if (page == pageCount) {
+            if (pageCount == pages.length) {
+                pages = Arrays.copyOf(pages, pageCount * 2);
+            }
+            pages[pageCount++] = allocatePage(Math.min(FIRST_PAGE_VALUES, 1 << pageShift));
+        } else if (offsetBytes == pages[page].capacity()) {
+            // The bytes are copied as they are, so the grown page keeps the byte order of the old one
+            int grownValues = (int) Math.min(2L * offsetBytes / VALUE_BYTES, 1L << pageShift);
+            ByteBuffer grown = allocatePage(grownValues).order(pages[page].order());
+            grown.put(pages[page].duplicate().clear()).clear();
+            DirectMemory.free(pages[page]);
+            pages[page] = grown;
+        }
+        set(heapSize++, value);
+    }
+
+    private static ByteBuffer allocatePage(int values) {
+        return ByteBuffer.allocateDirect(values * VALUE_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Heap was closed.");
+        }
+    }
+
+    /**
+     * Frees direct buffers right away instead of waiting for the GC, through sun.misc.Unsafe.invokeCleaner
+     * (jdk.unsupported). If it is not available the buffers are simply left to the GC.
+     */
+    private static final class DirectMemory {
+
+        private static final Object UNSAFE;
+        private static final Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                unsafe = theUnsafe.get(null);
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                unsafe = null;
+                invokeCleaner = null;
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        static void free(ByteBuffer buffer) {
+            if (INVOKE_CLEANER == null) {
+                return;
+            }
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException e) {
+                // Left to the GC
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.Main.MaxMinHeap;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread safe, relaxed MaxMinHeap of int values (a "MultiQueue") for many producers and consumers that need
+ * throughput more than an exact global order.
+ *
+ * The values are spread over independent MaxMinHeap shards, each guarded by its own lock that is only ever tried,
+ * never waited for:
+ * - heapInsert puts the value into a random shard (another random shard if the lock is taken)
+ * - heapExtractMax / heapExtractMin look at the max / min of two random shards, and extract from the better of the
+ *   two (two new random shards if its lock is taken)
+ * Every shard publishes its size, max and min in volatile fields after each change, so choosing between two shards
+ * takes no lock. With many more shards than threads, two threads rarely try the same lock.
+ *
+ * Rank error: an extract does not always return the global max / min, but one close to it. With q shards and
+ * uniformly random inserts, the two-choice process keeps the shard tops balanced - the value returned by an extract
+ * is expected to be among the O(q) best values of the whole heap, and among the O(q log q) best with high probability
+ * (the analysis of the two-choice MultiQueue by Alistarh et al., "The Power of Choice in Priority Scheduling").
+ * The default of 2 shards per available processor keeps that bound small while lock collisions stay rare.
+ * A value is never lost or returned twice, and an extract only throws EmptyHeapException when every shard is empty.
+ *
+ * The published sizes and bounds of all the shards are stored in a single long array, SHARD_STRIDE longs apart (the
+ * same layout as the slots of ConcurrentMaxMinHeap) - array elements are laid out contiguously, so unlike padding
+ * fields (which the JVM may reorder) the stride keeps the published fields of different shards on different cache
+ * lines.
+ *
+ */
+
+public class RelaxedMaxMinHeap {
+
+    // Default amount of shards per available processor
+    private static final int SHARDS_PER_PROCESSOR = 2;
+    // Random two-choice attempts before an extract falls back to scanning all the shards
+    private static final int RANDOM_ATTEMPTS = 16;
+
+    // Layout of the published fields of a shard - 16 longs (128 bytes) per shard, two cache lines so the adjacent line
+    // prefetcher does not pair two shards either. Cells before the first shard pad it from the array header.
+    static final int SHARD_STRIDE = 16;
+    private static final int SIZE = 0;
+    private static final int BOUNDS = 1; // max in the high 32 bits, min in the low 32 bits
+
+    private final Shard[] shards;
+    // Published size and bounds of every shard, read as volatile without the shard locks
+    private final AtomicLongArray publishedCells;
+
+    public RelaxedMaxMinHeap() {
+        // Constructor with 2 shards for every available processor
+        this(SHARDS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+    }
+
+    public RelaxedMaxMinHeap(int shardCount) {
+        /*
+        @param shardCount - Amount of independent shards, the rank error grows with it and lock collisions shrink
+         */
+        if (shardCount < 2) {
+            throw new IllegalArgumentException("Shard count must be at least 2, got [" + shardCount + "].");
+        }
+        this.shards = new Shard[shardCount];
+        this.publishedCells = new AtomicLongArray((shardCount + 1) * SHARD_STRIDE);
+        for (int i = 0; i < shardCount; i++) {
+            // The first SHARD_STRIDE cells are padding
+            shards[i] = new Shard(publishedCells, (i + 1) * SHARD_STRIDE);
+        }
+    }
+
+    public void heapInsert(int newValue) {
+        /*
+        Inserts a new value into a random shard that is not locked at the moment
+
+        @param newValue - New value to be inserted to the heap
+         */
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Shard shard = shards[random.nextInt(shards.length)];
+            if (shard.lock.tryLock()) {
+                try {
+                    shard.heap.heapInsert(newValue);
+                    shard.publish();
+                    return;
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+        }
+    }
+
+    public int heapExtractMax() {
+        /*
+        Extracts and returns a value close to the maximal value of the heap (see the rank error above)
+        Throws EmptyHeapException if all the shards are empty
+         */
+        return extract(true);
+    }
+
+    public int heapExtractMin() {
+        /*
+        Extracts and returns a value close to the minimal value of the heap (see the rank error above)
+        Throws EmptyHeapException if all the shards are empty
+         */
+        return extract(false);
+    }
+
+    public int size() {
+        // Returns the sum of the published shard sizes, exact only while no other thread changes the heap
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.publishedSize();
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if all the shards were empty when they were looked at
+        for (Shard shard : shards) {
+            if (shard.publishedSize() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int extract(boolean max) {
+        /*
+        Two-choice extract - picks the better top of two random shards and extracts from it if its lock is free
+        After RANDOM_ATTEMPTS rounds without a value (the heap is almost empty, or the locks are busy) the shards are
+        scanned in order from a random start, so an extract never misses the last values of the heap
+         */
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+            Shard first = shards[random.nextInt(shards.length)];
+            Shard second = shards[random.nextInt(shards.length)];
+            Shard better = first.isBetterThan(second, max) ? first : second;
+            if (better.publishedSize() > 0 && better.lock.tryLock()) {
+                try {
+                    if (!better.heap.isEmpty()) {
+                        return better.extract(max);
+                    }
+                } finally {
+                    better.lock.unlock();
+                }
+            }
+        }
+
+        while (true) {
+            boolean sawValues = false;
+            int start = random.nextInt(shards.length);
+            for (int i = 0; i < shards.length; i++) {
+                Shard shard = shards[(start + i) % shards.length];
+                if (shard.publishedSize() == 0) {
+                    continue;
+                }
+                sawValues = true;
+                if (shard.lock.tryLock()) {
+                    try {
+                        if (!shard.heap.isEmpty()) {
+                            return shard.extract(max);
+                        }
+                    } finally {
+                        shard.lock.unlock();
+                    }
+                }
+            }
+            if (!sawValues) {
+                throw new EmptyHeapException();
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * A shard - a MaxMinHeap, its lock, and the first of its cells in the published cells array.
+     */
+    private static final class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+        final MaxMinHeap heap = new MaxMinHeap();
+        final AtomicLongArray publishedCells;
+        final int cell;
+
+        Shard(AtomicLongArray publishedCells, int cell) {
+            this.publishedCells = publishedCells;
+            this.cell = cell;
+        }
+
+        int publishedSize() {
+            return (int) publishedCells.get(cell + SIZE);
+        }
+
+        long publishedBounds() {
+            return publishedCells.get(cell + BOUNDS);
+        }
+
+        boolean isBetterThan(Shard other, boolean max) {
+            /*
+            Compares the published tops of two shards, an empty shard is never better
+             */
+            if (publishedSize() == 0) {
+                return false;
+            }
+            if (other.publishedSize() == 0) {
+                return true;
+            }
+            long bounds = publishedBounds();
+            long otherBounds = other.publishedBounds();
+            return max ? (int) (bounds >> 32) >= (int) (otherBounds >> 32) : (int) bounds <= (int) otherBounds;
+        }
+
+        int extract(boolean max) {
+            // Extracts the max / min of the shard, called only while holding its lock
+            int value = max ? heap.heapExtractMax() : heap.heapExtractMin();
+            publish();
+            return value;
+        }
+
+        void publish() {
+            /*
+            Publishes the size, max and min of the shard heap for the lock free two-choice reads
+            An empty shard keeps the last bounds, readers check the size first
+             */
+            int size = heap.size();
+            if (size > 0) {
+                int maxValue = heap.heapArray[0];
+                int minValue = heap.heapArray[heap.getHeapMinIndex()];
+                publishedCells.set(cell + BOUNDS, ((long) maxValue << 32) | (minValue & 0xFFFFFFFFL));
+            }
+            publishedCells.set(cell + SIZE, size);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.Main.MaxMinHeap;
+
+/**
+ * A RunningQuantile of the median - the lower heap holds the smaller half of the samples (the extra sample of an
+ * odd amount), the upper heap the larger half, so the median is read from the max of the lower heap and the min
+ * of the upper heap in O(1).
+ *
+ */
+
+public class RunningMedian extends RunningQuantile {
+
+    public RunningMedian(int capacity) {
+        /*
+        @param capacity - Maximal amount of samples kept (the sliding window size)
+         */
+        super(0.5, capacity);
+    }
+
+    public double getMedian() {
+        /*
+        Returns the median of the samples, the average of the two middle samples for an even amount
+        Throws EmptyHeapException if there are no samples
+         */
+        int lowerMedian = getQuantile();
+        if (upperHeap.size() < lowerHeap.size()) {
+            return lowerMedian;
+        }
+        int upperMedian = upperHeap.valueOf(upperHeap.getHeapMinHandle());
+        return ((long) lowerMedian + upperMedian) / 2.0;
+    }
+}
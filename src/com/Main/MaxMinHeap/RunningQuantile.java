@@ -0,0 +1,202 @@
+package com.Main.MaxMinHeap;
+
+/**
+ * A streaming quantile of int samples, kept with two min-max heaps:
+ * - the lower heap holds the k smallest samples, k = ceil(quantile * n) (nearest-rank), its max is the quantile
+ * - the upper heap holds all the other samples, its min is the next sample above the quantile
+ * Both ends of both heaps are O(1) to read, so a new sample goes to the right heap by a single comparison, and
+ * keeping the lower heap at exactly k samples takes at most one move of a max / min between the heaps - O(log n).
+ *
+ * The samples are also kept in a ring of <capacity> slots in arrival order, so the structure works as a sliding
+ * window over the last <capacity> added samples: adding a sample evicts the one added <capacity> adds before it
+ * (if it was not removed already). Every sample is addressed by its handle in the heap
+ * it is currently in (see AddressableMaxMinHeap), so evicting or removing any sample is O(log n) as well.
+ *
+ * All the arrays are allocated on construction, add / remove / evict never allocate.
+ *
+ */
+
+public class RunningQuantile {
+
+    // Heap a ring slot is in
+    private static final byte EMPTY_SLOT = 0;
+    private static final byte LOWER = 1;
+    private static final byte UPPER = 2;
+
+    final double quantile;
+    final int capacity;
+
+    final AddressableMaxMinHeap lowerHeap;
+    final AddressableMaxMinHeap upperHeap;
+    // Ring slot of every handle of the lower / upper heap
+    private final int[] lowerHandleSlots;
+    private final int[] upperHandleSlots;
+
+    // Ring of samples in arrival order, sample id <id> lives in slot <id % capacity>
+    private final byte[] slotHeaps;
+    private final int[] slotHandles;
+    private long oldestSampleId;
+    private long nextSampleId;
+
+    public RunningQuantile(double quantile, int capacity) {
+        /*
+        @param quantile - The tracked quantile, between 0 and 1 (0.5 for the median, 0.9 for p90)
+        @param capacity - Maximal amount of samples kept (the sliding window size)
+         */
+        if (!(quantile > 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("Quantile must be in (0, 1], got [" + quantile + "].");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, got [" + capacity + "].");
+        }
+        this.quantile = quantile;
+        this.capacity = capacity;
+        this.lowerHeap = new AddressableMaxMinHeap(capacity);
+        this.upperHeap = new AddressableMaxMinHeap(capacity);
+        this.lowerHandleSlots = new int[capacity];
+        this.upperHandleSlots = new int[capacity];
+        this.slotHeaps = new byte[capacity];
+        this.slotHandles = new int[capacity];
+    }
+
+    public long add(int sample) {
+        /*
+        Adds a sample, the sample added <capacity> adds ago is evicted first if it is still kept
+        Returns the id of the sample, it can be used to remove it later
+
+        @param sample - The new sample
+         */
+        if (nextSampleId - oldestSampleId == capacity) {
+            evictOldest();
+        }
+
+        long sampleId = nextSampleId++;
+        int slot = (int) (sampleId % capacity);
+        if (lowerHeap.isEmpty() || sample <= lowerHeap.valueOf(lowerHeap.getHeapMaxHandle())) {
+            insertToHeap(LOWER, slot, sample);
+        } else {
+            insertToHeap(UPPER, slot, sample);
+        }
+        rebalance();
+        return sampleId;
+    }
+
+    public boolean remove(long sampleId) {
+        /*
+        Removes a sample by the id returned from add
+        Returns false if the sample is no longer kept (it was already removed or evicted)
+
+        @param sampleId - Id of the sample to remove
+         */
+        if (sampleId < oldestSampleId || sampleId >= nextSampleId) {
+            return false;
+        }
+        int slot = (int) (sampleId % capacity);
+        if (slotHeaps[slot] == EMPTY_SLOT) {
+            return false;
+        }
+        removeSlot(slot);
+        rebalance();
+        skipRemovedOldest();
+        return true;
+    }
+
+    public boolean evictOldest() {
+        /*
+        Removes the oldest sample (for eviction by time, when the window is not defined by a sample count)
+        Returns false if there are no samples
+         */
+        skipRemovedOldest();
+        if (oldestSampleId == nextSampleId) {
+            return false;
+        }
+        removeSlot((int) (oldestSampleId % capacity));
+        oldestSampleId++;
+        rebalance();
+        skipRemovedOldest();
+        return true;
+    }
+
+    public int getQuantile() {
+        /*
+        Returns the current quantile - the ceil(quantile * n) smallest sample
+        Throws EmptyHeapException if there are no samples
+         */
+        return lowerHeap.valueOf(lowerHeap.getHeapMaxHandle());
+    }
+
+    public int size() {
+        // Returns the amount of samples currently kept
+        return lowerHeap.size() + upperHeap.size();
+    }
+
+    public boolean isEmpty() {
+        // Returns true if no samples are kept
+        return size() == 0;
+    }
+
+    int lowerTargetSize(int size) {
+        /*
+        Returns the amount of samples the lower heap should hold for a given total amount (nearest-rank)
+         */
+        if (size == 0) {
+            return 0;
+        }
+        return Math.min(size, Math.max(1, (int) Math.ceil(quantile * size)));
+    }
+
+    private void rebalance() {
+        /*
+        Moves samples between the heaps until the lower heap holds exactly its target amount
+        A single add / remove changes the target by at most one, so this is at most one move
+         */
+        int target = lowerTargetSize(size());
+        while (lowerHeap.size() > target) {
+            int handle = lowerHeap.getHeapMaxHandle();
+            int slot = lowerHandleSlots[handle];
+            insertToHeap(UPPER, slot, lowerHeap.delete(handle));
+        }
+        while (lowerHeap.size() < target) {
+            int handle = upperHeap.getHeapMinHandle();
+            int slot = upperHandleSlots[handle];
+            insertToHeap(LOWER, slot, upperHeap.delete(handle));
+        }
+    }
+
+    private void insertToHeap(byte heap, int slot, int sample) {
+        /*
+        Inserts a sample to one of the heaps and links its handle with its ring slot
+         */
+        if (heap == LOWER) {
+            int handle = lowerHeap.heapInsert(sample);
+            lowerHandleSlots[handle] = slot;
+            slotHandles[slot] = handle;
+        } else {
+            int handle = upperHeap.heapInsert(sample);
+            upperHandleSlots[handle] = slot;
+            slotHandles[slot] = handle;
+        }
+        slotHeaps[slot] = heap;
+    }
+
+    private void removeSlot(int slot) {
+        /*
+        Removes the sample of a ring slot from its heap and marks the slot as empty
+         */
+        if (slotHeaps[slot] == LOWER) {
+            lowerHeap.delete(slotHandles[slot]);
+        } else if (slotHeaps[slot] == UPPER) {
+            upperHeap.delete(slotHandles[slot]);
+        }
+        slotHeaps[slot] = EMPTY_SLOT;
+    }
+
+    private void skipRemovedOldest() {
+        /*
+        Moves the oldest sample id past the samples that were already removed by id
+         */
+        while (oldestSampleId < nextSampleId && slotHeaps[(int) (oldestSampleId % capacity)] == EMPTY_SLOT) {
+            oldestSampleId++;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.Main.MaxMinHeap;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A min-max heap of int values over a sliding time window - every value is stamped with its arrival time and leaves
+ * the heap by itself once it is older than the window, so the max / min always cover the last <window> of time only
+ * (rolling min / max of a metric over the last N seconds).
+ *
+ * The values are kept in an AddressableMaxMinHeap, whose handles track the index of every value as it moves, and in
+ * a ring of (arrival time, handle) pairs in arrival order. The arrival times only grow, so the expired values are
+ * always at the front of the ring: every insert and every query first pops the expired front of the ring and deletes
+ * each of those values by its handle in O(log n). Every value is expired once, so the expiry is amortized O(log n)
+ * per insert, and getMax / getMin themselves are O(1) reads of the heap ends.
+ *
+ * Not thread safe.
+ *
+ */
+
+public class TimeWindowMaxMinHeap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    final AddressableMaxMinHeap heap;
+
+    // Ring of the values in arrival order - arrival time and heap handle of each, the oldest at ringHead
+    private long[] arrivalTimes;
+    private int[] arrivalHandles;
+    private int ringHead;
+    private int ringSize;
+
+    public TimeWindowMaxMinHeap(long window, TimeUnit unit) {
+        /*
+        @param window - Length of the window, values older than it are expired
+        @param unit - Time unit of the window
+         */
+        this(window, unit, System::nanoTime);
+    }
+
+    public TimeWindowMaxMinHeap(long window, TimeUnit unit, LongSupplier nanoClock) {
+        /*
+        Constructor with a given clock (for replaying recorded metrics, or for tests)
+        Throws IllegalArgumentException if the window is not positive
+
+        @param window - Length of the window, values older than it are expired
+        @param unit - Time unit of the window
+        @param nanoClock - Clock in nanoseconds that never goes back, like System.nanoTime
+         */
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive, got [" + window + "].");
+        }
+        this.windowNanos = unit.toNanos(window);
+        this.nanoClock = nanoClock;
+        this.heap = new AddressableMaxMinHeap(DEFAULT_CAPACITY);
+        this.arrivalTimes = new long[DEFAULT_CAPACITY];
+        this.arrivalHandles = new int[DEFAULT_CAPACITY];
+    }
+
+    public void heapInsert(int newValue) {
+        /*
+        Expires the values that left the window, then inserts a new value stamped with the current time
+
+        @param newValue - New value to be inserted to the heap
+         */
+        long now = nanoClock.getAsLong();
+        expire(now);
+        int handle = heap.heapInsert(newValue);
+        if (ringSize == arrivalTimes.length) {
+            growRing();
+        }
+        int slot = ringIndex(ringSize);
+        arrivalTimes[slot] = now;
+        arrivalHandles[slot] = handle;
+        ringSize++;
+    }
+
+    public int getMax() {
+        /*
+        Returns the maximal value of the window, without removing it
+        Throws EmptyHeapException if no value is left in the window
+         */
+        expire(nanoClock.getAsLong());
+        return heap.valueOf(heap.getHeapMaxHandle());
+    }
+
+    public int getMin() {
+        /*
+        Returns the minimal value of the window, without removing it
+        Throws EmptyHeapException if no value is left in the window
+         */
+        expire(nanoClock.getAsLong());
+        return heap.valueOf(heap.getHeapMinHandle());
+    }
+
+    public int size() {
+        // Returns the amount of values in the window
+        expire(nanoClock.getAsLong());
+        return ringSize;
+    }
+
+    public boolean isEmpty() {
+        // Returns true if no value is left in the window
+        return size() == 0;
+    }
+
+    public int expire() {
+        /*
+        Removes all the values that are older than the window
+        Returns the amount of removed values
+         */
+        return expire(nanoClock.getAsLong());
+    }
+
+    private int expire(long now) {
+        /*
+        Pops the front of the ring while it is older than the window, deleting each value from the heap by its handle
+         */
+        int expired = 0;
+        while (ringSize > 0 && now - arrivalTimes[ringHead] >= windowNanos) {
+            heap.delete(arrivalHandles[ringHead]);
+            ringHead = ringHead + 1 == arrivalTimes.length ? 0 : ringHead + 1;
+            ringSize--;
+            expired++;
+        }
+        return expired;
+    }
+
+    private int ringIndex(int offset) {
+        // Returns the ring slot <offset> places after the oldest value
+        int index = ringHead + offset;
+        return index < arrivalTimes.length ? index : index - arrivalTimes.length;
+    }
+
+    private void growRing() {
+        /*
+        Doubles the ring, the values are unrolled so the oldest one is at slot 0
+         */
+        int capacity = arrivalTimes.length * 2;
+        long[] times = new long[capacity];
+        int[] handles = new int[capacity];
+        int firstPart = Math.min(ringSize, arrivalTimes.length - ringHead);
+        System.arraycopy(arrivalTimes, ringHead, times, 0, firstPart);
+        System.arraycopy(arrivalHandles, ringHead, handles, 0, firstPart);
+        System.arraycopy(arrivalTimes, 0, times, firstPart, ringSize - firstPart);
+        System.arraycopy(arrivalHandles, 0, handles, firstPart, ringSize - firstPart);
+        arrivalTimes = times;
+        arrivalHandles = handles;
+        ringHead = 0;
+    }
+}
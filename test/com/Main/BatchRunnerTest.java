@@ -0,0 +1,115 @@
+package com.Main;
+
+import com.Main.MaxMinHeap.EmptyHeapException;
+import com.Main.MaxMinHeap.MaxMinHeap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the batch mode - a random command trace is replayed by BatchRunner and by direct calls to a MaxMinHeap,
+ * and both must write the same results.
+ *
+ */
+
+class BatchRunnerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayMatchesDirectHeapCalls() throws IOException {
+        Random random = new Random(21);
+        Path input = directory.resolve("input.txt");
+        Files.writeString(input, "5 -3 12 7 7 0\n");
+
+        StringBuilder commands = new StringBuilder("# a recorded trace\n\n");
+        StringBuilder expected = new StringBuilder();
+        MaxMinHeap heap = new MaxMinHeap();
+        // Only the heap calls that did not fail are timed, so operations counts them after the call
+        int operations = 0;
+        for (int line = 0; line < 5000; line++) {
+            // Lines end with \n or \r\n, with spaces around the arguments now and then
+            String end = random.nextInt(5) == 0 ? " \r\n" : "\n";
+            int kind = random.nextInt(20);
+            try {
+                if (kind < 8) {
+                    int value = random.nextInt(2001) - 1000;
+                    commands.append("insert  ").append(value).append(end);
+                    heap.heapInsert(value);
+                    operations++;
+                } else if (kind < 11) {
+                    commands.append("extract-max").append(end);
+                    expected.append(heap.heapExtractMax()).append('\n');
+                    operations++;
+                } else if (kind < 14) {
+                    commands.append("extract-min").append(end);
+                    expected.append(heap.heapExtractMin()).append('\n');
+                    operations++;
+                } else if (kind < 16) {
+                    int index = random.nextInt(heap.size() + 2);
+                    commands.append("delete ").append(index).append(end);
+                    heap.heapDelete(index);
+                    operations++;
+                } else if (kind < 18) {
+                    int index = random.nextInt(heap.size() + 2);
+                    commands.append("\theapify ").append(index).append(end);
+                    heap.heapify(index);
+                    operations++;
+                } else if (kind < 19) {
+                    commands.append("size").append(end);
+                    expected.append(heap.size()).append('\n');
+                } else {
+                    commands.append("build ").append(input).append(end);
+                    heap = new MaxMinHeap(input.toString());
+                    heap.buildHeap();
+                    operations++;
+                }
+            } catch (EmptyHeapException | IndexOutOfBoundsException e) {
+                expected.append("ERROR ").append(e.getMessage()).append('\n');
+            }
+        }
+
+        Path commandFile = directory.resolve("commands.txt");
+        Files.writeString(commandFile, commands);
+        Path results = directory.resolve("results.txt");
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        BatchRunner.run(commandFile.toString(), results.toString(), new PrintStream(report, true, StandardCharsets.US_ASCII));
+
+        assertEquals(expected.toString(), Files.readString(results, StandardCharsets.US_ASCII));
+        String summary = report.toString(StandardCharsets.US_ASCII);
+        assertTrue(summary.contains("Heap operations: " + operations + " "), summary);
+        assertTrue(summary.contains("p99.9="), summary);
+    }
+
+    @Test
+    void malformedCommandsStopTheReplay() throws IOException {
+        for (String commands : new String[]{"insert\n", "insert x\n", "insert 1 2\n", "jump 3\n", "insert 2147483648\n", "build \n"}) {
+            Path commandFile = directory.resolve("bad.txt");
+            Files.writeString(commandFile, commands);
+            PrintStream report = new PrintStream(new ByteArrayOutputStream());
+            assertThrows(IOException.class,
+                    () -> BatchRunner.run(commandFile.toString(), directory.resolve("out.txt").toString(), report), commands);
+        }
+    }
+
+    @Test
+    void percentilesUseTheNearestRank() {
+        long[] sorted = {10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
+        assertEquals(50, BatchRunner.percentile(sorted, 0.5));
+        assertEquals(90, BatchRunner.percentile(sorted, 0.9));
+        assertEquals(100, BatchRunner.percentile(sorted, 0.99));
+        assertEquals(10, BatchRunner.percentile(new long[]{10}, 0.001));
+    }
+}
@@ -0,0 +1,204 @@
+package com.Main;
+
+import com.Main.MaxMinHeap.EmptyHeapException;
+import com.Main.MaxMinHeap.MaxMinHeap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the HeapServer protocol through HeapClient over loopback TCP and a Unix domain socket - every response is
+ * compared with a TreeMap multiset, for plain and for pipelined requests.
+ *
+ */
+
+class HeapServerTest {
+
+    @TempDir
+    Path directory;
+
+    private HeapServer server;
+    private Thread serverThread;
+    private final AtomicReference<Throwable> serverFailure = new AtomicReference<>();
+
+    @AfterEach
+    void stopServer() throws Exception {
+        if (server != null) {
+            server.close();
+            assertTrue(server.awaitTermination(10, TimeUnit.SECONDS));
+            serverThread.join();
+        }
+        if (serverFailure.get() != null) {
+            throw new AssertionError(serverFailure.get());
+        }
+    }
+
+    @Test
+    void requestsMatchTheMultiset() throws Exception {
+        SocketAddress address = start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), new MaxMinHeap());
+        Random random = new Random(22);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        try (HeapClient client = new HeapClient(address)) {
+            for (int operation = 0; operation < 3000; operation++) {
+                int kind = random.nextInt(10);
+                if (kind < 4) {
+                    int value = random.nextInt(100);
+                    client.heapInsert(value);
+                    expected.merge(value, 1, Integer::sum);
+                } else if (expected.isEmpty()) {
+                    assertThrows(EmptyHeapException.class, random.nextBoolean() ? client::heapExtractMax : client::peekMin);
+                } else if (kind < 6) {
+                    assertEquals(expected.lastKey(), client.heapExtractMax());
+                    remove(expected, expected.lastKey());
+                } else if (kind < 8) {
+                    assertEquals(expected.firstKey(), client.heapExtractMin());
+                    remove(expected, expected.firstKey());
+                } else if (kind < 9) {
+                    // Index 0 is always the max
+                    client.heapDelete(0);
+                    remove(expected, expected.lastKey());
+                } else {
+                    assertEquals(expected.lastKey(), client.peekMax());
+                    assertEquals(expected.firstKey(), client.peekMin());
+                }
+                assertEquals(count(expected), client.size());
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> client.heapDelete(count(expected)));
+        }
+    }
+
+    @Test
+    void pipelinedRequestsAnswerInOrder() throws Exception {
+        SocketAddress address = start(UnixDomainSocketAddress.of(directory.resolve("heap.sock")), new MaxMinHeap());
+        Random random = new Random(23);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        try (HeapClient client = new HeapClient(address)) {
+            int[] batch = random.ints(50_000, 0, 1000).toArray();
+            client.insertAll(batch, batch.length);
+            for (int value : batch) {
+                expected.merge(value, 1, Integer::sum);
+            }
+            for (int round = 0; round < 50; round++) {
+                // Runs of single inserts are applied as insertAll batches by the server, extracts cut the runs
+                Queue<Integer> answers = new ArrayDeque<>();
+                for (int request = 0; request < 1000; request++) {
+                    int kind = random.nextInt(3);
+                    if (kind == 0) {
+                        int value = random.nextInt(1000);
+                        client.sendInsert(value);
+                        expected.merge(value, 1, Integer::sum);
+                        answers.add(0);
+                    } else if (kind == 1) {
+                        client.sendRequest(HeapProtocol.EXTRACT_MAX);
+                        answers.add(expected.lastKey());
+                        remove(expected, expected.lastKey());
+                    } else {
+                        client.sendRequest(HeapProtocol.EXTRACT_MIN);
+                        answers.add(expected.firstKey());
+                        remove(expected, expected.firstKey());
+                    }
+                }
+                client.sendRequest(HeapProtocol.SIZE);
+                answers.add(count(expected));
+                client.flush();
+                while (!answers.isEmpty()) {
+                    assertEquals(answers.poll(), client.readResponse());
+                }
+            }
+        }
+        server.close();
+        assertTrue(server.awaitTermination(10, TimeUnit.SECONDS));
+        assertFalse(Files.exists(directory.resolve("heap.sock")));
+    }
+
+    @Test
+    void failedRequestsOnlyFailThemselves() throws Exception {
+        // A full fixed capacity heap throws IllegalStateException on insert
+        SocketAddress address = start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), MaxMinHeap.withFixedCapacity(3));
+        try (HeapClient client = new HeapClient(address)) {
+            client.heapInsert(1);
+            client.heapInsert(2);
+            client.heapInsert(3);
+            IOException failure = assertThrows(IOException.class, () -> client.heapInsert(4));
+            assertTrue(failure.getMessage().contains("failed"), failure.getMessage());
+            assertThrows(IOException.class, () -> client.insertAll(new int[]{5, 6}, 2));
+            // The connection and the heap go on
+            assertEquals(3, client.size());
+            assertEquals(3, client.heapExtractMax());
+            client.heapInsert(4);
+            assertEquals(4, client.peekMax());
+        }
+
+        // A bad request closes only its own connection
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), ((InetSocketAddress) address).getPort());
+             HeapClient client = new HeapClient(address)) {
+            OutputStream raw = socket.getOutputStream();
+            raw.write(new byte[]{99});
+            raw.flush();
+            byte[] response = socket.getInputStream().readNBytes(HeapProtocol.RESPONSE_BYTES + 1);
+            assertEquals(HeapProtocol.RESPONSE_BYTES, response.length);
+            assertEquals(HeapProtocol.STATUS_BAD_REQUEST, response[0]);
+            assertEquals(3, client.size());
+        }
+    }
+
+    @Test
+    void closeStopsTheServer() throws Exception {
+        SocketAddress address = start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), new MaxMinHeap());
+        HeapClient client = new HeapClient(address);
+        client.heapInsert(1);
+        assertFalse(server.awaitTermination(10, TimeUnit.MILLISECONDS));
+        server.close();
+        assertTrue(server.awaitTermination(10, TimeUnit.SECONDS));
+        // The server closed the open connection on the way out
+        assertThrows(IOException.class, () -> {
+            client.sendRequest(HeapProtocol.SIZE);
+            client.flush();
+            client.readResponse();
+        });
+        client.close();
+        assertThrows(IOException.class, () -> new HeapClient(address));
+    }
+
+    private SocketAddress start(SocketAddress address, MaxMinHeap heap) throws IOException {
+        server = new HeapServer(address, heap);
+        serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (Throwable e) {
+                serverFailure.set(e);
+            }
+        });
+        serverThread.start();
+        return server.getAddress();
+    }
+
+    private static void remove(TreeMap<Integer, Integer> multiset, int value) {
+        multiset.computeIfPresent(value, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    private static int count(TreeMap<Integer, Integer> multiset) {
+        return multiset.values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
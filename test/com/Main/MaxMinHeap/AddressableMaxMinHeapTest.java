@@ -0,0 +1,132 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential tests of AddressableMaxMinHeap against a TreeMap multiset and a map of handle -> value.
+ * Besides the values, every handle must keep pointing at the index of its value after every operation.
+ *
+ */
+
+class AddressableMaxMinHeapTest {
+
+    @Test
+    void randomOperationsMatchTheModel() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            int bound = seed % 2 == 0 ? Integer.MAX_VALUE : 50;
+            AddressableMaxMinHeap heap = new AddressableMaxMinHeap(seed % 3 == 0 ? 1 : 64);
+            SortedMultiset<Integer> expected = SortedMultiset.natural();
+            Map<Integer, Integer> handles = new HashMap<>();
+            List<Integer> liveHandles = new ArrayList<>();
+            for (int operation = 0; operation < 3000; operation++) {
+                int kind = random.nextInt(12);
+                if (kind < 4 || expected.isEmpty()) {
+                    int value = random.nextInt(bound);
+                    int handle = heap.heapInsert(value);
+                    assertFalse(handles.containsKey(handle), "Handle " + handle + " given out twice.");
+                    handles.put(handle, value);
+                    liveHandles.add(handle);
+                    expected.add(value);
+                } else if (kind < 6) {
+                    int handle = heap.getHeapMaxHandle();
+                    assertEquals(expected.max(), heap.valueOf(handle));
+                    assertEquals(expected.removeMax(), heap.heapExtractMax());
+                    forget(handle, handles, liveHandles, heap);
+                } else if (kind < 8) {
+                    int handle = heap.getHeapMinHandle();
+                    assertEquals(expected.min(), heap.valueOf(handle));
+                    assertEquals(expected.removeMin(), heap.heapExtractMin());
+                    forget(handle, handles, liveHandles, heap);
+                } else if (kind < 9) {
+                    int handle = liveHandles.get(random.nextInt(liveHandles.size()));
+                    expected.remove(handles.get(handle));
+                    assertEquals(handles.get(handle), heap.delete(handle));
+                    forget(handle, handles, liveHandles, heap);
+                } else if (kind < 11) {
+                    int handle = liveHandles.get(random.nextInt(liveHandles.size()));
+                    int newValue = random.nextInt(bound);
+                    expected.remove(handles.get(handle));
+                    expected.add(newValue);
+                    handles.put(handle, newValue);
+                    heap.changeKey(handle, newValue);
+                } else {
+                    int index = random.nextInt(heap.heapSize);
+                    int handle = heap.heapHandles[index];
+                    expected.remove(heap.heapArray[index]);
+                    heap.heapDelete(index);
+                    forget(handle, handles, liveHandles, heap);
+                }
+                assertEquals(expected.size(), heap.size());
+                assertConsistent(heap, handles);
+            }
+        }
+    }
+
+    @Test
+    void buildHeapKeepsTheHandles() {
+        Random random = new Random(6);
+        AddressableMaxMinHeap heap = new AddressableMaxMinHeap();
+        Map<Integer, Integer> handles = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            int value = random.nextInt(100);
+            handles.put(heap.heapInsert(value), value);
+        }
+        // Scramble the heap array with the handles and rebuild it
+        for (int i = heap.heapSize - 1; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            int value = heap.heapArray[i];
+            int handle = heap.heapHandles[i];
+            heap.heapArray[i] = heap.heapArray[swap];
+            heap.heapHandles[i] = heap.heapHandles[swap];
+            heap.handlePositions[heap.heapHandles[i]] = i;
+            heap.heapArray[swap] = value;
+            heap.heapHandles[swap] = handle;
+            heap.handlePositions[handle] = swap;
+        }
+        heap.buildHeap();
+        assertConsistent(heap, handles);
+    }
+
+    @Test
+    void invalidHandlesThrow() {
+        AddressableMaxMinHeap heap = new AddressableMaxMinHeap();
+        assertThrows(EmptyHeapException.class, heap::getHeapMaxHandle);
+        assertThrows(EmptyHeapException.class, heap::getHeapMinHandle);
+        int handle = heap.heapInsert(5);
+        heap.delete(handle);
+        assertFalse(heap.contains(handle));
+        assertThrows(IllegalArgumentException.class, () -> heap.valueOf(handle));
+        assertThrows(IllegalArgumentException.class, () -> heap.changeKey(handle, 1));
+        assertThrows(IllegalArgumentException.class, () -> heap.delete(-1));
+    }
+
+    private static void forget(int handle, Map<Integer, Integer> handles, List<Integer> liveHandles, AddressableMaxMinHeap heap) {
+        handles.remove(handle);
+        liveHandles.remove((Integer) handle);
+        assertFalse(heap.contains(handle));
+    }
+
+    private static void assertConsistent(AddressableMaxMinHeap heap, Map<Integer, Integer> handles) {
+        HeapOrder.assertValid(heap.heapArray, heap.heapSize);
+        assertEquals(handles.size(), heap.size());
+        for (int index = 0; index < heap.heapSize; index++) {
+            assertEquals(index, heap.handlePositions[heap.heapHandles[index]]);
+        }
+        for (Map.Entry<Integer, Integer> entry : handles.entrySet()) {
+            assertTrue(heap.contains(entry.getKey()));
+            assertEquals(entry.getValue(), heap.valueOf(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of AsyncMaxMinHeap - results against a TreeMap multiset, and futures that callers cancel or complete, or
+ * that the heap fails on, must neither lose values nor stop the owner thread.
+ *
+ */
+
+class AsyncMaxMinHeapTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    void requestsMatchTheMultiset() throws Exception {
+        Random random = new Random(23);
+        try (AsyncMaxMinHeap heap = new AsyncMaxMinHeap()) {
+            SortedMultiset<Integer> expected = SortedMultiset.natural();
+            for (int round = 0; round < 300; round++) {
+                // Requests submitted without waiting are applied in batches, in their order
+                List<CompletableFuture<Integer>> extracts = new ArrayList<>();
+                List<Integer> answers = new ArrayList<>();
+                CompletableFuture<Void> lastInsert = CompletableFuture.completedFuture(null);
+                for (int request = 0; request < 20; request++) {
+                    int kind = random.nextInt(3);
+                    if (kind == 0 || expected.isEmpty()) {
+                        int value = random.nextInt(100);
+                        lastInsert = heap.heapInsert(value);
+                        expected.add(value);
+                    } else if (kind == 1) {
+                        extracts.add(heap.heapExtractMax());
+                        answers.add(expected.removeMax());
+                    } else {
+                        extracts.add(heap.heapExtractMin());
+                        answers.add(expected.removeMin());
+                    }
+                }
+                lastInsert.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                for (int i = 0; i < extracts.size(); i++) {
+                    assertEquals(answers.get(i), extracts.get(i).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+                }
+            }
+            while (!expected.isEmpty()) {
+                assertEquals(expected.removeMin(), heap.heapExtractMin().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            ExecutionException empty = assertThrows(ExecutionException.class,
+                    () -> heap.heapExtractMax().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertInstanceOf(EmptyHeapException.class, empty.getCause());
+        }
+    }
+
+    @Test
+    void cancelledAndCompletedFuturesLoseNoValue() throws Exception {
+        try (AsyncMaxMinHeap heap = new AsyncMaxMinHeap()) {
+            AtomicReference<CountDownLatch> gate = new AtomicReference<>(new CountDownLatch(1));
+            AtomicReference<CompletableFuture<Integer>> completedByCaller = new AtomicReference<>();
+            heap.heap.setEventListener(new HeapEventListener() {
+                @Override
+                public void onInsertAll(MaxMinHeap changed, int insertedCount) {
+                    // Holds the owner thread, so the requests below are all still pending while the caller changes them
+                    try {
+                        gate.get().await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                @Override
+                public void onExtractMax(MaxMinHeap changed, int extractedValue) {
+                    // The caller completes the future after the value was extracted, before the owner completes it
+                    CompletableFuture<Integer> future = completedByCaller.getAndSet(null);
+                    if (future != null) {
+                        future.complete(-1);
+                    }
+                }
+            });
+
+            CompletableFuture<Void> first = heap.heapInsert(5);
+            CompletableFuture<Void> cancelledInsert = heap.heapInsert(100);
+            CompletableFuture<Integer> cancelledExtract = heap.heapExtractMin();
+            CompletableFuture<Integer> completedBeforeApplied = heap.heapExtractMax();
+            cancelledInsert.cancel(false);
+            cancelledExtract.cancel(false);
+            completedBeforeApplied.complete(-2);
+            gate.get().countDown();
+            first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            assertThrows(CancellationException.class, cancelledInsert::join);
+            assertThrows(CancellationException.class, cancelledExtract::join);
+            assertEquals(-2, completedBeforeApplied.join());
+
+            gate.set(new CountDownLatch(1));
+            CompletableFuture<Void> held = heap.heapInsert(3);
+            CompletableFuture<Integer> extract = heap.heapExtractMax();
+            completedByCaller.set(extract);
+            gate.get().countDown();
+            held.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertEquals(-1, extract.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            // The cancelled insert never went in, and the value of the extract the caller completed was put back
+            assertEquals(5, heap.heapExtractMax().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertEquals(3, heap.heapExtractMax().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertThrows(ExecutionException.class, () -> heap.heapExtractMin().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void heapFailuresOnlyFailTheirFutures() throws Exception {
+        try (AsyncMaxMinHeap heap = new AsyncMaxMinHeap()) {
+            heap.heap.setEventListener(new HeapEventListener() {
+                @Override
+                public void onExtractMin(MaxMinHeap changed, int extractedValue) {
+                    if (extractedValue == 13) {
+                        throw new IllegalStateException("Listener failed on " + extractedValue + ".");
+                    }
+                }
+            });
+            heap.heapInsert(13);
+            heap.heapInsert(20);
+            CompletableFuture<Integer> failed = heap.heapExtractMin();
+            CompletableFuture<Integer> next = heap.heapExtractMin();
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> failed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+            // The owner thread goes on with the following requests
+            assertEquals(20, next.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            heap.heapInsert(7).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertEquals(7, heap.heapExtractMax().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void ownerThatStopsFailsEveryPendingRequest() throws Exception {
+        AsyncMaxMinHeap heap = new AsyncMaxMinHeap();
+        heap.heap.setEventListener(new HeapEventListener() {
+            @Override
+            public void onExtractMax(MaxMinHeap changed, int extractedValue) {
+                // An Error is not caught per request, it stops the owner thread
+                throw new AssertionError("Owner thread stopped on purpose.");
+            }
+        });
+        heap.heapInsert(1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        CompletableFuture<Integer> stopping = heap.heapExtractMax();
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> stopping.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        // Requests after the owner stopped fail right away instead of waiting forever
+        CompletableFuture<Void> late = heap.heapInsert(2);
+        ExecutionException lateFailure = assertThrows(ExecutionException.class, () -> late.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, lateFailure.getCause());
+        heap.close();
+        assertTrue(heap.heapExtractMin().isCompletedExceptionally());
+    }
+}
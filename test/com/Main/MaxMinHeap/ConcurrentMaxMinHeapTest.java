@@ -0,0 +1,200 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of ConcurrentMaxMinHeap - concurrent writers must neither lose nor duplicate values, and the combining slots
+ * of threads that died must be handed to new threads.
+ *
+ */
+
+class ConcurrentMaxMinHeapTest {
+
+    private static final int THREADS = 4;
+    private static final int VALUES_PER_THREAD = 20_000;
+
+    @Test
+    void concurrentWritersKeepEveryValue() throws Exception {
+        // Fewer slots than threads, so the lock path runs alongside the combining one
+        ConcurrentMaxMinHeap heap = new ConcurrentMaxMinHeap(THREADS - 1);
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<int[]> extracted = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int threadIndex = t;
+            int[] taken = new int[VALUES_PER_THREAD + 1];
+            extracted.add(taken);
+            threads.add(new Thread(() -> {
+                try {
+                    Random random = new Random(threadIndex);
+                    start.await();
+                    int count = 0;
+                    for (int i = 0; i < VALUES_PER_THREAD; i++) {
+                        // Every value is unique, so a lost or duplicated value shows up in the final multiset
+                        heap.heapInsert(threadIndex * VALUES_PER_THREAD + i);
+                        if (random.nextInt(3) == 0) {
+                            try {
+                                taken[1 + count] = random.nextBoolean() ? heap.heapExtractMax() : heap.heapExtractMin();
+                                count++;
+                            } catch (EmptyHeapException e) {
+                                // Another thread emptied the heap in between
+                            }
+                        }
+                    }
+                    taken[0] = count;
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        int[] all = new int[THREADS * VALUES_PER_THREAD];
+        int count = 0;
+        for (int[] taken : extracted) {
+            System.arraycopy(taken, 1, all, count, taken[0]);
+            count += taken[0];
+        }
+        assertEquals(all.length - count, heap.size());
+        int previousMax = Integer.MAX_VALUE;
+        while (!heap.isEmpty()) {
+            int max = heap.peekMax();
+            assertEquals(max, heap.heapExtractMax());
+            assertTrue(max <= previousMax);
+            previousMax = max;
+            all[count++] = max;
+        }
+        Arrays.sort(all);
+        int[] expected = new int[all.length];
+        Arrays.setAll(expected, i -> i);
+        assertArrayEquals(expected, all);
+    }
+
+    @Test
+    void failedOperationsFailOnlyInTheirOwnThread() throws Exception {
+        ConcurrentMaxMinHeap heap = new ConcurrentMaxMinHeap(2);
+        CountDownLatch combining = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        heap.heap.setEventListener(new HeapEventListener() {
+            @Override
+            public void onInsert(MaxMinHeap changed, int insertedValue) {
+                if (insertedValue == 0) {
+                    // Holds the combiner inside the batch, so the next operation waits in its slot
+                    combining.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                } else if (insertedValue == 13) {
+                    throw new IllegalStateException("Listener failed on " + insertedValue + ".");
+                }
+            }
+        });
+
+        AtomicReference<Throwable> combinerFailure = new AtomicReference<>();
+        Thread combiner = new Thread(() -> {
+            try {
+                heap.heapInsert(0);
+            } catch (Throwable e) {
+                combinerFailure.set(e);
+            }
+        });
+        combiner.start();
+        combining.await();
+        AtomicReference<Throwable> waiterFailure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                heap.heapInsert(13);
+            } catch (Throwable e) {
+                waiterFailure.set(e);
+            }
+        });
+        waiter.start();
+        // The waiter got the second slot and published its insert there
+        while (heap.slotCells.get(2 * ConcurrentMaxMinHeap.SLOT_STRIDE) == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        combiner.join();
+        waiter.join();
+        assertNull(combinerFailure.get());
+        assertInstanceOf(IllegalStateException.class, waiterFailure.get());
+
+        // A combiner whose own operation fails gets the failure, and no later combiner applies it again
+        assertThrows(IllegalStateException.class, () -> heap.heapInsert(13));
+        Thread other = new Thread(() -> heap.heapInsert(5));
+        other.start();
+        other.join();
+        heap.heapInsert(7);
+        // The listener throws after its value went in, so each failed insert of 13 is in the heap exactly once
+        assertEquals(5, heap.size());
+        int[] values = new int[5];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = heap.heapExtractMin();
+        }
+        assertArrayEquals(new int[]{0, 5, 7, 13, 13}, values);
+    }
+
+    @Test
+    void slotsOfDeadThreadsAreReused() throws Exception {
+        ConcurrentMaxMinHeap heap = new ConcurrentMaxMinHeap(2);
+        for (int round = 0; round < 20; round++) {
+            int value = round;
+            AtomicReference<Integer> slot = new AtomicReference<>();
+            Thread thread = new Thread(() -> {
+                heap.heapInsert(value);
+                slot.set(heap.threadSlot.get());
+            });
+            thread.start();
+            thread.join();
+            assertNotNull(slot.get(), "Thread of round " + round + " fell back to the lock path.");
+        }
+        assertEquals(20, heap.size());
+        assertEquals(19, heap.peekMax());
+        assertEquals(0, heap.peekMin());
+    }
+
+    @Test
+    void liveOwnersKeepTheirSlots() throws Exception {
+        ConcurrentMaxMinHeap heap = new ConcurrentMaxMinHeap(1);
+        heap.heapInsert(1);
+        assertNotNull(heap.threadSlot.get());
+        AtomicReference<Integer> otherSlot = new AtomicReference<>(-1);
+        Thread other = new Thread(() -> {
+            heap.heapInsert(2);
+            otherSlot.set(heap.threadSlot.get());
+        });
+        other.start();
+        other.join();
+        // The only slot belongs to this (live) thread, the other thread used the lock path
+        assertNull(otherSlot.get());
+        assertEquals(2, heap.heapExtractMax());
+        assertEquals(1, heap.heapExtractMin());
+        assertThrows(EmptyHeapException.class, heap::heapExtractMin);
+        assertThrows(EmptyHeapException.class, heap::peekMax);
+    }
+}
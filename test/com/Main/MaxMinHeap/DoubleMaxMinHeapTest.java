@@ -0,0 +1,84 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Differential tests of DoubleMaxMinHeap against a TreeMap multiset (see MaxMinHeapTest).
+ *
+ */
+
+class DoubleMaxMinHeapTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void randomOperationsMatchTheMultiset() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            boolean duplicates = seed % 2 == 1;
+            DoubleMaxMinHeap heap = new DoubleMaxMinHeap();
+            SortedMultiset<Double> expected = SortedMultiset.natural();
+            for (int operation = 0; operation < 3000; operation++) {
+                int kind = random.nextInt(10);
+                if (kind < 4 || expected.isEmpty()) {
+                    double value = duplicates ? random.nextInt(50) / 4.0 : random.nextGaussian() * 1e6;
+                    heap.heapInsert(value);
+                    expected.add(value);
+                } else if (kind < 6) {
+                    assertEquals(expected.removeMax(), heap.heapExtractMax());
+                } else if (kind < 8) {
+                    assertEquals(expected.removeMin(), heap.heapExtractMin());
+                } else if (kind < 9) {
+                    int index = random.nextInt(heap.heapSize);
+                    expected.remove(heap.heapArray[index]);
+                    heap.heapDelete(index);
+                } else if (random.nextInt(20) == 0) {
+                    // Scramble the heap array and rebuild it
+                    for (int i = heap.heapSize - 1; i > 0; i--) {
+                        int swap = random.nextInt(i + 1);
+                        double value = heap.heapArray[i];
+                        heap.heapArray[i] = heap.heapArray[swap];
+                        heap.heapArray[swap] = value;
+                    }
+                    heap.buildHeap();
+                }
+                assertEquals(expected.size(), heap.size());
+                double[] values = heap.heapArray;
+                HeapOrder.assertValid(heap.heapSize, (first, second) -> Double.compare(values[first], values[second]));
+            }
+        }
+    }
+
+    @Test
+    void nanIsRejected() throws IOException {
+        DoubleMaxMinHeap heap = new DoubleMaxMinHeap(new double[]{2.5, -1, 7});
+        heap.buildHeap();
+        assertThrows(IllegalArgumentException.class, () -> heap.heapInsert(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new DoubleMaxMinHeap(new double[]{1, Double.NaN}));
+        Path file = Files.writeString(directory.resolve("values.txt"), "1.5 NaN 3");
+        assertThrows(IllegalArgumentException.class, () -> new DoubleMaxMinHeap(file.toString()));
+        // The rejected value left the heap as it was
+        assertEquals(3, heap.size());
+        assertEquals(7, heap.heapExtractMax());
+        assertEquals(-1, heap.heapExtractMin());
+        assertEquals(2.5, heap.heapExtractMax());
+    }
+
+    @Test
+    void emptyHeapThrows() {
+        DoubleMaxMinHeap heap = new DoubleMaxMinHeap();
+        assertThrows(EmptyHeapException.class, heap::heapExtractMax);
+        assertThrows(EmptyHeapException.class, heap::heapExtractMin);
+        assertThrows(IndexOutOfBoundsException.class, () -> heap.heapDelete(0));
+    }
+}
@@ -0,0 +1,130 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential tests of ExternalMaxMinHeap against a TreeMap multiset. Tiny buffers, blocks and run limits are used,
+ * so the values go through many spills, run merges and block reads from both ends of the runs.
+ *
+ */
+
+class ExternalMaxMinHeapTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void randomOperationsMatchTheMultiset() throws IOException {
+        for (int seed = 0; seed < 10; seed++) {
+            Random random = new Random(seed);
+            int bound = seed % 2 == 0 ? Integer.MAX_VALUE : 50;
+            int maxRuns = 2 + seed % 4;
+            try (ExternalMaxMinHeap heap = new ExternalMaxMinHeap(directory.toString(), 1 + random.nextInt(32), 1 + random.nextInt(8), maxRuns)) {
+                SortedMultiset<Integer> expected = SortedMultiset.natural();
+                for (int operation = 0; operation < 5000; operation++) {
+                    int kind = random.nextInt(10);
+                    // Inserts win more often early on, so there are many runs to extract from later
+                    if (kind < (operation < 2500 ? 7 : 3) || expected.isEmpty()) {
+                        int value = random.nextInt(bound);
+                        heap.heapInsert(value);
+                        expected.add(value);
+                    } else if (kind < 7) {
+                        assertEquals(expected.removeMax(), heap.heapExtractMax());
+                    } else {
+                        assertEquals(expected.removeMin(), heap.heapExtractMin());
+                    }
+                    assertEquals(expected.size(), heap.size());
+                    assertTrue(heap.getRunCount() <= maxRuns);
+                    if (!expected.isEmpty()) {
+                        assertEquals(expected.max(), heap.peekMax());
+                        assertEquals(expected.min(), heap.peekMin());
+                    }
+                }
+                assertTrue(heap.getWriteCount() > 0 && heap.getReadCount() > 0);
+            }
+            // Closing deletes every run file
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(0, files.count());
+            }
+        }
+    }
+
+    @Test
+    void failedSpillsAndMergesLoseNoValue() throws IOException {
+        Path spillDirectory = Files.createDirectory(directory.resolve("spill"));
+        Random random = new Random(13);
+        try (ExternalMaxMinHeap heap = new ExternalMaxMinHeap(spillDirectory.toString(), 8, 2, 4)) {
+            SortedMultiset<Integer> expected = SortedMultiset.natural();
+            for (int i = 0; i < 40; i++) {
+                int value = random.nextInt(100);
+                heap.heapInsert(value);
+                expected.add(value);
+            }
+            int runCount = heap.getRunCount();
+            assertTrue(runCount >= 2);
+
+            // The open run files stay readable once unlinked, but no new run can be created in the missing directory
+            try (Stream<Path> files = Files.list(spillDirectory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(spillDirectory);
+            assertThrows(IOException.class, () -> heap.mergeSmallestRuns(2));
+            assertEquals(runCount, heap.getRunCount());
+            // Fills the buffer (every run holds a multiple of 8 values so far), so the next insert has to spill
+            while (heap.size() % 8 != 0) {
+                int value = random.nextInt(100);
+                heap.heapInsert(value);
+                expected.add(value);
+            }
+            assertThrows(UncheckedIOException.class, () -> heap.heapInsert(1000));
+            assertEquals(expected.size(), heap.size());
+            assertEquals(runCount, heap.getRunCount());
+
+            // The buffer kept its heap order, and spills work again once the directory is back
+            assertEquals(expected.max(), heap.peekMax());
+            assertEquals(expected.min(), heap.peekMin());
+            assertEquals(expected.removeMax(), heap.heapExtractMax());
+            assertEquals(expected.removeMin(), heap.heapExtractMin());
+            Files.createDirectory(spillDirectory);
+            for (int i = 0; i < 40; i++) {
+                int value = random.nextInt(100);
+                heap.heapInsert(value);
+                expected.add(value);
+            }
+            while (!expected.isEmpty()) {
+                assertEquals(expected.removeMax(), heap.heapExtractMax());
+                if (!expected.isEmpty()) {
+                    assertEquals(expected.removeMin(), heap.heapExtractMin());
+                }
+            }
+        }
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void emptyAndClosedHeapThrow() {
+        ExternalMaxMinHeap heap = new ExternalMaxMinHeap(directory.toString(), 2, 2, 2);
+        assertThrows(EmptyHeapException.class, heap::heapExtractMax);
+        assertThrows(EmptyHeapException.class, heap::peekMin);
+        heap.close();
+        assertThrows(IllegalStateException.class, () -> heap.heapInsert(1));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalMaxMinHeap(directory.toString(), 0, 2, 2));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalMaxMinHeap(directory.toString(), 2, 2, 1));
+    }
+}
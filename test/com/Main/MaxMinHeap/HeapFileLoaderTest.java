@@ -0,0 +1,70 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of HeapFileLoader against String.split / Integer.parseInt, including files of several mapped chunks.
+ *
+ */
+
+class HeapFileLoaderTest {
+
+    private static final String[] SEPARATORS = {" ", "\n", "\r\n", "\t", "  \n "};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void intsMatchTheSimpleParser() throws IOException {
+        Random random = new Random(4);
+        // Small files fit one chunk, the big one is split into chunks of at least 1 MB at token boundaries
+        for (int size : new int[]{0, 1, 17, 1000, 400_000}) {
+            int[] values = new int[size];
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                values[i] = i % 100 == 0 ? (i % 200 == 0 ? Integer.MIN_VALUE : Integer.MAX_VALUE) : random.nextInt();
+                text.append(i % 7 == 3 && values[i] >= 0 ? "+" : "").append(values[i]).append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+            }
+            Path file = write("ints" + size, text.toString());
+            assertArrayEquals(values, HeapFileLoader.loadInts(file.toString()));
+        }
+    }
+
+    @Test
+    void longsMatchTheSimpleParser() throws IOException {
+        Random random = new Random(5);
+        long[] values = new long[200_000];
+        StringBuilder text = new StringBuilder(" \n");
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i == 0 ? Long.MIN_VALUE : i == 1 ? Long.MAX_VALUE : random.nextLong();
+            text.append(values[i]).append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+        Path file = write("longs", text.toString());
+        assertArrayEquals(values, HeapFileLoader.loadLongs(file.toString()));
+    }
+
+    @Test
+    void badTokensThrow() throws IOException {
+        for (String text : new String[]{"1 2 x3", "2147483648", "-2147483649", "1 - 2", "12a"}) {
+            Path file = write("bad", text);
+            assertThrows(NumberFormatException.class, () -> HeapFileLoader.loadInts(file.toString()), text);
+        }
+        Path file = write("badLong", "9223372036854775808");
+        assertThrows(NumberFormatException.class, () -> HeapFileLoader.loadLongs(file.toString()));
+    }
+
+    private Path write(String name, String text) throws IOException {
+        Path file = directory.resolve(name + ".txt");
+        Files.writeString(file, text);
+        return file;
+    }
+}
@@ -0,0 +1,56 @@
+package com.Main.MaxMinHeap;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Checks the MaxMinHeap order of a heap array - every value is compared with its parent and its grandparent:
+ * a value under a min level index is not smaller than it, a value under a max level index is not bigger than it.
+ * Together these two checks cover every ancestor, so the whole array is a valid min-max heap.
+ *
+ */
+
+final class HeapOrder {
+
+    /**
+     * Compares the values of two heap array indices, like a Comparator of the values.
+     */
+    @FunctionalInterface
+    interface IndexComparator {
+        int compare(int firstIndex, int secondIndex);
+    }
+
+    private HeapOrder() {
+    }
+
+    static void assertValid(int size, IndexComparator values) {
+        /*
+        Fails the test on the first index that breaks the MaxMinHeap order
+
+        @param size - Amount of values in the heap array
+        @param values - Comparator of the values of two indices
+         */
+        for (int index = 1; index < size; index++) {
+            int parent = (index - 1) >> 1;
+            checkUnder(values, index, parent);
+            if (parent > 0) {
+                checkUnder(values, index, (parent - 1) >> 1);
+            }
+        }
+    }
+
+    static void assertValid(int[] heap, int size) {
+        assertValid(size, (first, second) -> Integer.compare(heap[first], heap[second]));
+    }
+
+    static boolean isMinLevel(int index) {
+        // Depth of the index is odd - level 0 (the root) is a max level
+        return ((31 - Integer.numberOfLeadingZeros(index + 1)) & 1) == 1;
+    }
+
+    private static void checkUnder(IndexComparator values, int index, int ancestor) {
+        int order = values.compare(index, ancestor);
+        if (isMinLevel(ancestor) ? order < 0 : order > 0) {
+            fail("Index " + index + " breaks the heap order against its ancestor " + ancestor + ".");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Round trip tests of HeapSnapshot - a restored heap must hold the same heap array as the written one, and keep
+ * working like a fresh heap afterwards.
+ *
+ */
+
+class HeapSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void maxMinHeapRoundTrip() throws IOException {
+        Random random = new Random(12);
+        for (int size : new int[]{0, 1, 2, 3, 1000, 50_000}) {
+            MaxMinHeap heap = new MaxMinHeap(random.ints(size).toArray());
+            heap.buildHeap();
+            Path file = directory.resolve("heap" + size);
+            HeapSnapshot.write(heap, file.toString());
+
+            MaxMinHeap restored = HeapSnapshot.readMaxMinHeap(file.toString(), true);
+            assertEquals(heap.size(), restored.size());
+            assertArrayEquals(Arrays.copyOf(heap.heapArray, heap.heapSize),
+                    Arrays.copyOf(restored.heapArray, restored.heapSize));
+            restored.heapInsert(random.nextInt());
+            HeapOrder.assertValid(restored.heapArray, restored.heapSize);
+        }
+    }
+
+    @Test
+    void offHeapRoundTripWithAndWithoutWritableFile() throws IOException {
+        Random random = new Random(13);
+        for (int size : new int[]{0, 1, 1000, 5000}) {
+            Path file = directory.resolve("offheap" + size);
+            int[] written;
+            try (OffHeapMaxMinHeap heap = new OffHeapMaxMinHeap()) {
+                for (int i = 0; i < size; i++) {
+                    heap.heapInsert(random.nextInt());
+                }
+                HeapSnapshot.write(heap, file.toString());
+                written = valuesOf(heap);
+            }
+            byte[] fileBytes = Files.readAllBytes(file);
+            for (boolean adoptMappedPages : new boolean[]{true, false}) {
+                try (OffHeapMaxMinHeap restored = HeapSnapshot.readOffHeapMaxMinHeap(file, true, adoptMappedPages)) {
+                    assertArrayEquals(written, valuesOf(restored));
+                    // The restored heap keeps working, its changes never reach the file
+                    SortedMultiset<Integer> expected = SortedMultiset.natural();
+                    for (int value : written) {
+                        expected.add(value);
+                    }
+                    for (int i = 0; i < 3000; i++) {
+                        int value = random.nextInt();
+                        restored.heapInsert(value);
+                        expected.add(value);
+                    }
+                    OffHeapMaxMinHeapTest.assertValid(restored);
+                    while (!expected.isEmpty()) {
+                        assertEquals(expected.removeMax(), restored.heapExtractMax());
+                    }
+                }
+                assertArrayEquals(fileBytes, Files.readAllBytes(file));
+            }
+        }
+    }
+
+    @Test
+    void readOnlySnapshotFileCanBeRestored() throws IOException {
+        Path file = directory.resolve("readOnly");
+        MaxMinHeap heap = new MaxMinHeap(new Random(14).ints(2000).toArray());
+        heap.buildHeap();
+        HeapSnapshot.write(heap, file.toString());
+        file.toFile().setWritable(false, false);
+        try (OffHeapMaxMinHeap restored = HeapSnapshot.readOffHeapMaxMinHeap(file.toString(), true)) {
+            assertArrayEquals(Arrays.copyOf(heap.heapArray, heap.heapSize), valuesOf(restored));
+        }
+    }
+
+    @Test
+    void corruptedSnapshotsAreRejected() throws IOException {
+        Path file = directory.resolve("corrupted");
+        MaxMinHeap heap = new MaxMinHeap(new Random(15).ints(100).toArray());
+        heap.buildHeap();
+        HeapSnapshot.write(heap, file.toString());
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(HeapSnapshot.HEADER_BYTES + 17);
+            raw.write(raw.read() ^ 1);
+        }
+        assertThrows(IOException.class, () -> HeapSnapshot.readMaxMinHeap(file.toString(), true));
+        assertThrows(IOException.class, () -> HeapSnapshot.readOffHeapMaxMinHeap(file.toString(), true));
+        // Without the checksum the flipped bit goes unnoticed
+        assertEquals(100, HeapSnapshot.readMaxMinHeap(file.toString(), false).size());
+
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(raw.length() - 1);
+        }
+        assertThrows(IOException.class, () -> HeapSnapshot.readMaxMinHeap(file.toString(), false));
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> HeapSnapshot.readMaxMinHeap(file.toString(), false));
+    }
+
+    private static int[] valuesOf(OffHeapMaxMinHeap heap) {
+        int[] values = new int[(int) heap.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = heap.get(i);
+        }
+        return values;
+    }
+}
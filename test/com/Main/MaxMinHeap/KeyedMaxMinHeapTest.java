@@ -0,0 +1,111 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential tests of KeyedMaxMinHeap against a TreeMap multiset of the keys and a map of payload -> key.
+ * Every payload is unique, so after every operation each index must still hold a payload together with its own key.
+ *
+ */
+
+class KeyedMaxMinHeapTest {
+
+    @Test
+    void randomOperationsMatchTheModel() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            // Odd seeds use a small key range, so many entries share a key
+            long bound = seed % 2 == 0 ? Long.MAX_VALUE : 30;
+            KeyedMaxMinHeap heap = new KeyedMaxMinHeap(seed % 3 == 0 ? 1 : 64);
+            SortedMultiset<Long> expected = SortedMultiset.natural();
+            Map<Long, Long> keyOfPayload = new HashMap<>();
+            KeyedMaxMinHeap.Entry entry = new KeyedMaxMinHeap.Entry();
+            long nextPayload = 0;
+            for (int operation = 0; operation < 3000; operation++) {
+                int kind = random.nextInt(10);
+                if (kind < 4 || expected.isEmpty()) {
+                    long key = random.nextLong() % bound;
+                    heap.heapInsert(key, nextPayload);
+                    keyOfPayload.put(nextPayload++, key);
+                    expected.add(key);
+                } else if (kind < 6) {
+                    assertSame(entry, heap.heapExtractMax(entry));
+                    assertExtracted(expected.removeMax(), entry, keyOfPayload);
+                } else if (kind < 8) {
+                    heap.heapExtractMin(entry);
+                    assertExtracted(expected.removeMin(), entry, keyOfPayload);
+                } else {
+                    int index = random.nextInt(heap.heapSize);
+                    expected.remove(heap.keys[index]);
+                    assertEquals(heap.keys[index], keyOfPayload.remove(heap.values[index]));
+                    heap.heapDelete(index);
+                }
+                assertEquals(expected.size(), heap.size());
+                assertValid(heap, keyOfPayload);
+                if (!expected.isEmpty()) {
+                    assertEquals(expected.max(), heap.peekMax(entry).getKey());
+                    assertEquals(expected.min(), heap.peekMin(entry).getKey());
+                    assertEquals(entry.getKey(), keyOfPayload.get(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void buildHeapKeepsEveryPayloadWithItsKey() {
+        Random random = new Random(20);
+        for (int size = 0; size < 300; size++) {
+            long[] keys = random.longs(size, -50, 50).toArray();
+            long[] payloads = new long[size];
+            Map<Long, Long> keyOfPayload = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                payloads[i] = i;
+                keyOfPayload.put((long) i, keys[i]);
+            }
+            KeyedMaxMinHeap heap = new KeyedMaxMinHeap(keys, payloads);
+            heap.buildHeap();
+            assertValid(heap, keyOfPayload);
+            KeyedMaxMinHeap.Entry entry = new KeyedMaxMinHeap.Entry();
+            long previous = Long.MAX_VALUE;
+            while (!heap.isEmpty()) {
+                heap.heapExtractMax(entry);
+                assertTrue(entry.getKey() <= previous);
+                assertEquals(entry.getKey(), keyOfPayload.remove(entry.getValue()));
+                previous = entry.getKey();
+            }
+            assertTrue(keyOfPayload.isEmpty());
+        }
+    }
+
+    @Test
+    void emptyHeapAndBadInputThrow() {
+        KeyedMaxMinHeap heap = new KeyedMaxMinHeap();
+        KeyedMaxMinHeap.Entry entry = new KeyedMaxMinHeap.Entry();
+        assertThrows(EmptyHeapException.class, () -> heap.heapExtractMax(entry));
+        assertThrows(EmptyHeapException.class, () -> heap.peekMin(entry));
+        assertThrows(IndexOutOfBoundsException.class, () -> heap.heapDelete(0));
+        assertThrows(IllegalArgumentException.class, () -> new KeyedMaxMinHeap(new long[2], new long[3]));
+    }
+
+    private static void assertExtracted(long expectedKey, KeyedMaxMinHeap.Entry entry, Map<Long, Long> keyOfPayload) {
+        // Entries with equal keys may come out in any order, but the payload must be one that carries this key
+        assertEquals(expectedKey, entry.getKey());
+        assertEquals(expectedKey, keyOfPayload.remove(entry.getValue()));
+    }
+
+    private static void assertValid(KeyedMaxMinHeap heap, Map<Long, Long> keyOfPayload) {
+        HeapOrder.assertValid(heap.heapSize, (first, second) -> Long.compare(heap.keys[first], heap.keys[second]));
+        for (int index = 0; index < heap.heapSize; index++) {
+            assertEquals(keyOfPayload.get(heap.values[index]), heap.keys[index]);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Differential tests of LongMaxMinHeap against a TreeMap multiset (see MaxMinHeapTest).
+ *
+ */
+
+class LongMaxMinHeapTest {
+
+    @Test
+    void randomOperationsMatchTheMultiset() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            boolean duplicates = seed % 2 == 1;
+            LongMaxMinHeap heap = new LongMaxMinHeap();
+            SortedMultiset<Long> expected = SortedMultiset.natural();
+            for (int operation = 0; operation < 3000; operation++) {
+                int kind = random.nextInt(10);
+                if (kind < 4 || expected.isEmpty()) {
+                    long value = duplicates ? random.nextInt(50) : random.nextLong();
+                    heap.heapInsert(value);
+                    expected.add(value);
+                } else if (kind < 6) {
+                    assertEquals(expected.removeMax(), heap.heapExtractMax());
+                } else if (kind < 8) {
+                    assertEquals(expected.removeMin(), heap.heapExtractMin());
+                } else if (kind < 9) {
+                    int index = random.nextInt(heap.heapSize);
+                    expected.remove(heap.heapArray[index]);
+                    heap.heapDelete(index);
+                } else if (random.nextInt(20) == 0) {
+                    // Scramble the heap array and rebuild it
+                    for (int i = heap.heapSize - 1; i > 0; i--) {
+                        int swap = random.nextInt(i + 1);
+                        long value = heap.heapArray[i];
+                        heap.heapArray[i] = heap.heapArray[swap];
+                        heap.heapArray[swap] = value;
+                    }
+                    heap.buildHeap();
+                }
+                assertEquals(expected.size(), heap.size());
+                long[] values = heap.heapArray;
+                HeapOrder.assertValid(heap.heapSize, (first, second) -> Long.compare(values[first], values[second]));
+            }
+        }
+    }
+
+    @Test
+    void emptyHeapThrows() {
+        LongMaxMinHeap heap = new LongMaxMinHeap();
+        assertThrows(EmptyHeapException.class, heap::heapExtractMax);
+        assertThrows(EmptyHeapException.class, heap::heapExtractMin);
+        assertThrows(IndexOutOfBoundsException.class, () -> heap.heapDelete(0));
+    }
+}
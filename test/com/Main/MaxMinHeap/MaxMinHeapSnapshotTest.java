@@ -0,0 +1,146 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of MaxMinHeap.snapshot() - snapshots must equal the heap array when taken, never change afterwards, and share
+ * the chunks that were not written in between.
+ *
+ */
+
+class MaxMinHeapSnapshotTest {
+
+    private static final int CHUNK_SIZE = 1 << MaxMinHeap.SNAPSHOT_CHUNK_SHIFT;
+
+    @Test
+    void snapshotsMatchTheHeapAndNeverChange() {
+        Random random = new Random(25);
+        MaxMinHeap heap = new MaxMinHeap();
+        heap.setLazyDeletion(0.25);
+        List<MaxMinHeapSnapshot> snapshots = new ArrayList<>();
+        List<int[]> expectedValues = new ArrayList<>();
+        for (int operation = 0; operation < 30_000; operation++) {
+            int kind = random.nextInt(20);
+            if (kind < 11 || heap.size() == 0) {
+                heap.heapInsert(random.nextInt(operation % 2 == 0 ? 50 : 1_000_000));
+            } else if (kind < 14) {
+                heap.heapExtractMax();
+            } else if (kind < 17) {
+                heap.heapExtractMin();
+            } else if (kind < 19) {
+                int index = random.nextInt(heap.heapSize);
+                while (MaxMinHeapTest.isDeleted(heap, index)) {
+                    index = random.nextInt(heap.heapSize);
+                }
+                heap.heapDelete(index);
+            } else {
+                MaxMinHeapSnapshot snapshot = heap.snapshot();
+                int[] values = Arrays.copyOf(heap.heapArray, heap.heapSize);
+                assertSnapshotEquals(values, snapshot);
+                snapshots.add(snapshot);
+                expectedValues.add(values);
+            }
+        }
+        // Later changes of the heap, compactions and rebuilds included, left every snapshot as it was
+        heap.buildHeap();
+        heap.heapInsert(-1);
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertSnapshotEquals(expectedValues.get(i), snapshots.get(i));
+        }
+    }
+
+    @Test
+    void unchangedChunksAreShared() {
+        int[] values = new int[8 * CHUNK_SIZE];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        MaxMinHeap heap = new MaxMinHeap(values);
+        heap.buildHeap();
+        MaxMinHeapSnapshot first = heap.snapshot();
+        MaxMinHeapSnapshot unchanged = heap.snapshot();
+        for (int chunk = 0; chunk < 8; chunk++) {
+            assertSame(first.chunks[chunk], unchanged.chunks[chunk]);
+        }
+
+        // The new value goes to index 8 * CHUNK_SIZE and bubbles up through its ancestors in chunks 3, 1 and 0 only
+        heap.heapInsert(-1);
+        MaxMinHeapSnapshot inserted = heap.snapshot();
+        assertEquals(9, inserted.chunks.length);
+        for (int chunk = 0; chunk < 8; chunk++) {
+            boolean onPath = chunk == 0 || chunk == 1 || chunk == 3;
+            if (onPath) {
+                assertNotSame(unchanged.chunks[chunk], inserted.chunks[chunk]);
+            } else {
+                assertSame(unchanged.chunks[chunk], inserted.chunks[chunk]);
+            }
+        }
+        assertSnapshotEquals(Arrays.copyOf(heap.heapArray, heap.heapSize), inserted);
+
+        // A rebuild rewrites the whole heap array, so nothing is shared
+        heap.buildHeap();
+        MaxMinHeapSnapshot rebuilt = heap.snapshot();
+        for (int chunk = 0; chunk < 9; chunk++) {
+            assertNotSame(inserted.chunks[chunk], rebuilt.chunks[chunk]);
+        }
+    }
+
+    @Test
+    void readsOfSmallAndEmptySnapshots() {
+        MaxMinHeap heap = new MaxMinHeap();
+        MaxMinHeapSnapshot empty = heap.snapshot();
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.toArray().length);
+        assertThrows(EmptyHeapException.class, empty::peekMax);
+        assertThrows(EmptyHeapException.class, empty::peekMin);
+        assertThrows(IndexOutOfBoundsException.class, () -> empty.get(0));
+
+        heap.heapInsert(4);
+        MaxMinHeapSnapshot one = heap.snapshot();
+        assertEquals(4, one.peekMax());
+        assertEquals(4, one.peekMin());
+        heap.heapInsert(9);
+        MaxMinHeapSnapshot two = heap.snapshot();
+        assertEquals(9, two.peekMax());
+        assertEquals(4, two.peekMin());
+        heap.heapInsert(1);
+        MaxMinHeapSnapshot three = heap.snapshot();
+        assertEquals(9, three.peekMax());
+        assertEquals(1, three.peekMin());
+        assertThrows(IndexOutOfBoundsException.class, () -> three.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> three.get(3));
+        assertEquals(1, one.size());
+        assertEquals(2, two.size());
+    }
+
+    private static void assertSnapshotEquals(int[] expected, MaxMinHeapSnapshot snapshot) {
+        // Checks every read of a snapshot against the heap array values it was taken from
+        assertEquals(expected.length, snapshot.size());
+        assertEquals(expected.length == 0, snapshot.isEmpty());
+        for (int index = 0; index < expected.length; index++) {
+            assertEquals(expected[index], snapshot.get(index));
+        }
+        assertArrayEquals(expected, snapshot.toArray());
+        int[] visited = new int[expected.length];
+        int[] count = {0};
+        snapshot.forEach(value -> visited[count[0]++] = value);
+        assertEquals(expected.length, count[0]);
+        assertArrayEquals(expected, visited);
+        if (expected.length > 0) {
+            assertEquals(Arrays.stream(expected).max().getAsInt(), snapshot.peekMax());
+            assertEquals(Arrays.stream(expected).min().getAsInt(), snapshot.peekMin());
+        }
+    }
+}
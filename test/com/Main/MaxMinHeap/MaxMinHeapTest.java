@@ -0,0 +1,506 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential tests of MaxMinHeap - random operations are applied to the heap and to a TreeMap multiset, and every
+ * result, the size and the heap order are compared after each of them.
+ *
+ */
+
+class MaxMinHeapTest {
+
+    private static final int SEEDS = 20;
+    private static final int OPERATIONS = 3000;
+
+    @Test
+    void randomOperationsMatchTheMultiset() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            Random random = new Random(seed);
+            // Odd seeds use a small value range, so the heap is full of duplicates
+            int bound = seed % 2 == 0 ? Integer.MAX_VALUE : 50;
+            MaxMinHeap heap = new MaxMinHeap();
+            SortedMultiset<Integer> expected = SortedMultiset.natural();
+            for (int operation = 0; operation < OPERATIONS; operation++) {
+                applyRandomOperation(random, bound, heap, expected);
+                assertEquals(expected.size(), heap.size());
+                HeapOrder.assertValid(heap.heapArray, heap.heapSize);
+            }
+        }
+    }
+
+    @Test
+    void buildHeapOrdersAnyArray() {
+        Random random = new Random(1);
+        for (int size = 0; size < 300; size++) {
+            int[] values = random.ints(size, -1000, 1000).toArray();
+            MaxMinHeap heap = new MaxMinHeap(values);
+            heap.buildHeap();
+            HeapOrder.assertValid(heap.heapArray, heap.heapSize);
+            assertDrainsLike(values, heap);
+        }
+    }
+
+    @Test
+    void heapifyFixesASingleIndex() {
+        Random random = new Random(2);
+        MaxMinHeap heap = new MaxMinHeap(random.ints(1000).toArray());
+        heap.buildHeap();
+        for (int i = 0; i < 200; i++) {
+            // Replace an inner value, then heapify it and every ancestor bottom up (each one sees valid subtrees)
+            int index = random.nextInt(heap.heapSize / 2);
+            heap.heapArray[index] = random.nextInt();
+            for (int ancestor = index; ; ancestor = (ancestor - 1) >> 1) {
+                heap.heapify(ancestor);
+                if (ancestor == 0) {
+                    break;
+                }
+            }
+            HeapOrder.assertValid(heap.heapArray, heap.heapSize);
+        }
+    }
+
+    @Test
+    void emptyHeapAndBadIndicesThrow() {
+        MaxMinHeap heap = new MaxMinHeap();
+        assertThrows(EmptyHeapException.class, heap::heapExtractMax);
+        assertThrows(EmptyHeapException.class, heap::heapExtractMin);
+        assertThrows(IndexOutOfBoundsException.class, () -> heap.heapDelete(0));
+        heap.heapInsert(7);
+        assertThrows(IndexOutOfBoundsException.class, () -> heap.heapDelete(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> heap.heapify(-1));
+        assertEquals(7, heap.heapExtractMin());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void listenerSeesEveryOperationAfterItIsApplied() {
+        StringBuilder events = new StringBuilder();
+        MaxMinHeap heap = new MaxMinHeap(new int[]{5, 1, 9});
+        heap.setEventListener(new HeapEventListener() {
+            @Override
+            public void onBuild(MaxMinHeap built) {
+                HeapOrder.assertValid(built.heapArray, built.heapSize);
+                events.append("build ");
+            }
+
+            @Override
+            public void onInsert(MaxMinHeap changed, int insertedValue) {
+                events.append("insert ").append(insertedValue).append(' ');
+            }
+
+            @Override
+            public void onDelete(MaxMinHeap changed, int deletedIndex, int deletedValue) {
+                events.append("delete ").append(deletedIndex).append('=').append(deletedValue).append(' ');
+            }
+
+            @Override
+            public void onExtractMax(MaxMinHeap changed, int extractedValue) {
+                events.append("max ").append(extractedValue).append(' ');
+            }
+
+            @Override
+            public void onExtractMin(MaxMinHeap changed, int extractedValue) {
+                events.append("min ").append(extractedValue).append(' ');
+            }
+
+            @Override
+            public void onError(MaxMinHeap unchanged, RuntimeException error) {
+                events.append("error ").append(error.getClass().getSimpleName()).append(' ');
+            }
+        });
+        heap.buildHeap();
+        heap.heapInsert(3);
+        heap.heapExtractMax();
+        heap.heapExtractMin();
+        heap.heapDelete(0);
+        assertEquals("build insert 3 max 9 min 1 delete 0=5 ", events.toString());
+        // Failed operations are reported before their exception is thrown, and leave the heap as it was
+        assertThrows(IndexOutOfBoundsException.class, () -> heap.heapDelete(1));
+        assertEquals(1, heap.size());
+        heap.heapExtractMax();
+        assertThrows(EmptyHeapException.class, heap::peekMin);
+        String expected = "build insert 3 max 9 min 1 delete 0=5 error IndexOutOfBoundsException max 3 error EmptyHeapException ";
+        assertEquals(expected, events.toString());
+        heap.setEventListener(null);
+        assertThrows(EmptyHeapException.class, heap::heapExtractMax);
+        assertEquals(expected, events.toString());
+    }
+
+    @Test
+    void insertAllMatchesSingleInserts() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            MaxMinHeap heap = new MaxMinHeap(random.ints(random.nextInt(500), 0, 100).toArray());
+            heap.buildHeap();
+            SortedMultiset<Integer> expected = SortedMultiset.natural();
+            heap.forEach(expected::add);
+            // Small batches go through bubbleUp, big ones through a rebuild of the whole heap
+            int[] batch = random.ints(random.nextBoolean() ? random.nextInt(8) : random.nextInt(2000), 0, 100).toArray();
+            int count = random.nextInt(batch.length + 1);
+            heap.insertAll(batch, count);
+            for (int i = 0; i < count; i++) {
+                expected.add(batch[i]);
+            }
+            HeapOrder.assertValid(heap.heapArray, heap.heapSize);
+            assertEquals(expected.size(), heap.size());
+            while (!expected.isEmpty()) {
+                assertEquals(expected.removeMax(), heap.heapExtractMax());
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new MaxMinHeap().insertAll(new int[2], 3));
+    }
+
+    @Test
+    void topAndBottomKMatchTheSortedValues() {
+        Random random = new Random(8);
+        for (int round = 0; round < 200; round++) {
+            int[] values = random.ints(random.nextInt(300), 0, round % 2 == 0 ? 20 : 100_000).toArray();
+            int[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int k = random.nextInt(values.length + 5);
+            int expectedCount = Math.min(k, values.length);
+            int[] output = new int[k];
+
+            MaxMinHeap heap = new MaxMinHeap(values);
+            heap.buildHeap();
+            assertEquals(expectedCount, heap.peekTopK(k, output));
+            for (int i = 0; i < expectedCount; i++) {
+                assertEquals(sorted[sorted.length - 1 - i], output[i]);
+            }
+            assertEquals(expectedCount, heap.peekBottomK(k, output));
+            for (int i = 0; i < expectedCount; i++) {
+                assertEquals(sorted[i], output[i]);
+            }
+            // Peeking leaves the heap as it was
+            assertEquals(values.length, heap.size());
+            HeapOrder.assertValid(heap.heapArray, heap.heapSize);
+
+            assertEquals(expectedCount, heap.extractTopK(k, output));
+            for (int i = 0; i < expectedCount; i++) {
+                assertEquals(sorted[sorted.length - 1 - i], output[i]);
+            }
+            assertEquals(values.length - expectedCount, heap.size());
+            // Asking for more than the heap holds extracts what is left, from the smallest up
+            int[] rest = new int[heap.size()];
+            assertEquals(rest.length, heap.extractBottomK(rest.length + 1, rest));
+            assertArrayEquals(Arrays.copyOf(sorted, rest.length), rest);
+            assertTrue(heap.isEmpty());
+        }
+    }
+
+    @Test
+    void badTopAndBottomKArgumentsExtractNothing() {
+        MaxMinHeap heap = new MaxMinHeap(new int[]{5, 1, 9, 3, 7});
+        heap.buildHeap();
+        assertEquals(0, heap.extractTopK(-2, new int[0]));
+        assertEquals(0, heap.extractBottomK(Integer.MIN_VALUE, new int[0]));
+        assertEquals(0, heap.peekTopK(-1, new int[0]));
+        // A short output is rejected before any value leaves the heap
+        assertThrows(IllegalArgumentException.class, () -> heap.extractTopK(3, new int[2]));
+        assertThrows(IllegalArgumentException.class, () -> heap.extractBottomK(10, new int[4]));
+        assertEquals(5, heap.size());
+        assertEquals(9, heap.peekMax());
+        assertEquals(1, heap.peekMin());
+    }
+
+    @Test
+    void fixedCapacityOffersKeepTheBestValues() {
+        Random random = new Random(9);
+        for (int round = 0; round < 100; round++) {
+            int capacity = 1 + random.nextInt(50);
+            MaxMinHeap largest = MaxMinHeap.withFixedCapacity(capacity);
+            MaxMinHeap smallest = MaxMinHeap.withFixedCapacity(capacity);
+            int[] stream = random.ints(random.nextInt(500), 0, round % 2 == 0 ? 30 : 1_000_000).toArray();
+            for (int value : stream) {
+                largest.offerKeepLargest(value);
+                smallest.offerKeepSmallest(value);
+                HeapOrder.assertValid(largest.heapArray, largest.heapSize);
+                HeapOrder.assertValid(smallest.heapArray, smallest.heapSize);
+            }
+            // The backing array is never grown
+            assertEquals(capacity, largest.heapArray.length);
+            assertEquals(capacity, smallest.heapArray.length);
+
+            int[] sorted = stream.clone();
+            Arrays.sort(sorted);
+            int kept = Math.min(capacity, sorted.length);
+            int[] top = new int[kept];
+            largest.heapSort(top);
+            assertArrayEquals(Arrays.copyOfRange(sorted, sorted.length - kept, sorted.length), top);
+            int[] bottom = new int[kept];
+            smallest.heapSort(bottom);
+            assertArrayEquals(Arrays.copyOf(sorted, kept), bottom);
+        }
+        MaxMinHeap full = MaxMinHeap.withFixedCapacity(1);
+        full.heapInsert(1);
+        assertTrue(full.isFull());
+        assertThrows(IllegalStateException.class, () -> full.heapInsert(2));
+        assertThrows(IllegalArgumentException.class, () -> MaxMinHeap.withFixedCapacity(0));
+    }
+
+    @Test
+    void sortedIteratorsAndHeapSortMatchTheSortedValues() {
+        Random random = new Random(16);
+        for (int round = 0; round < 200; round++) {
+            int[] values = random.ints(random.nextInt(400), 0, round % 2 == 0 ? 20 : 100_000).toArray();
+            int[] sorted = values.clone();
+            Arrays.sort(sorted);
+            MaxMinHeap heap = new MaxMinHeap(values);
+            heap.buildHeap();
+
+            PrimitiveIterator.OfInt ascending = heap.ascendingIterator();
+            PrimitiveIterator.OfInt descending = heap.descendingIterator();
+            for (int i = 0; i < sorted.length; i++) {
+                assertEquals(sorted[i], ascending.nextInt());
+                assertEquals(sorted[sorted.length - 1 - i], descending.nextInt());
+            }
+            assertFalse(ascending.hasNext());
+            assertFalse(descending.hasNext());
+            assertThrows(NoSuchElementException.class, ascending::nextInt);
+            assertEquals(values.length, heap.size());
+
+            int[] output = new int[values.length + random.nextInt(3)];
+            assertEquals(values.length, heap.heapSort(output));
+            assertArrayEquals(sorted, Arrays.copyOf(output, values.length));
+            assertTrue(heap.isEmpty());
+        }
+        MaxMinHeap heap = new MaxMinHeap(new int[]{3, 1, 2});
+        heap.buildHeap();
+        PrimitiveIterator.OfInt iterator = heap.ascendingIterator();
+        heap.heapInsert(0);
+        assertThrows(ConcurrentModificationException.class, iterator::nextInt);
+        assertThrows(IllegalArgumentException.class, () -> heap.heapSort(new int[3]));
+    }
+
+    @Test
+    void meldAndMergeAllKeepEveryValue() {
+        Random random = new Random(17);
+        for (int round = 0; round < 200; round++) {
+            MaxMinHeap[] heaps = new MaxMinHeap[1 + random.nextInt(5)];
+            SortedMultiset<Integer> expected = SortedMultiset.natural();
+            for (int i = 0; i < heaps.length; i++) {
+                // Sizes of very different orders, so meld takes both the bubbleUp and the rebuild paths
+                int[] values = random.ints(random.nextInt(random.nextBoolean() ? 10 : 3000), 0, 1000).toArray();
+                heaps[i] = new MaxMinHeap(values);
+                heaps[i].buildHeap();
+                for (int value : values) {
+                    expected.add(value);
+                }
+            }
+
+            MaxMinHeap merged = MaxMinHeap.mergeAll(heaps);
+            HeapOrder.assertValid(merged.heapArray, merged.heapSize);
+            assertEquals(expected.size(), merged.size());
+
+            MaxMinHeap melded = heaps[0];
+            for (int i = 1; i < heaps.length; i++) {
+                int otherSize = heaps[i].size();
+                int ownSize = melded.size();
+                melded.meld(heaps[i]);
+                assertEquals(ownSize + otherSize, melded.size());
+                assertTrue(heaps[i].isEmpty());
+                HeapOrder.assertValid(melded.heapArray, melded.heapSize);
+            }
+            int[] mergedSorted = new int[merged.size()];
+            merged.heapSort(mergedSorted);
+            int[] meldedSorted = new int[melded.size()];
+            melded.heapSort(meldedSorted);
+            assertArrayEquals(mergedSorted, meldedSorted);
+            for (int value : mergedSorted) {
+                assertEquals(expected.removeMin(), value);
+            }
+        }
+        MaxMinHeap heap = new MaxMinHeap();
+        assertThrows(IllegalArgumentException.class, () -> heap.meld(heap));
+    }
+
+    @Test
+    void lazyDeletionMatchesTheMultisetAndReadsChangeNothing() {
+        PrintStream console = System.out;
+        try {
+            // printHeap is one of the reads under test, its output is not
+            System.setOut(new PrintStream(new ByteArrayOutputStream()));
+            for (int seed = 0; seed < SEEDS; seed++) {
+                Random random = new Random(seed);
+                MaxMinHeap heap = new MaxMinHeap();
+                heap.setLazyDeletion(seed % 2 == 0 ? 0.5 : 1);
+                SortedMultiset<Integer> expected = SortedMultiset.natural();
+                for (int operation = 0; operation < OPERATIONS; operation++) {
+                    int kind = random.nextInt(10);
+                    if (kind < 4 || expected.isEmpty()) {
+                        int value = random.nextInt(100);
+                        heap.heapInsert(value);
+                        expected.add(value);
+                    } else if (kind < 5) {
+                        assertEquals(expected.removeMax(), heap.heapExtractMax());
+                    } else if (kind < 6) {
+                        assertEquals(expected.removeMin(), heap.heapExtractMin());
+                    } else {
+                        int index = random.nextInt(heap.heapSize);
+                        while (isDeleted(heap, index)) {
+                            index = random.nextInt(heap.heapSize);
+                        }
+                        expected.remove(heap.heapArray[index]);
+                        heap.heapDelete(index);
+                    }
+                    assertEquals(expected.size(), heap.size());
+                    HeapOrder.assertValid(heap.heapArray, heap.heapSize);
+                    for (int top = 0; top < Math.min(3, heap.heapSize); top++) {
+                        assertFalse(isDeleted(heap, top), "Top cell " + top + " holds a deleted value.");
+                    }
+                    if (operation % 10 == 0) {
+                        assertReadsChangeNothing(heap, expected);
+                    }
+                }
+            }
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    @Test
+    void parallelBuildMatchesTheSerialBuild() {
+        Random random = new Random(15);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Sizes around the threshold, and a heap whose last level is only partly filled
+            for (int size : new int[]{MaxMinHeap.PARALLEL_BUILD_THRESHOLD - 1, MaxMinHeap.PARALLEL_BUILD_THRESHOLD,
+                    3 * MaxMinHeap.PARALLEL_BUILD_THRESHOLD + 12345}) {
+                int[] values = random.ints(size, 0, size % 2 == 0 ? 1000 : Integer.MAX_VALUE).toArray();
+                MaxMinHeap serial = new MaxMinHeap(values.clone());
+                serial.buildHeap();
+                MaxMinHeap parallel = new MaxMinHeap(values.clone());
+                parallel.buildHeapParallel(pool);
+                HeapOrder.assertValid(parallel.heapArray, parallel.heapSize);
+                // heapify of a node only depends on its own subtree, so both builds end with the same array
+                assertArrayEquals(Arrays.copyOf(serial.heapArray, serial.heapSize), Arrays.copyOf(parallel.heapArray, parallel.heapSize));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static void applyRandomOperation(Random random, int bound, MaxMinHeap heap, SortedMultiset<Integer> expected) {
+        /*
+        Applies one random insert / extract-max / extract-min / delete / build to both the heap and the multiset
+         */
+        int operation = random.nextInt(10);
+        if (operation < 4 || expected.isEmpty()) {
+            int value = random.nextInt(bound);
+            heap.heapInsert(value);
+            expected.add(value);
+        } else if (operation < 6) {
+            assertEquals(expected.removeMax(), heap.heapExtractMax());
+        } else if (operation < 8) {
+            assertEquals(expected.removeMin(), heap.heapExtractMin());
+        } else if (operation < 9) {
+            int index = random.nextInt(heap.heapSize);
+            expected.remove(heap.heapArray[index]);
+            heap.heapDelete(index);
+        } else if (random.nextInt(20) == 0) {
+            // Rebuild the heap with buildHeap from its values in a shuffled order
+            int[] values = new int[heap.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = heap.heapExtractMin();
+            }
+            for (int i = values.length - 1; i > 0; i--) {
+                int swap = random.nextInt(i + 1);
+                int value = values[i];
+                values[i] = values[swap];
+                values[swap] = value;
+            }
+            System.arraycopy(values, 0, heap.heapArray, 0, values.length);
+            heap.heapSize = values.length;
+            heap.buildHeap();
+        }
+    }
+
+    static void assertDrainsLike(int[] values, MaxMinHeap heap) {
+        /*
+        Drains the heap from both ends and checks it returns exactly the given values
+         */
+        SortedMultiset<Integer> expected = SortedMultiset.natural();
+        for (int value : values) {
+            expected.add(value);
+        }
+        boolean fromTop = true;
+        while (!expected.isEmpty()) {
+            if (fromTop) {
+                assertEquals(expected.removeMax(), heap.heapExtractMax());
+            } else {
+                assertEquals(expected.removeMin(), heap.heapExtractMin());
+            }
+            fromTop = !fromTop;
+        }
+        assertTrue(heap.isEmpty());
+    }
+
+    static void assertReadsChangeNothing(MaxMinHeap heap, SortedMultiset<Integer> expected) {
+        /*
+        Runs every read of the heap and checks the results against the multiset, and that the heap array, its size and
+        its tombstones are exactly as they were before
+         */
+        int[] array = heap.heapArray.clone();
+        int size = heap.heapSize;
+        long[] tombstones = heap.tombstones.clone();
+        int tombstoneCount = heap.getTombstoneCount();
+
+        int[] ascending = new int[expected.size()];
+        int count = 0;
+        for (Map.Entry<Integer, Integer> entry : expected.entries()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                ascending[count++] = entry.getKey();
+            }
+        }
+        if (count > 0) {
+            assertEquals(ascending[count - 1], heap.peekMax());
+            assertEquals(ascending[0], heap.peekMin());
+        }
+        int k = count / 2 + 1;
+        int[] output = new int[k];
+        int copied = heap.peekTopK(k, output);
+        for (int i = 0; i < copied; i++) {
+            assertEquals(ascending[count - 1 - i], output[i]);
+        }
+        copied = heap.peekBottomK(k, output);
+        assertEquals(Math.min(k, count), copied);
+        assertArrayEquals(Arrays.copyOf(ascending, copied), Arrays.copyOf(output, copied));
+
+        PrimitiveIterator.OfInt iterator = heap.ascendingIterator();
+        for (int value : ascending) {
+            assertEquals(value, iterator.nextInt());
+        }
+        assertFalse(iterator.hasNext());
+        iterator = heap.descendingIterator();
+        for (int i = count - 1; i >= 0; i--) {
+            assertEquals(ascending[i], iterator.nextInt());
+        }
+        heap.printHeap();
+
+        assertEquals(size, heap.heapSize);
+        assertEquals(tombstoneCount, heap.getTombstoneCount());
+        assertArrayEquals(array, heap.heapArray);
+        assertArrayEquals(tombstones, heap.tombstones);
+    }
+
+    static boolean isDeleted(MaxMinHeap heap, int index) {
+        return (heap.tombstones[index >>> 6] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Differential tests of ObjectMaxMinHeap against a TreeMap multiset with the same comparator (see MaxMinHeapTest).
+ *
+ */
+
+class ObjectMaxMinHeapTest {
+
+    @Test
+    void naturalOrderMatchesTheMultiset() {
+        for (int seed = 0; seed < 10; seed++) {
+            runRandomOperations(new Random(seed), Comparator.<Integer>naturalOrder(), new ObjectMaxMinHeap<>());
+        }
+    }
+
+    @Test
+    void comparatorOrderMatchesTheMultiset() {
+        // The max of a reversed comparator is the smallest integer
+        for (int seed = 0; seed < 10; seed++) {
+            Comparator<Integer> reversed = Comparator.reverseOrder();
+            runRandomOperations(new Random(seed), reversed, new ObjectMaxMinHeap<>(reversed));
+        }
+    }
+
+    @Test
+    void buildHeapFromACollection() {
+        Random random = new Random(3);
+        for (int size = 0; size < 200; size++) {
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                values.add(Integer.toString(random.nextInt(1000), 36));
+            }
+            ObjectMaxMinHeap<String> heap = new ObjectMaxMinHeap<>(values, Comparator.naturalOrder());
+            heap.buildHeap();
+            SortedMultiset<String> expected = SortedMultiset.natural();
+            values.forEach(expected::add);
+            while (!expected.isEmpty()) {
+                assertEquals(expected.removeMax(), heap.heapExtractMax());
+                if (!expected.isEmpty()) {
+                    assertEquals(expected.removeMin(), heap.heapExtractMin());
+                }
+            }
+        }
+    }
+
+    @Test
+    void emptyHeapThrows() {
+        ObjectMaxMinHeap<String> heap = new ObjectMaxMinHeap<>();
+        assertThrows(EmptyHeapException.class, heap::heapExtractMax);
+        assertThrows(EmptyHeapException.class, heap::heapExtractMin);
+        assertThrows(IndexOutOfBoundsException.class, () -> heap.heapDelete(0));
+    }
+
+    private static void runRandomOperations(Random random, Comparator<Integer> comparator, ObjectMaxMinHeap<Integer> heap) {
+        SortedMultiset<Integer> expected = new SortedMultiset<>(comparator);
+        int bound = random.nextBoolean() ? 50 : Integer.MAX_VALUE;
+        for (int operation = 0; operation < 3000; operation++) {
+            int kind = random.nextInt(10);
+            if (kind < 4 || expected.isEmpty()) {
+                int value = random.nextInt(bound);
+                heap.heapInsert(value);
+                expected.add(value);
+            } else if (kind < 6) {
+                assertEquals(expected.removeMax(), heap.heapExtractMax());
+            } else if (kind < 8) {
+                assertEquals(expected.removeMin(), heap.heapExtractMin());
+            } else if (kind < 9) {
+                int index = random.nextInt(heap.heapSize);
+                expected.remove((Integer) heap.heapArray[index]);
+                heap.heapDelete(index);
+            } else if (random.nextInt(20) == 0) {
+                // Scramble the heap array and rebuild it
+                for (int i = heap.heapSize - 1; i > 0; i--) {
+                    int swap = random.nextInt(i + 1);
+                    Object value = heap.heapArray[i];
+                    heap.heapArray[i] = heap.heapArray[swap];
+                    heap.heapArray[swap] = value;
+                }
+                heap.buildHeap();
+            }
+            assertEquals(expected.size(), heap.size());
+            Object[] values = heap.heapArray;
+            HeapOrder.assertValid(heap.heapSize, (first, second) -> comparator.compare((Integer) values[first], (Integer) values[second]));
+        }
+    }
+}
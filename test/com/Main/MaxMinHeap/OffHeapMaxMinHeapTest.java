@@ -0,0 +1,120 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential tests of OffHeapMaxMinHeap against a TreeMap multiset. Small pages are used, so the heap crosses many
+ * page boundaries and grows its last page several times within a few thousand values.
+ *
+ */
+
+class OffHeapMaxMinHeapTest {
+
+    @Test
+    void randomOperationsMatchTheMultiset() {
+        for (int seed = 0; seed < 12; seed++) {
+            Random random = new Random(seed);
+            int bound = seed % 2 == 0 ? Integer.MAX_VALUE : 50;
+            // 2^3 values per page crosses pages all the time, 2^12 grows the first page from 2^10 values twice
+            try (OffHeapMaxMinHeap heap = new OffHeapMaxMinHeap(seed % 3 == 0 ? 12 : 3)) {
+                SortedMultiset<Integer> expected = SortedMultiset.natural();
+                for (int operation = 0; operation < 6000; operation++) {
+                    int kind = random.nextInt(10);
+                    // Inserts win more often early on, so the heap gets past the first page sizes
+                    if (kind < (operation < 3000 ? 7 : 4) || expected.isEmpty()) {
+                        int value = random.nextInt(bound);
+                        heap.heapInsert(value);
+                        expected.add(value);
+                    } else if (kind < 6) {
+                        assertEquals(expected.removeMax(), heap.heapExtractMax());
+                    } else if (kind < 8) {
+                        assertEquals(expected.removeMin(), heap.heapExtractMin());
+                    } else {
+                        long index = random.nextInt((int) heap.size());
+                        expected.remove(heap.get(index));
+                        heap.heapDelete(index);
+                    }
+                    assertEquals(expected.size(), heap.size());
+                    if (!expected.isEmpty()) {
+                        assertEquals(expected.max(), heap.peekMax());
+                        assertEquals(expected.min(), heap.peekMin());
+                    }
+                    if (operation % 100 == 0) {
+                        assertValid(heap);
+                    }
+                }
+                assertValid(heap);
+            }
+        }
+    }
+
+    @Test
+    void buildHeapOrdersAppendedValues() {
+        Random random = new Random(1);
+        for (int size = 0; size < 3000; size += 1 + random.nextInt(200)) {
+            int[] values = random.ints(size, -1000, 1000).toArray();
+            try (OffHeapMaxMinHeap heap = new OffHeapMaxMinHeap(size % 2 == 0 ? 4 : 11)) {
+                for (int value : values) {
+                    heap.appendUnordered(value);
+                }
+                heap.buildHeap();
+                assertValid(heap);
+                SortedMultiset<Integer> expected = SortedMultiset.natural();
+                for (int value : values) {
+                    expected.add(value);
+                }
+                while (!expected.isEmpty()) {
+                    assertEquals(expected.removeMin(), heap.heapExtractMin());
+                    if (!expected.isEmpty()) {
+                        assertEquals(expected.removeMax(), heap.heapExtractMax());
+                    }
+                }
+                assertTrue(heap.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void pagesStartSmallAndGrowToTheirFullSize() {
+        try (OffHeapMaxMinHeap heap = new OffHeapMaxMinHeap()) {
+            heap.heapInsert(1);
+            assertEquals(OffHeapMaxMinHeap.FIRST_PAGE_VALUES * OffHeapMaxMinHeap.VALUE_BYTES, heap.pages[0].capacity());
+        }
+        try (OffHeapMaxMinHeap heap = new OffHeapMaxMinHeap(12)) {
+            for (int value = 0; value <= 4096; value++) {
+                heap.heapInsert(value);
+            }
+            assertEquals(2, heap.pageCount);
+            assertEquals(4096 * OffHeapMaxMinHeap.VALUE_BYTES, heap.pages[0].capacity());
+            assertEquals(OffHeapMaxMinHeap.FIRST_PAGE_VALUES * OffHeapMaxMinHeap.VALUE_BYTES, heap.pages[1].capacity());
+            assertEquals(4096, heap.peekMax());
+            assertEquals(0, heap.peekMin());
+        }
+    }
+
+    @Test
+    void emptyClosedHeapAndBadIndicesThrow() {
+        OffHeapMaxMinHeap heap = new OffHeapMaxMinHeap(3);
+        assertThrows(EmptyHeapException.class, heap::heapExtractMax);
+        assertThrows(EmptyHeapException.class, heap::peekMin);
+        assertThrows(IndexOutOfBoundsException.class, () -> heap.heapDelete(0));
+        heap.heapInsert(7);
+        assertThrows(IndexOutOfBoundsException.class, () -> heap.heapify(1));
+        heap.close();
+        heap.close();
+        assertThrows(IllegalStateException.class, () -> heap.heapify(0));
+        assertThrows(IllegalStateException.class, () -> heap.heapInsert(1));
+        assertThrows(IllegalStateException.class, heap::peekMax);
+        assertThrows(IllegalStateException.class, heap::buildHeap);
+    }
+
+    static void assertValid(OffHeapMaxMinHeap heap) {
+        HeapOrder.assertValid((int) heap.size(), (first, second) -> Integer.compare(heap.get(first), heap.get(second)));
+    }
+}
@@ -0,0 +1,107 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of RelaxedMaxMinHeap - the extracts are only close to the max / min, so the tests check that no value is
+ * ever lost or returned twice, alone and with concurrent producers and consumers.
+ *
+ */
+
+class RelaxedMaxMinHeapTest {
+
+    private static final int THREADS = 4;
+    private static final int VALUES_PER_THREAD = 20_000;
+
+    @Test
+    void everyValueComesOutOnce() {
+        Random random = new Random(18);
+        RelaxedMaxMinHeap heap = new RelaxedMaxMinHeap(8);
+        int[] values = random.ints(5000, 0, 100).toArray();
+        for (int value : values) {
+            heap.heapInsert(value);
+        }
+        assertEquals(values.length, heap.size());
+        int[] extracted = new int[values.length];
+        for (int i = 0; i < extracted.length; i++) {
+            extracted[i] = random.nextBoolean() ? heap.heapExtractMax() : heap.heapExtractMin();
+        }
+        assertTrue(heap.isEmpty());
+        assertThrows(EmptyHeapException.class, heap::heapExtractMax);
+        assertThrows(EmptyHeapException.class, heap::heapExtractMin);
+        Arrays.sort(values);
+        Arrays.sort(extracted);
+        assertArrayEquals(values, extracted);
+        assertThrows(IllegalArgumentException.class, () -> new RelaxedMaxMinHeap(1));
+    }
+
+    @Test
+    void concurrentProducersAndConsumersKeepEveryValue() throws Exception {
+        RelaxedMaxMinHeap heap = new RelaxedMaxMinHeap(2 * THREADS);
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<int[]> extracted = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int threadIndex = t;
+            int[] taken = new int[VALUES_PER_THREAD + 1];
+            extracted.add(taken);
+            threads.add(new Thread(() -> {
+                try {
+                    Random random = new Random(threadIndex);
+                    start.await();
+                    int count = 0;
+                    for (int i = 0; i < VALUES_PER_THREAD; i++) {
+                        // Every value is unique, so a lost or duplicated value shows up in the final array
+                        heap.heapInsert(threadIndex * VALUES_PER_THREAD + i);
+                        if (random.nextInt(3) == 0) {
+                            try {
+                                taken[1 + count] = random.nextBoolean() ? heap.heapExtractMax() : heap.heapExtractMin();
+                                count++;
+                            } catch (EmptyHeapException e) {
+                                // Other threads emptied every shard in between
+                            }
+                        }
+                    }
+                    taken[0] = count;
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        int[] all = new int[THREADS * VALUES_PER_THREAD];
+        int count = 0;
+        for (int[] taken : extracted) {
+            System.arraycopy(taken, 1, all, count, taken[0]);
+            count += taken[0];
+        }
+        assertEquals(all.length - count, heap.size());
+        while (!heap.isEmpty()) {
+            all[count++] = heap.heapExtractMin();
+        }
+        Arrays.sort(all);
+        int[] expected = new int[all.length];
+        Arrays.setAll(expected, i -> i);
+        assertArrayEquals(expected, all);
+    }
+}
@@ -0,0 +1,84 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of RunningQuantile / RunningMedian against a sorted copy of the samples kept in the window.
+ *
+ */
+
+class RunningQuantileTest {
+
+    @Test
+    void quantilesMatchTheSortedWindow() {
+        for (double quantile : new double[]{0.01, 0.25, 0.5, 0.9, 0.99, 1.0}) {
+            Random random = new Random(Double.hashCode(quantile));
+            int capacity = 1 + random.nextInt(200);
+            RunningQuantile running = new RunningQuantile(quantile, capacity);
+            // Samples kept by the model, by id in arrival order
+            Map<Long, Integer> window = new LinkedHashMap<>();
+            long nextId = 0;
+            for (int operation = 0; operation < 5000; operation++) {
+                int kind = random.nextInt(10);
+                if (kind < 7) {
+                    int sample = random.nextInt(operation % 2 == 0 ? 20 : 1_000_000);
+                    long id = running.add(sample);
+                    assertEquals(nextId++, id);
+                    window.put(id, sample);
+                    // The sample added <capacity> adds ago left the window
+                    window.remove(id - capacity);
+                } else if (kind < 9) {
+                    // Ids are given out from 0 up, so this picks evicted, kept, removed and future ids alike
+                    long id = Math.max(0, nextId - capacity - 5 + random.nextInt(capacity + 8));
+                    assertEquals(window.containsKey(id), running.remove(id));
+                    window.remove(id);
+                } else {
+                    boolean hadSamples = !window.isEmpty();
+                    assertEquals(hadSamples, running.evictOldest());
+                    if (hadSamples) {
+                        window.remove(window.keySet().iterator().next());
+                    }
+                }
+                assertEquals(window.size(), running.size());
+                if (!window.isEmpty()) {
+                    List<Integer> sorted = new ArrayList<>(window.values());
+                    sorted.sort(null);
+                    int rank = Math.min(sorted.size(), Math.max(1, (int) Math.ceil(quantile * sorted.size())));
+                    assertEquals(sorted.get(rank - 1), running.getQuantile());
+                }
+            }
+        }
+    }
+
+    @Test
+    void medianAveragesTheMiddlePair() {
+        RunningMedian median = new RunningMedian(4);
+        assertTrue(median.isEmpty());
+        assertThrows(EmptyHeapException.class, median::getMedian);
+        median.add(10);
+        assertEquals(10.0, median.getMedian());
+        median.add(Integer.MAX_VALUE);
+        assertEquals((10.0 + Integer.MAX_VALUE) / 2, median.getMedian());
+        median.add(20);
+        assertEquals(20.0, median.getMedian());
+        median.add(1);
+        assertEquals(15.0, median.getMedian());
+        // The window holds 4 samples, adding a fifth evicts the 10
+        median.add(30);
+        assertEquals(25.0, median.getMedian());
+        assertFalse(median.remove(0));
+        assertThrows(IllegalArgumentException.class, () -> new RunningMedian(0));
+        assertThrows(IllegalArgumentException.class, () -> new RunningQuantile(0, 10));
+    }
+}
@@ -0,0 +1,81 @@
+package com.Main.MaxMinHeap;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The reference model of the differential heap tests - a multiset on a TreeMap of value -> count.
+ * Slow and boxed, but obviously right, so every heap engine is checked against it operation by operation.
+ *
+ */
+
+final class SortedMultiset<T> {
+
+    private final TreeMap<T, Integer> counts;
+    private int size;
+
+    SortedMultiset(Comparator<? super T> comparator) {
+        this.counts = new TreeMap<>(comparator);
+    }
+
+    static <T extends Comparable<? super T>> SortedMultiset<T> natural() {
+        return new SortedMultiset<>(Comparator.naturalOrder());
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void add(T value) {
+        counts.merge(value, 1, Integer::sum);
+        size++;
+    }
+
+    void remove(T value) {
+        // Throws AssertionError if the value is not in the multiset (the heap returned a value it never got)
+        Integer count = counts.get(value);
+        if (count == null) {
+            throw new AssertionError("Value " + value + " is not in the multiset.");
+        }
+        if (count == 1) {
+            counts.remove(value);
+        } else {
+            counts.put(value, count - 1);
+        }
+        size--;
+    }
+
+    T max() {
+        return counts.lastKey();
+    }
+
+    T min() {
+        return counts.firstKey();
+    }
+
+    T removeMax() {
+        T max = counts.lastKey();
+        remove(max);
+        return max;
+    }
+
+    T removeMin() {
+        T min = counts.firstKey();
+        remove(min);
+        return min;
+    }
+
+    void clear() {
+        counts.clear();
+        size = 0;
+    }
+
+    Iterable<Map.Entry<T, Integer>> entries() {
+        return counts.entrySet();
+    }
+}
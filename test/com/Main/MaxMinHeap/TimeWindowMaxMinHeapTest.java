@@ -0,0 +1,108 @@
+package com.Main.MaxMinHeap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of TimeWindowMaxMinHeap on a fake clock, against a queue of the (arrival time, value) pairs in the window.
+ *
+ */
+
+class TimeWindowMaxMinHeapTest {
+
+    private static final long WINDOW_NANOS = 1_000;
+
+    @Test
+    void maxAndMinMatchTheWindow() {
+        Random random = new Random(24);
+        long[] clock = {0};
+        TimeWindowMaxMinHeap window = new TimeWindowMaxMinHeap(WINDOW_NANOS, TimeUnit.NANOSECONDS, () -> clock[0]);
+        Deque<long[]> expected = new ArrayDeque<>();
+        for (int operation = 0; operation < 20_000; operation++) {
+            // Bursts of inserts at the same time, and pauses long enough to empty the whole window
+            int step = random.nextInt(100);
+            clock[0] += step < 30 ? 0 : step < 98 ? random.nextInt(60) : 2 * WINDOW_NANOS;
+            while (!expected.isEmpty() && clock[0] - expected.peekFirst()[0] >= WINDOW_NANOS) {
+                expected.pollFirst();
+            }
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                int value = random.nextInt(operation % 2 == 0 ? 20 : 1_000_000);
+                window.heapInsert(value);
+                expected.addLast(new long[]{clock[0], value});
+            } else if (kind < 8) {
+                assertEquals(expected.size(), window.size());
+                assertEquals(expected.isEmpty(), window.isEmpty());
+            } else if (expected.isEmpty()) {
+                assertThrows(EmptyHeapException.class, window::getMax);
+                assertThrows(EmptyHeapException.class, window::getMin);
+            } else {
+                long max = Long.MIN_VALUE;
+                long min = Long.MAX_VALUE;
+                for (long[] arrival : expected) {
+                    max = Math.max(max, arrival[1]);
+                    min = Math.min(min, arrival[1]);
+                }
+                assertEquals(max, window.getMax());
+                assertEquals(min, window.getMin());
+            }
+            assertEquals(expected.size(), window.heap.size());
+        }
+    }
+
+    @Test
+    void valuesExpireExactlyAtTheWindowLength() {
+        long[] clock = {100};
+        TimeWindowMaxMinHeap window = new TimeWindowMaxMinHeap(WINDOW_NANOS, TimeUnit.NANOSECONDS, () -> clock[0]);
+        window.heapInsert(7);
+        clock[0] += 500;
+        window.heapInsert(3);
+        clock[0] += WINDOW_NANOS - 501;
+        assertEquals(7, window.getMax());
+        assertEquals(0, window.expire());
+        clock[0]++;
+        assertEquals(1, window.expire());
+        assertEquals(3, window.getMax());
+        assertEquals(3, window.getMin());
+        clock[0] += 500;
+        assertTrue(window.isEmpty());
+        assertThrows(EmptyHeapException.class, window::getMax);
+    }
+
+    @Test
+    void ringGrowsWhileWrappedAround() {
+        long[] clock = {0};
+        TimeWindowMaxMinHeap window = new TimeWindowMaxMinHeap(WINDOW_NANOS, TimeUnit.NANOSECONDS, () -> clock[0]);
+        // Moves the oldest value to the middle of the ring, then fills it past its capacity so it grows wrapped around
+        for (int value = 0; value < 10; value++) {
+            window.heapInsert(value);
+        }
+        clock[0] = WINDOW_NANOS;
+        assertEquals(10, window.expire());
+        for (int value = 0; value < 100; value++) {
+            clock[0] += 10;
+            window.heapInsert(value);
+        }
+        assertEquals(100, window.size());
+        for (int expired = 0; expired < 100; expired++) {
+            assertEquals(expired, window.getMin());
+            assertEquals(99, window.getMax());
+            clock[0] += 10;
+        }
+        assertTrue(window.isEmpty());
+    }
+
+    @Test
+    void windowMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeWindowMaxMinHeap(0, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new TimeWindowMaxMinHeap(-1, TimeUnit.SECONDS));
+    }
+}